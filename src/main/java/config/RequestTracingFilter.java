@@ -0,0 +1,90 @@
+package config;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Gives every request a trace id, puts it in the MDC for all log lines written while the
+ * request runs and echoes it in the X-Trace-Id response header. A caller-supplied X-Trace-Id
+ * is kept so a trace can span services.
+ * Ids are a per-process random prefix plus a counter, so generating one costs an atomic
+ * increment. One summary line is logged for a sampled fraction of requests (every Nth, no
+ * random draw); failed and slow requests are always logged.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestTracingFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_HEADER = "X-Trace-Id";
+    public static final String TRACE_MDC_KEY = "traceId";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestTracingFilter.class);
+    private static final Pattern VALID_TRACE_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    private final String prefix = Integer.toHexString(ThreadLocalRandom.current().nextInt() | 0x10000000);
+    private final AtomicLong sequence = new AtomicLong();
+    private final long sampleEvery;
+    private final long slowRequestNanos;
+    private final Counter slowRequests;
+
+    public RequestTracingFilter(MeterRegistry meterRegistry,
+                                @Value("${tracing.sample-rate:0.01}") double sampleRate,
+                                @Value("${tracing.slow-request-ms:1000}") long slowRequestMillis) {
+        // 0 turns sampling off; failed and slow requests are still logged
+        this.sampleEvery = sampleRate <= 0 ? 0 : Math.max(1, Math.round(1 / Math.min(sampleRate, 1.0)));
+        this.slowRequestNanos = slowRequestMillis * 1_000_000L;
+        this.slowRequests = Counter.builder("http.server.requests.slow").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long seq = sequence.incrementAndGet();
+        String incoming = request.getHeader(TRACE_HEADER);
+        String traceId = incoming != null && VALID_TRACE_ID.matcher(incoming).matches()
+            ? incoming
+            : prefix + "-" + Long.toHexString(seq);
+
+        MDC.put(TRACE_MDC_KEY, traceId);
+        response.setHeader(TRACE_HEADER, traceId);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+            if (elapsed >= slowRequestNanos) {
+                slowRequests.increment();
+                logger.warn("SLOW_REQUEST {} {} status={} durationMs={}", request.getMethod(), request.getRequestURI(),
+                    status, elapsed / 1_000_000);
+            } else if (status >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+                logger.warn("FAILED_REQUEST {} {} status={} durationMs={}", request.getMethod(), request.getRequestURI(),
+                    status, elapsed / 1_000_000);
+            } else if (sampleEvery > 0 && seq % sampleEvery == 0 && logger.isInfoEnabled()) {
+                logger.info("REQUEST {} {} status={} durationMs={}", request.getMethod(), request.getRequestURI(),
+                    status, elapsed / 1_000_000);
+            }
+            MDC.remove(TRACE_MDC_KEY);
+        }
+    }
+}
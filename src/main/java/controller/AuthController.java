@@ -6,9 +6,9 @@ import entity.Role;
 import entity.User;
 import repository.UserRepository;
 import service.AuthService;
+import service.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
@@ -24,7 +24,7 @@ public class AuthController {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@RequestBody User user) {
@@ -45,7 +45,7 @@ public class AuthController {
         
         for (User user : users) {
             if (!user.getPassword().startsWith("$2a$")) {
-                user.setPassword(passwordEncoder.encode(user.getPassword()));
+                user.setPassword(passwordHashingService.encode(user.getPassword()));
                 userRepository.save(user);
                 updated++;
             }
@@ -1,28 +1,45 @@
 package controller;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import java.util.Optional;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import dto.ImageUploadDto;
 import dto.MenuItemDto;
 import dto.ReviewDto;
+import dto.ReviewPageDto;
 import entity.MenuItem;
 import entity.Review;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import security.JwtPrincipal;
+import service.ImageUploadService;
+import service.ImageVariant;
+import service.MenuImage;
+import service.MenuImageService;
 import service.MenuItemService;
 
 @RestController
@@ -30,29 +47,88 @@ import service.MenuItemService;
 @CrossOrigin(origins = "http://localhost:3000")
 public class MenuItemController {
     
+    // Tomcat's sendfile request attributes, as used by its DefaultServlet
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String IMAGE_CACHE_CONTROL = CacheControl.noCache().getHeaderValue();
+
     private final MenuItemService menuItemService;
+    private final MenuImageService menuImageService;
+    private final ImageUploadService imageUploadService;
     
-    public MenuItemController(MenuItemService menuItemService) {
+    public MenuItemController(MenuItemService menuItemService, MenuImageService menuImageService,
+                              ImageUploadService imageUploadService) {
         this.menuItemService = menuItemService;
+        this.menuImageService = menuImageService;
+        this.imageUploadService = imageUploadService;
     }
     
     @PostMapping("/restaurant/{restaurantId}/owner/{ownerId}")
-    public ResponseEntity<MenuItem> addMenuItem(
+    public ResponseEntity<MenuItemDto> addMenuItem(
             @PathVariable Long restaurantId,
             @PathVariable Long ownerId,
             @RequestParam("name") String name,
             @RequestParam("description") String description,
             @RequestParam("price") Double price,
             @RequestParam("type") String type,
-            @RequestParam("image") MultipartFile image) {
+            @RequestParam(value = "image", required = false) MultipartFile image,
+            @AuthenticationPrincipal JwtPrincipal caller) {
         MenuItem menuItem = new MenuItem();
         menuItem.setName(name);
         menuItem.setDescription(description);
         menuItem.setPrice(price);
         menuItem.setType(type);
         
-        MenuItem newItem = menuItemService.addMenuItem(menuItem, restaurantId, ownerId, image);
-        return new ResponseEntity<>(newItem, HttpStatus.CREATED);
+        MenuItem newItem = menuItemService.addMenuItem(menuItem, restaurantId, caller.actingAs(ownerId), image);
+        return new ResponseEntity<>(menuItemService.toDto(newItem), HttpStatus.CREATED);
+    }
+    
+    @PutMapping("/{itemId}/owner/{ownerId}/availability")
+    public ResponseEntity<MenuItemDto> updateAvailability(
+            @PathVariable Long itemId,
+            @PathVariable Long ownerId,
+            @RequestParam("available") boolean available,
+            @AuthenticationPrincipal JwtPrincipal caller) {
+        MenuItem updatedItem = menuItemService.updateAvailability(itemId, caller.actingAs(ownerId), available);
+        return ResponseEntity.ok(menuItemService.toDto(updatedItem));
+    }
+    
+    /**
+     * Starts a chunked image upload for an existing item. Chunks are then sent with
+     * PUT /image-uploads/{uploadId}?offset=n as raw bytes.
+     */
+    @PostMapping("/{itemId}/owner/{ownerId}/image-uploads")
+    public ResponseEntity<ImageUploadDto> startImageUpload(
+            @PathVariable Long itemId,
+            @PathVariable Long ownerId,
+            @RequestParam("size") long size,
+            @RequestParam("sha256") String sha256,
+            @RequestParam(value = "contentType", defaultValue = "image/jpeg") String contentType,
+            @AuthenticationPrincipal JwtPrincipal caller) {
+        ImageUploadDto upload = imageUploadService.startUpload(itemId, caller.actingAs(ownerId), size, sha256, contentType);
+        return new ResponseEntity<>(upload, HttpStatus.CREATED);
+    }
+    
+    /**
+     * Streams one chunk to disk. The body is read from the request directly so it is never buffered in memory;
+     * a 409 carries the Upload-Offset to resume from, and a 413 the offset reached when a chunk overran the size.
+     */
+    @PutMapping("/image-uploads/{uploadId}")
+    public ResponseEntity<ImageUploadDto> uploadImageChunk(
+            @PathVariable String uploadId,
+            @RequestParam("offset") long offset,
+            HttpServletRequest request,
+            @AuthenticationPrincipal JwtPrincipal caller) throws IOException {
+        return ResponseEntity.ok(imageUploadService.appendChunk(uploadId, caller, offset,
+            request.getContentLengthLong(), request.getInputStream()));
+    }
+    
+    @GetMapping("/image-uploads/{uploadId}")
+    public ResponseEntity<ImageUploadDto> getImageUpload(@PathVariable String uploadId,
+                                                         @AuthenticationPrincipal JwtPrincipal caller) {
+        return ResponseEntity.ok(imageUploadService.getUpload(uploadId, caller));
     }
     
     @GetMapping("/restaurant/{restaurantId}")
@@ -67,23 +143,111 @@ public class MenuItemController {
         return ResponseEntity.ok(items);
     }
     
+    /**
+     * Serves a menu item image (thumbnail, medium or full; the original until the variant exists)
+     * with validators and single byte ranges. The URL is reused when an image is replaced, so caches
+     * must revalidate; that costs a 304, not the image. The stand-in original carries no Last-Modified
+     * and its own ETag, so a cached copy is replaced as soon as the variant exists.
+     * Small images come from memory; larger ones are handed to the container's sendfile
+     * when available and otherwise copied with FileChannel.transferTo.
+     */
     @GetMapping("/image/{itemId}")
-    public ResponseEntity<Resource> getImage(@PathVariable Long itemId) {
-        try {
-            Path imagePath = Paths.get("uploads/menu-images/" + itemId + ".jpg");
-            if (!Files.exists(imagePath)) {
-                imagePath = Paths.get("uploads/menu-images/" + itemId + ".png");
+    public void getImage(@PathVariable Long itemId,
+                         @RequestParam(defaultValue = "full") String size,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<MenuImage> found = menuImageService.findImage(itemId, ImageVariant.fromParam(size));
+        if (found.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        MenuImage image = found.get();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMAGE_CACHE_CONTROL);
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        boolean notModified = image.isProvisional()
+            ? webRequest.checkNotModified(image.getEtag())
+            : webRequest.checkNotModified(image.getEtag(), image.getLastModified());
+        if (notModified) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(image.getMediaType().toString());
+
+        long length = image.getLength();
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = requestedRange(request, image);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                start = length;
             }
-            if (!Files.exists(imagePath)) {
-                return ResponseEntity.notFound().build();
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
             }
-            
-            Resource resource = new UrlResource(imagePath.toUri());
-            return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_JPEG)
-                    .body(resource);
-        } catch (IOException e) {
-            return ResponseEntity.notFound().build();
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        byte[] hot = menuImageService.getHotBytes(image);
+        if (hot != null) {
+            response.getOutputStream().write(hot, (int) start, (int) count);
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // The container writes the file region itself once the request returns
+            request.setAttribute(SENDFILE_FILENAME, image.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(image.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        } catch (NoSuchFileException e) {
+            menuImageService.invalidate(itemId);
+            response.reset();
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+        }
+    }
+
+    /**
+     * Returns the single range to serve, or null for the whole file. Multiple ranges,
+     * malformed headers and an If-Range that no longer matches all fall back to the whole file.
+     */
+    private HttpRange requestedRange(HttpServletRequest request, MenuImage image) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(image.getEtag())) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
     
@@ -92,8 +256,9 @@ public class MenuItemController {
             @PathVariable Long orderId,
             @PathVariable Long userId,
             @RequestParam Integer rating,
-            @RequestParam String comment) {
-        Review review = menuItemService.addReview(orderId, userId, rating, comment);
+            @RequestParam String comment,
+            @AuthenticationPrincipal JwtPrincipal caller) {
+        Review review = menuItemService.addReview(orderId, caller.actingAs(userId), rating, comment);
         return new ResponseEntity<>(review, HttpStatus.CREATED);
     }
     
@@ -108,4 +273,20 @@ public class MenuItemController {
         List<ReviewDto> reviews = menuItemService.getItemReviewsDto(itemId);
         return ResponseEntity.ok(reviews);
     }
+    
+    @GetMapping("/reviews/restaurant/{restaurantId}/page")
+    public ResponseEntity<ReviewPageDto> getRestaurantReviewsPage(
+            @PathVariable Long restaurantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(menuItemService.getRestaurantReviewsDto(restaurantId, cursor, size));
+    }
+    
+    @GetMapping("/reviews/item/{itemId}/page")
+    public ResponseEntity<ReviewPageDto> getItemReviewsPage(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(menuItemService.getItemReviewsDto(itemId, cursor, size));
+    }
 }
\ No newline at end of file
@@ -3,18 +3,25 @@ package controller;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import dto.OrderDto;
+import dto.OrderIntakeDto;
+import dto.OrderPageDto;
 import dto.OrderRequestDto;
+import dto.OrderStatusDto;
 import entity.Order;
 import entity.OrderStatus;
 import io.swagger.v3.oas.annotations.Operation;
@@ -25,7 +32,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import security.JwtPrincipal;
+import service.OrderEventHub;
+import service.OrderIdempotencyService;
+import service.OrderIntakeService;
 import service.OrderService;
+import service.RestaurantAccessService;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -33,35 +45,100 @@ import service.OrderService;
 public class OrderController {
 
 	private final OrderService orderService;
+	private final OrderIdempotencyService orderIdempotencyService;
+	private final OrderIntakeService orderIntakeService;
+	private final OrderEventHub orderEventHub;
+	private final RestaurantAccessService restaurantAccessService;
 
-	public OrderController(OrderService orderService) {
+	public OrderController(OrderService orderService, OrderIdempotencyService orderIdempotencyService,
+	                       OrderIntakeService orderIntakeService, OrderEventHub orderEventHub,
+	                       RestaurantAccessService restaurantAccessService) {
 		this.orderService = orderService;
+		this.orderIdempotencyService = orderIdempotencyService;
+		this.orderIntakeService = orderIntakeService;
+		this.orderEventHub = orderEventHub;
+		this.restaurantAccessService = restaurantAccessService;
 	}
 
 	@Operation(
 	    summary = "Place a new order",
-	    description = "Places a new food order. Only USER role can place orders. Triggers AOP logging and uses @Transactional."
+	    description = "Places a new food order. Only USER role can place orders. Triggers AOP logging and uses @Transactional. "
+	        + "Retries carrying the same Idempotency-Key return the original order instead of placing a new one."
 	)
 	@ApiResponses(value = {
 	    @ApiResponse(responseCode = "201", description = "Order placed successfully",
-	        content = @Content(schema = @Schema(implementation = Order.class))),
+	        content = @Content(schema = @Schema(implementation = OrderDto.class))),
 	    @ApiResponse(responseCode = "403", description = "Forbidden - Only USER role can place orders",
 	        content = @Content),
 	    @ApiResponse(responseCode = "404", description = "User or restaurant not found",
 	        content = @Content)
 	})
 	@PostMapping("/{userId}/{restaurantId}")
-	public ResponseEntity<Order> placeOrder(
-	    @Parameter(description = "Customer ID (must have USER role)", required = true, example = "1")
+	public ResponseEntity<OrderDto> placeOrder(
+	    @Parameter(description = "Customer ID; must be the signed-in USER", required = true, example = "1")
 	    @PathVariable Long userId, 
 	    @Parameter(description = "Restaurant ID", required = true, example = "1")
 	    @PathVariable Long restaurantId, 
+	    @Parameter(description = "Client-generated key that makes retries of this request safe", example = "3f1c9a2e-order-42")
+	    @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
 	    @Parameter(description = "Order details with menu items and quantities", required = true)
-	    @Valid @RequestBody OrderRequestDto orderRequestDto)
+	    @Valid @RequestBody OrderRequestDto orderRequestDto,
+	    @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal caller)
 	{
+	    JwtPrincipal customer = caller.actingAs(userId);
+	    if (idempotencyKey != null) {
+	        OrderDto order = orderIdempotencyService.placeOrder(idempotencyKey, orderRequestDto, customer, restaurantId);
+	        return new ResponseEntity<>(order, HttpStatus.CREATED);
+	    }
 	    // Pass the DTO to the service
-	    Order newOrder = orderService.placeOrder(orderRequestDto, userId, restaurantId); 
-	    return new ResponseEntity<>(newOrder, HttpStatus.CREATED);
+	    Order newOrder = orderService.placeOrder(orderRequestDto, customer, restaurantId); 
+	    return new ResponseEntity<>(orderService.convertToDto(newOrder), HttpStatus.CREATED);
+	}
+
+	@Operation(
+	    summary = "Submit an order for asynchronous intake",
+	    description = "Validates and prices the cart, then queues it for batched writing. "
+	        + "Returns 202 with a handle that can be polled for the resulting order id."
+	)
+	@ApiResponses(value = {
+	    @ApiResponse(responseCode = "202", description = "Order accepted for intake",
+	        content = @Content(schema = @Schema(implementation = OrderIntakeDto.class))),
+	    @ApiResponse(responseCode = "403", description = "Forbidden - Only USER role can place orders",
+	        content = @Content),
+	    @ApiResponse(responseCode = "503", description = "Intake queue is full, retry later",
+	        content = @Content)
+	})
+	@PostMapping("/{userId}/{restaurantId}/intake")
+	public ResponseEntity<OrderIntakeDto> submitOrder(
+	    @Parameter(description = "Customer ID; must be the signed-in USER", required = true, example = "1")
+	    @PathVariable Long userId, 
+	    @Parameter(description = "Restaurant ID", required = true, example = "1")
+	    @PathVariable Long restaurantId, 
+	    @Parameter(description = "Order details with menu items and quantities", required = true)
+	    @Valid @RequestBody OrderRequestDto orderRequestDto,
+	    @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal caller) {
+		OrderIntakeDto accepted = orderIntakeService.submit(orderRequestDto, caller.actingAs(userId), restaurantId);
+		return new ResponseEntity<>(accepted, HttpStatus.ACCEPTED);
+	}
+
+	@Operation(
+	    summary = "Get intake status",
+	    description = "Resolves an intake handle to QUEUED, WRITTEN (with the order id) or FAILED"
+	)
+	@ApiResponses(value = {
+	    @ApiResponse(responseCode = "200", description = "Intake status",
+	        content = @Content(schema = @Schema(implementation = OrderIntakeDto.class))),
+	    @ApiResponse(responseCode = "403", description = "Forbidden - The handle belongs to another user",
+	        content = @Content),
+	    @ApiResponse(responseCode = "404", description = "Unknown handle",
+	        content = @Content)
+	})
+	@GetMapping("/intake/{handle}")
+	public ResponseEntity<OrderIntakeDto> getIntakeStatus(
+	    @Parameter(description = "Handle returned by the intake endpoint", required = true)
+	    @PathVariable String handle,
+	    @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal caller) {
+		return ResponseEntity.ok(orderIntakeService.getStatus(handle, caller));
 	}
 
 	@Operation(
@@ -85,22 +162,54 @@ public class OrderController {
 	)
 	@ApiResponses(value = {
 	    @ApiResponse(responseCode = "200", description = "Order status updated successfully",
-	        content = @Content(schema = @Schema(implementation = Order.class))),
+	        content = @Content(schema = @Schema(implementation = OrderStatusDto.class))),
 	    @ApiResponse(responseCode = "403", description = "Forbidden - Only restaurant owner can update order status",
 	        content = @Content),
 	    @ApiResponse(responseCode = "404", description = "Order not found",
+	        content = @Content),
+	    @ApiResponse(responseCode = "409", description = "Order status changed concurrently",
 	        content = @Content)
 	})
 	@PutMapping("/{orderId}/status")
-	public ResponseEntity<Order> updateOrderStatus(
+	public ResponseEntity<OrderStatusDto> updateOrderStatus(
 	    @Parameter(description = "Order ID", required = true, example = "1")
 	    @PathVariable Long orderId, 
 	    @Parameter(description = "New order status", required = true, example = "PREPARING")
 	    @RequestParam OrderStatus status,
-	    @Parameter(description = "Updater ID (must be restaurant owner)", required = true, example = "2")
-	    @RequestParam Long updaterId) {
-		Order updatedOrder = orderService.updateOrderStatus(orderId, status, updaterId);
-		return ResponseEntity.ok(updatedOrder);
+	    @Parameter(description = "Deprecated: the updater is taken from the token; if sent it must match", example = "2")
+	    @RequestParam(required = false) Long updaterId,
+	    @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal caller) {
+		OrderStatusDto updatedStatus = orderService.updateOrderStatus(orderId, status, caller.actingAs(updaterId));
+		return ResponseEntity.ok(updatedStatus);
+	}
+
+	@Operation(
+	    summary = "Stream restaurant order events",
+	    description = "Server-Sent Events stream of new orders and status changes for a restaurant. "
+	        + "Reconnect with Last-Event-ID to receive events missed while disconnected."
+	)
+	@GetMapping(value = "/restaurant/{restaurantId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamRestaurantOrders(
+	    @Parameter(description = "Restaurant ID", required = true, example = "1")
+	    @PathVariable Long restaurantId,
+	    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+	    @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal caller) {
+		restaurantAccessService.requireOwner(caller, restaurantId, "You can only follow orders of your own restaurant");
+		return orderEventHub.subscribeRestaurant(restaurantId, lastEventId);
+	}
+
+	@Operation(
+	    summary = "Stream customer order events",
+	    description = "Server-Sent Events stream of status changes for a customer's orders. "
+	        + "Reconnect with Last-Event-ID to receive events missed while disconnected."
+	)
+	@GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamUserOrders(
+	    @Parameter(description = "User ID", required = true, example = "1")
+	    @PathVariable Long userId,
+	    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+	    @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal caller) {
+		return orderEventHub.subscribeCustomer(caller.actingAs(userId).userId(), lastEventId);
 	}
 
 	@Operation(
@@ -117,4 +226,54 @@ public class OrderController {
 	    @PathVariable Long restaurantId) {
 		return ResponseEntity.ok(orderService.getOrdersByRestaurant(restaurantId));
 	}
+
+	@Operation(
+	    summary = "Get restaurant orders page",
+	    description = "Keyset-paginated restaurant orders, newest first. Pass nextCursor as cursor for older pages, "
+	        + "or sinceCursor as since to fetch only orders created after it."
+	)
+	@ApiResponses(value = {
+	    @ApiResponse(responseCode = "200", description = "Page of restaurant orders",
+	        content = @Content(schema = @Schema(implementation = OrderPageDto.class))),
+	    @ApiResponse(responseCode = "403", description = "Forbidden - Not the restaurant's owner",
+	        content = @Content)
+	})
+	@GetMapping("/restaurant/{restaurantId}/page")
+	public ResponseEntity<OrderPageDto> getOrdersPageByRestaurant(
+	    @Parameter(description = "Restaurant ID", required = true, example = "1")
+	    @PathVariable Long restaurantId,
+	    @Parameter(description = "Cursor of the last order already seen, for the next older page")
+	    @RequestParam(required = false) String cursor,
+	    @Parameter(description = "Cursor of the newest order already seen, for incremental refresh")
+	    @RequestParam(required = false) String since,
+	    @Parameter(description = "Page size (max 100)", example = "20")
+	    @RequestParam(defaultValue = "20") int size,
+	    @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal caller) {
+		restaurantAccessService.requireOwner(caller, restaurantId, "You can only view orders of your own restaurant");
+		return ResponseEntity.ok(orderService.getOrdersPageByRestaurant(restaurantId, cursor, since, size));
+	}
+
+	@Operation(
+	    summary = "Get user orders page",
+	    description = "Keyset-paginated orders of a user, with the same cursor and since semantics as the restaurant page"
+	)
+	@ApiResponses(value = {
+	    @ApiResponse(responseCode = "200", description = "Page of the user's orders",
+	        content = @Content(schema = @Schema(implementation = OrderPageDto.class))),
+	    @ApiResponse(responseCode = "403", description = "Forbidden - Not the signed-in user",
+	        content = @Content)
+	})
+	@GetMapping("/user/{userId}/page")
+	public ResponseEntity<OrderPageDto> getOrdersPageByUser(
+	    @Parameter(description = "User ID", required = true, example = "1")
+	    @PathVariable Long userId,
+	    @Parameter(description = "Cursor of the last order already seen, for the next older page")
+	    @RequestParam(required = false) String cursor,
+	    @Parameter(description = "Cursor of the newest order already seen, for incremental refresh")
+	    @RequestParam(required = false) String since,
+	    @Parameter(description = "Page size (max 100)", example = "20")
+	    @RequestParam(defaultValue = "20") int size,
+	    @Parameter(hidden = true) @AuthenticationPrincipal JwtPrincipal caller) {
+		return ResponseEntity.ok(orderService.getOrdersPageByUser(caller.actingAs(userId).userId(), cursor, since, size));
+	}
 }
\ No newline at end of file
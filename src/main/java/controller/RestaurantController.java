@@ -1,20 +1,32 @@
 package controller;
 
 import java.util.List;
+import java.util.Locale;
 
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import dto.RestaurantDto;
+import dto.NearbyRestaurantDto;
+import dto.SearchResultDto;
 import entity.Restaurant;
 import jakarta.validation.Valid;
+import security.JwtPrincipal;
+import service.CatalogSearchService;
+import service.NearbyRestaurantService;
+import service.RestaurantCatalogSnapshot;
 import service.RestaurantService;
 
 @RestController
@@ -23,23 +35,131 @@ import service.RestaurantService;
 public class RestaurantController {
 
     private final RestaurantService restaurantService;
+    private final CatalogSearchService catalogSearchService;
+    private final NearbyRestaurantService nearbyRestaurantService;
 
-    public RestaurantController(RestaurantService restaurantService) {
+    public RestaurantController(RestaurantService restaurantService, CatalogSearchService catalogSearchService,
+                                NearbyRestaurantService nearbyRestaurantService) {
         this.restaurantService = restaurantService;
+        this.catalogSearchService = catalogSearchService;
+        this.nearbyRestaurantService = nearbyRestaurantService;
     }
 
     @PostMapping("/{hotelOwnerId}")
     public ResponseEntity<Restaurant> addRestaurant(
             @PathVariable Long hotelOwnerId, 
-            @Valid @RequestBody Restaurant restaurant) {
+            @Valid @RequestBody Restaurant restaurant,
+            @AuthenticationPrincipal JwtPrincipal caller) {
         
-        Restaurant newRestaurant = restaurantService.addRestaurant(restaurant, hotelOwnerId);
+        Restaurant newRestaurant = restaurantService.addRestaurant(restaurant, caller.actingAs(hotelOwnerId));
         return new ResponseEntity<>(newRestaurant, HttpStatus.CREATED);
     }
 
-    @GetMapping
-    public ResponseEntity<List<RestaurantDto>> getAllRestaurants() {
-        List<RestaurantDto> restaurants = restaurantService.getAllRestaurants();
-        return ResponseEntity.ok(restaurants);
+    /**
+     * Serves the pre-serialised catalog snapshot. Clients revalidate with If-None-Match
+     * and get 304 while the catalog is unchanged; gzip-capable clients get the pre-compressed bytes.
+     * Each encoding has its own ETag, so a cache never answers one with the other's validator.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAllRestaurants(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RestaurantCatalogSnapshot catalog = restaurantService.getCatalogSnapshot();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? catalog.getGzipEtag() : catalog.getEtag();
+
+        if (ifNoneMatch != null && matchesAny(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalog.getGzippedJson());
+        }
+        return response.body(catalog.getJson());
+    }
+
+    /**
+     * True if Accept-Encoding allows gzip: listed (or matched by "*") with a non-zero q-value.
+     * An explicit gzip entry takes precedence over "*".
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return quality != null && quality > 0;
+    }
+
+    /**
+     * Weak comparison of the current ETag against each entry of an If-None-Match list, as RFC 9110 requires.
+     */
+    static boolean matchesAny(String ifNoneMatch, String etag) {
+        String current = etag.substring(1, etag.length() - 1);
+        for (ETag candidate : ETag.parse(ifNoneMatch)) {
+            if (candidate.isWildcard() || candidate.tag().equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prefix-aware search over restaurant names, cuisines and available menu items.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SearchResultDto> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(catalogSearchService.search(q, limit));
+    }
+
+    /**
+     * Restaurants near a point (lat/lon) or near one of the caller's saved addresses (addressId).
+     * With radiusKm, returns those within the radius; otherwise the k nearest.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyRestaurantDto>> nearby(
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Long addressId,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer k,
+            @AuthenticationPrincipal JwtPrincipal caller) {
+        if (addressId != null) {
+            return ResponseEntity.ok(nearbyRestaurantService.findNearAddress(caller, addressId, radiusKm, k));
+        }
+        if (lat == null || lon == null) {
+            throw new IllegalArgumentException("Give either lat and lon or an addressId.");
+        }
+        return ResponseEntity.ok(nearbyRestaurantService.findNearby(lat, lon, radiusKm, k));
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,15 @@
 package controller;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import dto.UserPageDto;
 import entity.User;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,7 +18,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import security.JwtPrincipal;
 import service.UserService;
 
 @CrossOrigin(origins = "http://localhost:3000")
@@ -54,17 +60,34 @@ public class UserController {
     }
 
     @Operation(
-        summary = "Get all users",
-        description = "Retrieves a list of all registered users (used for login functionality)"
+        summary = "List users",
+        description = "Administrators only. Returns one page of user summaries in id order; "
+            + "pass nextAfterId as afterId to get the next page"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Users retrieved successfully",
-            content = @Content(schema = @Schema(implementation = User.class)))
+            content = @Content(schema = @Schema(implementation = UserPageDto.class))),
+        @ApiResponse(responseCode = "403", description = "Caller is not an administrator",
+            content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<UserPageDto> getUsers(
+        @Parameter(description = "Id of the last user of the previous page") @RequestParam(required = false) Long afterId,
+        @Parameter(description = "Page size, at most 100") @RequestParam(defaultValue = "50") int size,
+        @AuthenticationPrincipal JwtPrincipal caller) {
+        return ResponseEntity.ok(userService.getUserPage(caller, afterId, size));
+    }
+
+    @Operation(
+        summary = "Export all users",
+        description = "Administrators only. Streams every user summary as newline-delimited JSON"
+    )
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsers(@AuthenticationPrincipal JwtPrincipal caller, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"users.ndjson\"");
+        userService.exportUsers(caller, response.getOutputStream());
     }
 
     @Operation(
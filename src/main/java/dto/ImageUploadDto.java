@@ -0,0 +1,30 @@
+package dto;
+
+public class ImageUploadDto {
+    private String uploadId;
+    private Long itemId;
+    private Long size;
+    private Long offset;
+    private String status;
+
+    public ImageUploadDto() {}
+
+    public ImageUploadDto(String uploadId, Long itemId, Long size, Long offset, String status) {
+        this.uploadId = uploadId;
+        this.itemId = itemId;
+        this.size = size;
+        this.offset = offset;
+        this.status = status;
+    }
+
+    public String getUploadId() { return uploadId; }
+    public void setUploadId(String uploadId) { this.uploadId = uploadId; }
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+    public Long getSize() { return size; }
+    public void setSize(Long size) { this.size = size; }
+    public Long getOffset() { return offset; }
+    public void setOffset(Long offset) { this.offset = offset; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
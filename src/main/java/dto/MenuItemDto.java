@@ -9,6 +9,7 @@ public class MenuItemDto {
     private Boolean available;
     private Long restaurantId;
     private String restaurantName;
+    private RatingSummaryDto rating = new RatingSummaryDto();
 
     public MenuItemDto() {}
 
@@ -23,6 +24,12 @@ public class MenuItemDto {
         this.restaurantName = restaurantName;
     }
 
+    public MenuItemDto(Long id, String name, String description, Double price, String type, Boolean available, Long restaurantId, String restaurantName,
+                       long ratingCount, long ratingSum, long oneStar, long twoStars, long threeStars, long fourStars, long fiveStars) {
+        this(id, name, description, price, type, available, restaurantId, restaurantName);
+        this.rating = new RatingSummaryDto(ratingCount, ratingSum, oneStar, twoStars, threeStars, fourStars, fiveStars);
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getName() { return name; }
@@ -39,4 +46,6 @@ public class MenuItemDto {
     public void setRestaurantId(Long restaurantId) { this.restaurantId = restaurantId; }
     public String getRestaurantName() { return restaurantName; }
     public void setRestaurantName(String restaurantName) { this.restaurantName = restaurantName; }
-}
\ No newline at end of file
+    public RatingSummaryDto getRating() { return rating; }
+    public void setRating(RatingSummaryDto rating) { this.rating = rating; }
+}
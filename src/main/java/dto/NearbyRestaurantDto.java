@@ -0,0 +1,18 @@
+package dto;
+
+public class NearbyRestaurantDto {
+    private RestaurantDto restaurant;
+    private double distanceKm;
+
+    public NearbyRestaurantDto() {}
+
+    public NearbyRestaurantDto(RestaurantDto restaurant, double distanceKm) {
+        this.restaurant = restaurant;
+        this.distanceKm = distanceKm;
+    }
+
+    public RestaurantDto getRestaurant() { return restaurant; }
+    public void setRestaurant(RestaurantDto restaurant) { this.restaurant = restaurant; }
+    public double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(double distanceKm) { this.distanceKm = distanceKm; }
+}
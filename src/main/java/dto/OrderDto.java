@@ -1,8 +1,11 @@
 package dto;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+import entity.OrderStatus;
+
 public class OrderDto {
     private Long id;
     private Double totalAmount;
@@ -60,6 +63,15 @@ public class OrderDto {
         this.items = items;
     }
 
+    /**
+     * Projection constructor used by JPQL "SELECT new" queries; items are attached afterwards.
+     */
+    public OrderDto(Long id, Double totalAmount, OrderStatus status, String deliveryAddress, LocalDateTime createdAt,
+                   Long userId, String userName, Long restaurantId, String restaurantName) {
+        this(id, totalAmount, status.toString(), deliveryAddress, createdAt,
+             userId, userName, restaurantId, restaurantName, new ArrayList<>());
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public Double getTotalAmount() { return totalAmount; }
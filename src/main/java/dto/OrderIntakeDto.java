@@ -0,0 +1,26 @@
+package dto;
+
+public class OrderIntakeDto {
+    private String handle;
+    private String status;
+    private Long orderId;
+    private String message;
+
+    public OrderIntakeDto() {}
+
+    public OrderIntakeDto(String handle, String status, Long orderId, String message) {
+        this.handle = handle;
+        this.status = status;
+        this.orderId = orderId;
+        this.message = message;
+    }
+
+    public String getHandle() { return handle; }
+    public void setHandle(String handle) { this.handle = handle; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
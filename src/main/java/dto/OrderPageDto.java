@@ -0,0 +1,24 @@
+package dto;
+
+import java.util.List;
+
+public class OrderPageDto {
+    private List<OrderDto> orders;
+    private String nextCursor;
+    private String sinceCursor;
+
+    public OrderPageDto() {}
+
+    public OrderPageDto(List<OrderDto> orders, String nextCursor, String sinceCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+        this.sinceCursor = sinceCursor;
+    }
+
+    public List<OrderDto> getOrders() { return orders; }
+    public void setOrders(List<OrderDto> orders) { this.orders = orders; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public String getSinceCursor() { return sinceCursor; }
+    public void setSinceCursor(String sinceCursor) { this.sinceCursor = sinceCursor; }
+}
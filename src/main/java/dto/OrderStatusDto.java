@@ -0,0 +1,30 @@
+package dto;
+
+public class OrderStatusDto {
+    private Long orderId;
+    private Long userId;
+    private Long restaurantId;
+    private String previousStatus;
+    private String status;
+
+    public OrderStatusDto() {}
+
+    public OrderStatusDto(Long orderId, Long userId, Long restaurantId, String previousStatus, String status) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.restaurantId = restaurantId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+    }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Long getRestaurantId() { return restaurantId; }
+    public void setRestaurantId(Long restaurantId) { this.restaurantId = restaurantId; }
+    public String getPreviousStatus() { return previousStatus; }
+    public void setPreviousStatus(String previousStatus) { this.previousStatus = previousStatus; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
@@ -0,0 +1,27 @@
+package dto;
+
+import java.util.List;
+
+public class RatingSummaryDto {
+    private long count;
+    private Double average;
+    // Number of 1, 2, 3, 4 and 5 star reviews, in that order
+    private List<Long> histogram;
+
+    public RatingSummaryDto() {
+        this(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public RatingSummaryDto(long count, long sum, long oneStar, long twoStars, long threeStars, long fourStars, long fiveStars) {
+        this.count = count;
+        this.average = count == 0 ? null : Math.round(sum * 100.0 / count) / 100.0;
+        this.histogram = List.of(oneStar, twoStars, threeStars, fourStars, fiveStars);
+    }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    public Double getAverage() { return average; }
+    public void setAverage(Double average) { this.average = average; }
+    public List<Long> getHistogram() { return histogram; }
+    public void setHistogram(List<Long> histogram) { this.histogram = histogram; }
+}
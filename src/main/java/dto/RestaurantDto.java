@@ -7,6 +7,9 @@ public class RestaurantDto {
     private String cuisineType;
     private Long hotelOwnerId;
     private String hotelOwnerName;
+    private Double latitude;
+    private Double longitude;
+    private RatingSummaryDto rating = new RatingSummaryDto();
 
     public RestaurantDto() {}
 
@@ -19,6 +22,15 @@ public class RestaurantDto {
         this.hotelOwnerName = hotelOwnerName;
     }
 
+    public RestaurantDto(Long id, String name, String address, String cuisineType, Long hotelOwnerId, String hotelOwnerName,
+                         Double latitude, Double longitude,
+                         long ratingCount, long ratingSum, long oneStar, long twoStars, long threeStars, long fourStars, long fiveStars) {
+        this(id, name, address, cuisineType, hotelOwnerId, hotelOwnerName);
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.rating = new RatingSummaryDto(ratingCount, ratingSum, oneStar, twoStars, threeStars, fourStars, fiveStars);
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getName() { return name; }
@@ -31,4 +43,10 @@ public class RestaurantDto {
     public void setHotelOwnerId(Long hotelOwnerId) { this.hotelOwnerId = hotelOwnerId; }
     public String getHotelOwnerName() { return hotelOwnerName; }
     public void setHotelOwnerName(String hotelOwnerName) { this.hotelOwnerName = hotelOwnerName; }
-}
\ No newline at end of file
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public RatingSummaryDto getRating() { return rating; }
+    public void setRating(RatingSummaryDto rating) { this.rating = rating; }
+}
@@ -0,0 +1,20 @@
+package dto;
+
+import java.util.List;
+
+public class ReviewPageDto {
+    private List<ReviewDto> reviews;
+    private String nextCursor;
+
+    public ReviewPageDto() {}
+
+    public ReviewPageDto(List<ReviewDto> reviews, String nextCursor) {
+        this.reviews = reviews;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ReviewDto> getReviews() { return reviews; }
+    public void setReviews(List<ReviewDto> reviews) { this.reviews = reviews; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
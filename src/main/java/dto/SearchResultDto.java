@@ -0,0 +1,24 @@
+package dto;
+
+import java.util.List;
+
+public class SearchResultDto {
+    private String query;
+    private List<RestaurantDto> restaurants;
+    private List<MenuItemDto> menuItems;
+
+    public SearchResultDto() {}
+
+    public SearchResultDto(String query, List<RestaurantDto> restaurants, List<MenuItemDto> menuItems) {
+        this.query = query;
+        this.restaurants = restaurants;
+        this.menuItems = menuItems;
+    }
+
+    public String getQuery() { return query; }
+    public void setQuery(String query) { this.query = query; }
+    public List<RestaurantDto> getRestaurants() { return restaurants; }
+    public void setRestaurants(List<RestaurantDto> restaurants) { this.restaurants = restaurants; }
+    public List<MenuItemDto> getMenuItems() { return menuItems; }
+    public void setMenuItems(List<MenuItemDto> menuItems) { this.menuItems = menuItems; }
+}
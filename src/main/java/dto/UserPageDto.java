@@ -0,0 +1,20 @@
+package dto;
+
+import java.util.List;
+
+public class UserPageDto {
+    private List<UserSummaryDto> users;
+    private Long nextAfterId;
+
+    public UserPageDto() {}
+
+    public UserPageDto(List<UserSummaryDto> users, Long nextAfterId) {
+        this.users = users;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<UserSummaryDto> getUsers() { return users; }
+    public void setUsers(List<UserSummaryDto> users) { this.users = users; }
+    public Long getNextAfterId() { return nextAfterId; }
+    public void setNextAfterId(Long nextAfterId) { this.nextAfterId = nextAfterId; }
+}
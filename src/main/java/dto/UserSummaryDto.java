@@ -0,0 +1,38 @@
+package dto;
+
+import java.time.LocalDateTime;
+
+import entity.Role;
+
+public class UserSummaryDto {
+    private Long id;
+    private String name;
+    private String email;
+    private String phone;
+    private Role role;
+    private LocalDateTime createdAt;
+
+    public UserSummaryDto() {}
+
+    public UserSummaryDto(Long id, String name, String email, String phone, Role role, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.phone = phone;
+        this.role = role;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+    public Role getRole() { return role; }
+    public void setRole(Role role) { this.role = role; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -3,18 +3,24 @@ package entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "addresses")
+// default_user_id is the owner's id on the default address and NULL elsewhere, so the
+// unique key allows any number of other addresses but only one default per user
+@Table(name = "addresses", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_addresses_default_user", columnNames = "default_user_id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Address {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
     private User user;
@@ -42,9 +48,28 @@ public class Address {
     @Column(nullable = false, length = 6)
     private String pincode;
 
+    // WGS84 degrees, optional; used to find restaurants near this address
+    @DecimalMin(value = "-90", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
     @Column(columnDefinition = "boolean default false")
     private boolean isDefault;
 
+    @Column(name = "default_user_id")
+    @JsonIgnore
+    private Long defaultUserId;
+
+    @PrePersist
+    @PreUpdate
+    protected void syncDefaultUser() {
+        defaultUserId = isDefault && user != null ? user.getId() : null;
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public User getUser() { return user; }
@@ -59,6 +84,10 @@ public class Address {
     public void setCity(String city) { this.city = city; }
     public String getPincode() { return pincode; }
     public void setPincode(String pincode) { this.pincode = pincode; }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
     public boolean isDefault() { return isDefault; }
     public void setDefault(boolean isDefault) { this.isDefault = isDefault; }
 
@@ -2,6 +2,9 @@ package entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -22,11 +25,25 @@ public class MenuItem {
     private Double price;
     private String type;
     private Boolean available = true;
+
+    // SHA-256 of the image in the blob store, shared by items with the same photo
+    @JsonIgnore
+    @Column(length = 64)
+    private String imageHash;
+
+    @JsonIgnore
+    @Column(length = 100)
+    private String imageType;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "restaurant_id", nullable = false)
     private Restaurant restaurant;
 
+    // Maintained only by the rating aggregate updates, never taken from a request body
+    @Embedded
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private RatingSummary ratings = new RatingSummary();
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getName() { return name; }
@@ -39,8 +56,14 @@ public class MenuItem {
     public void setType(String type) { this.type = type; }
     public Boolean getAvailable() { return available; }
     public void setAvailable(Boolean available) { this.available = available; }
+    public String getImageHash() { return imageHash; }
+    public void setImageHash(String imageHash) { this.imageHash = imageHash; }
+    public String getImageType() { return imageType; }
+    public void setImageType(String imageType) { this.imageType = imageType; }
     public Restaurant getRestaurant() { return restaurant; }
     public void setRestaurant(Restaurant restaurant) { this.restaurant = restaurant; }
+    public RatingSummary getRatings() { return ratings; }
+    public void setRatings(RatingSummary ratings) { this.ratings = ratings; }
 
     @Override
     public String toString() {
@@ -15,26 +15,40 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "orders")
+@NamedEntityGraph(name = "Order.detail",
+    attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("restaurant"),
+        @NamedAttributeNode(value = "items", subgraph = "items")
+    },
+    subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("menuItem")))
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_restaurant_created", columnList = "restaurant_id, created_at, id"),
+    @Index(name = "idx_orders_user_created", columnList = "user_id, created_at, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnore
     private User user;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "restaurant_id")
     @JsonIgnore
     private Restaurant restaurant;
@@ -49,13 +63,17 @@ public class Order {
     
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    @Column(name = "intake_handle", length = 36, unique = true)
+    @JsonIgnore
+    private String intakeHandle;
     
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
 
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<OrderItem> items = new ArrayList<>();
     
@@ -80,6 +98,8 @@ public class Order {
     public void setDeliveryAddress(String deliveryAddress) { this.deliveryAddress = deliveryAddress; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public String getIntakeHandle() { return intakeHandle; }
+    public void setIntakeHandle(String intakeHandle) { this.intakeHandle = intakeHandle; }
 
     @Override
     public String toString() {
@@ -0,0 +1,58 @@
+package entity;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Running review aggregate kept on the rated row: count, sum and a 1-5 star histogram.
+ * Maintained by single UPDATE statements as reviews are added, so reading an average
+ * never touches the review table.
+ */
+@Embeddable
+public class RatingSummary {
+
+    @ColumnDefault("0")
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_1", nullable = false)
+    private long oneStar;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_2", nullable = false)
+    private long twoStars;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_3", nullable = false)
+    private long threeStars;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_4", nullable = false)
+    private long fourStars;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_5", nullable = false)
+    private long fiveStars;
+
+    public long getRatingCount() { return ratingCount; }
+    public void setRatingCount(long ratingCount) { this.ratingCount = ratingCount; }
+    public long getRatingSum() { return ratingSum; }
+    public void setRatingSum(long ratingSum) { this.ratingSum = ratingSum; }
+    public long getOneStar() { return oneStar; }
+    public void setOneStar(long oneStar) { this.oneStar = oneStar; }
+    public long getTwoStars() { return twoStars; }
+    public void setTwoStars(long twoStars) { this.twoStars = twoStars; }
+    public long getThreeStars() { return threeStars; }
+    public void setThreeStars(long threeStars) { this.threeStars = threeStars; }
+    public long getFourStars() { return fourStars; }
+    public void setFourStars(long fourStars) { this.fourStars = fourStars; }
+    public long getFiveStars() { return fiveStars; }
+    public void setFiveStars(long fiveStars) { this.fiveStars = fiveStars; }
+}
@@ -2,6 +2,8 @@ package entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -20,11 +22,20 @@ public class Restaurant {
     private String name;
     private String address;
     private String cuisineType;
+
+    // WGS84 degrees; restaurants without coordinates are left out of nearby searches
+    private Double latitude;
+    private Double longitude;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "hotel_id", nullable = false)
     private User hotelOwner;
 
+    // Maintained only by the rating aggregate updates, never taken from a request body
+    @Embedded
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private RatingSummary ratings = new RatingSummary();
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getName() { return name; }
@@ -33,8 +44,14 @@ public class Restaurant {
     public void setAddress(String address) { this.address = address; }
     public String getCuisineType() { return cuisineType; }
     public void setCuisineType(String cuisineType) { this.cuisineType = cuisineType; }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
     public User getHotelOwner() { return hotelOwner; }
     public void setHotelOwner(User hotelOwner) { this.hotelOwner = hotelOwner; }
+    public RatingSummary getRatings() { return ratings; }
+    public void setRatings(RatingSummary ratings) { this.ratings = ratings; }
 
     @Override
     public String toString() {
@@ -0,0 +1,45 @@
+package entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Denormalised link from a review to each distinct menu item on the reviewed order,
+ * written together with the review. Carries the review's creation time so an item's
+ * reviews can be paged newest first straight off the (menu_item_id, created_at, review_id) index.
+ */
+@Entity
+@Table(name = "review_menu_items",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"review_id", "menu_item_id"}),
+       indexes = @Index(name = "idx_review_menu_items_item_created", columnList = "menu_item_id, created_at, review_id"))
+public class ReviewMenuItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "review_id", nullable = false)
+    private Long reviewId;
+
+    @Column(name = "menu_item_id", nullable = false)
+    private Long menuItemId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getReviewId() { return reviewId; }
+    public void setReviewId(Long reviewId) { this.reviewId = reviewId; }
+    public Long getMenuItemId() { return menuItemId; }
+    public void setMenuItemId(Long menuItemId) { this.menuItemId = menuItemId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -2,6 +2,6 @@ package entity;
 
 public enum Role {
     USER,  // Customer
-    HOTEL  // Restaurant Owner
+    HOTEL, // Restaurant Owner
+    ADMIN  // Platform administrator; granted in the database, never through registration
 }
-
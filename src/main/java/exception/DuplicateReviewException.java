@@ -0,0 +1,21 @@
+package exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to indicate that the order already has a review, so a second
+ * one would count the same order twice in the rating aggregates.
+ * * It automatically maps to an HTTP 409 response thanks to @ResponseStatus.
+ */
+@ResponseStatus(HttpStatus.CONFLICT) // <--- This annotation ensures a 409 status code
+public class DuplicateReviewException extends RuntimeException {
+
+    // Spring recommends providing a unique ID for serializable classes
+    private static final long serialVersionUID = 1L;
+
+    public DuplicateReviewException(String message) {
+        // Calls the superclass constructor (RuntimeException) with the custom message
+        super(message);
+    }
+}
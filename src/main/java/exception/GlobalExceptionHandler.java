@@ -5,6 +5,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -45,6 +46,82 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.FORBIDDEN);
     }
 
+    /**
+     * Handles OrderStatusConflictException (for HTTP 409 - Conflict).
+     * Raised when a concurrent update moved the order first; the client should reload it.
+     */
+    @ExceptionHandler(OrderStatusConflictException.class)
+    public ResponseEntity<ErrorDetails> handleOrderStatusConflictException(OrderStatusConflictException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                ex.getMessage(),
+                request.getDescription(false));
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles DuplicateReviewException (for HTTP 409 - Conflict).
+     * Raised when the order was already reviewed.
+     */
+    @ExceptionHandler(DuplicateReviewException.class)
+    public ResponseEntity<ErrorDetails> handleDuplicateReviewException(DuplicateReviewException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                ex.getMessage(),
+                request.getDescription(false));
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles UploadOffsetConflictException (for HTTP 409 - Conflict).
+     * The Upload-Offset header tells the client where to resume.
+     */
+    @ExceptionHandler(UploadOffsetConflictException.class)
+    public ResponseEntity<ErrorDetails> handleUploadOffsetConflictException(UploadOffsetConflictException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                ex.getMessage(),
+                request.getDescription(false));
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header("Upload-Offset", Long.toString(ex.getCurrentOffset()))
+                .body(errorDetails);
+    }
+
+    /**
+     * Handles UploadSizeExceededException (for HTTP 413 - Payload Too Large).
+     * The Upload-Offset header tells the client how many bytes were accepted.
+     */
+    @ExceptionHandler(UploadSizeExceededException.class)
+    public ResponseEntity<ErrorDetails> handleUploadSizeExceededException(UploadSizeExceededException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                ex.getMessage(),
+                request.getDescription(false));
+        
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .header("Upload-Offset", Long.toString(ex.getCurrentOffset()))
+                .body(errorDetails);
+    }
+
+    /**
+     * Handles ServiceOverloadedException (for HTTP 503 - Service Unavailable).
+     * Used when a bounded queue sheds load; clients are told to retry shortly.
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorDetails> handleServiceOverloadedException(ServiceOverloadedException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                ex.getMessage(),
+                request.getDescription(false));
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
+
     /**
      * Handles MethodArgumentNotValidException (for HTTP 400 - Bad Request).
      * This catches errors from @Valid annotations (e.g., trying to save a User without a name).
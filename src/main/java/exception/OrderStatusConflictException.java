@@ -0,0 +1,21 @@
+package exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to indicate that an order changed status between being read
+ * and being updated, so the requested transition was not applied.
+ * * It automatically maps to an HTTP 409 response thanks to @ResponseStatus.
+ */
+@ResponseStatus(HttpStatus.CONFLICT) // <--- This annotation ensures a 409 status code
+public class OrderStatusConflictException extends RuntimeException {
+
+    // Spring recommends providing a unique ID for serializable classes
+    private static final long serialVersionUID = 1L;
+
+    public OrderStatusConflictException(String message) {
+        // Calls the superclass constructor (RuntimeException) with the custom message
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to indicate that a bounded queue or worker pool is full
+ * and the request was shed instead of waiting.
+ * * It automatically maps to an HTTP 503 response thanks to @ResponseStatus.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE) // <--- This annotation ensures a 503 status code
+public class ServiceOverloadedException extends RuntimeException {
+
+    // Spring recommends providing a unique ID for serializable classes
+    private static final long serialVersionUID = 1L;
+
+    public ServiceOverloadedException(String message) {
+        // Calls the superclass constructor (RuntimeException) with the custom message
+        super(message);
+    }
+}
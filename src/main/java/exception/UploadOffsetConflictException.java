@@ -0,0 +1,29 @@
+package exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to indicate that a chunk was sent for a different offset than the
+ * upload has reached, e.g. a retry of a chunk that was already stored.
+ * * It automatically maps to an HTTP 409 response thanks to @ResponseStatus.
+ */
+@ResponseStatus(HttpStatus.CONFLICT) // <--- This annotation ensures a 409 status code
+public class UploadOffsetConflictException extends RuntimeException {
+
+    // Spring recommends providing a unique ID for serializable classes
+    private static final long serialVersionUID = 1L;
+
+    // The offset the client should resume from
+    private final long currentOffset;
+
+    public UploadOffsetConflictException(String message, long currentOffset) {
+        // Calls the superclass constructor (RuntimeException) with the custom message
+        super(message);
+        this.currentOffset = currentOffset;
+    }
+
+    public long getCurrentOffset() {
+        return currentOffset;
+    }
+}
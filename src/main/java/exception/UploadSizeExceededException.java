@@ -0,0 +1,29 @@
+package exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to indicate that a chunk would take an upload past the size
+ * declared when it started. Nothing beyond the current offset was stored.
+ * * It automatically maps to an HTTP 413 response thanks to @ResponseStatus.
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE) // <--- This annotation ensures a 413 status code
+public class UploadSizeExceededException extends RuntimeException {
+
+    // Spring recommends providing a unique ID for serializable classes
+    private static final long serialVersionUID = 1L;
+
+    // The offset the upload has actually reached
+    private final long currentOffset;
+
+    public UploadSizeExceededException(String message, long currentOffset) {
+        // Calls the superclass constructor (RuntimeException) with the custom message
+        super(message);
+        this.currentOffset = currentOffset;
+    }
+
+    public long getCurrentOffset() {
+        return currentOffset;
+    }
+}
@@ -3,6 +3,9 @@ package repository;
 import entity.Address;
 import entity.AddressType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -11,4 +14,13 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findByUserIdOrderByIsDefaultDesc(Long userId);
     List<Address> findByUserIdAndType(Long userId, AddressType type);
     Address findByUserIdAndIsDefaultTrue(Long userId);
+
+    // Newest first: rows written before the unique default key existed may still hold two defaults
+    @Query("SELECT a.fullAddress FROM Address a WHERE a.user.id = :userId AND a.isDefault = true ORDER BY a.id DESC")
+    List<String> findDefaultFullAddresses(@Param("userId") Long userId);
+
+    // One statement instead of loading and saving every address; also frees the unique default slot
+    @Modifying
+    @Query("UPDATE Address a SET a.isDefault = false, a.defaultUserId = null WHERE a.user.id = :userId AND a.isDefault = true")
+    int clearDefault(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package repository;
+
+/**
+ * Projection used to load the in-memory menu item to image index at startup.
+ */
+public interface MenuItemImageView {
+    Long getId();
+    String getImageHash();
+    String getImageType();
+}
@@ -1,10 +1,44 @@
 package repository;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import dto.MenuItemDto;
 import entity.MenuItem;
 
 public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
     List<MenuItem> findByRestaurantIdAndAvailableTrue(Long restaurantId);
     List<MenuItem> findByRestaurantId(Long restaurantId);
-}
\ No newline at end of file
+    List<MenuItem> findByRestaurantIdAndIdIn(Long restaurantId, Collection<Long> ids);
+
+    String MENU_ITEM_DTO_SELECT = "SELECT new dto.MenuItemDto(m.id, m.name, m.description, m.price, m.type, m.available, "
+                                + "r.id, r.name, m.ratings.ratingCount, m.ratings.ratingSum, m.ratings.oneStar, m.ratings.twoStars, "
+                                + "m.ratings.threeStars, m.ratings.fourStars, m.ratings.fiveStars) FROM MenuItem m JOIN m.restaurant r ";
+
+    @Query(MENU_ITEM_DTO_SELECT + "WHERE r.id = :restaurantId AND m.available = true")
+    List<MenuItemDto> findAvailableDtosByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    @Query(MENU_ITEM_DTO_SELECT + "WHERE r.id = :restaurantId")
+    List<MenuItemDto> findDtosByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    @Query(MENU_ITEM_DTO_SELECT + "ORDER BY m.id")
+    List<MenuItemDto> findAllDtos();
+
+    @Query("SELECT m.id AS id, m.imageHash AS imageHash, m.imageType AS imageType FROM MenuItem m WHERE m.imageHash IS NOT NULL")
+    List<MenuItemImageView> findImageViews();
+
+    @Query("SELECT m.id FROM MenuItem m WHERE m.imageHash IS NULL")
+    List<Long> findIdsWithoutImage();
+
+    boolean existsByImageHash(String imageHash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MenuItem m SET m.imageHash = :imageHash, m.imageType = :imageType WHERE m.id = :id")
+    int updateImage(@Param("id") Long id, @Param("imageHash") String imageHash, @Param("imageType") String imageType);
+}
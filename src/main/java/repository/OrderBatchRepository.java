@@ -0,0 +1,89 @@
+package repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import entity.Order;
+import entity.OrderItem;
+
+/**
+ * Writes many orders per round-trip with JDBC batching.
+ * Hibernate cannot batch inserts for IDENTITY ids, so this goes straight to JDBC;
+ * with rewriteBatchedStatements=true the driver sends each batch as one multi-row
+ * INSERT and still returns the generated keys in order.
+ */
+@Repository
+public class OrderBatchRepository {
+
+    private static final String INSERT_ORDER =
+        "INSERT INTO orders (user_id, restaurant_id, total_amount, status, delivery_address, created_at, intake_handle) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER_ITEM =
+        "INSERT INTO order_items (order_id, menu_item_id, quantity, price_at_order) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the orders and all their items in one transaction, assigning the generated ids back.
+     */
+    @Transactional
+    public void insertAll(List<Order> orders) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            con -> con.prepareStatement(INSERT_ORDER, Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Order order = orders.get(i);
+                    ps.setLong(1, order.getUser().getId());
+                    ps.setLong(2, order.getRestaurant().getId());
+                    ps.setDouble(3, order.getTotalAmount());
+                    ps.setString(4, order.getStatus().name());
+                    ps.setString(5, order.getDeliveryAddress());
+                    ps.setTimestamp(6, Timestamp.valueOf(order.getCreatedAt()));
+                    ps.setString(7, order.getIntakeHandle());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return orders.size();
+                }
+            },
+            keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            order.setId(((Number) generated.get(i).values().iterator().next()).longValue());
+            items.addAll(order.getItems());
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getOrder().getId());
+            if (item.getMenuItem() != null) {
+                ps.setLong(2, item.getMenuItem().getId());
+            } else {
+                ps.setNull(2, Types.BIGINT);
+            }
+            ps.setInt(3, item.getQuantity());
+            ps.setDouble(4, item.getPriceAtOrder());
+        });
+    }
+}
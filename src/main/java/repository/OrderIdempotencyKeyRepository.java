@@ -0,0 +1,11 @@
+package repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import entity.OrderIdempotencyKey;
+
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, Long> {
+    Optional<OrderIdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+}
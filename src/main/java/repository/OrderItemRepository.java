@@ -1,7 +1,11 @@
 package repository;
 
+import java.util.Collection;
+import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import entity.OrderItem;
@@ -14,7 +18,13 @@ import entity.OrderItem;
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
-    // No custom methods needed! 
-    // Order items are managed automatically when the parent Order is saved/loaded, 
+    // Order items are written automatically when the parent Order is saved, 
     // thanks to the CascadeType.ALL mapping on the Order entity.
+
+    /**
+     * Flat item rows for a set of orders, used to fill OrderDto lists without loading entities.
+     */
+    @Query("SELECT new repository.OrderItemView(oi.order.id, oi.id, oi.quantity, oi.priceAtOrder, m.id, m.name) "
+         + "FROM OrderItem oi LEFT JOIN oi.menuItem m WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItemView> findItemViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
\ No newline at end of file
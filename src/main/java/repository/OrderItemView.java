@@ -0,0 +1,9 @@
+package repository;
+
+/**
+ * One order line joined to its menu item name. Selected with a constructor expression:
+ * an interface projection would build a proxy and a tuple map for every line.
+ */
+public record OrderItemView(Long orderId, Long id, Integer quantity, Double priceAtOrder,
+                            Long menuItemId, String itemName) {
+}
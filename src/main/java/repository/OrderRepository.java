@@ -1,12 +1,87 @@
 package repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import dto.OrderDto;
 import entity.Order;
+import entity.OrderStatus;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     List<Order> findByRestaurantId(Long restaurantId);
+    Optional<Order> findByIntakeHandle(String intakeHandle);
+
+    // Everything convertToDto touches, in one statement
+    @EntityGraph("Order.detail")
+    Optional<Order> findDetailById(Long id);
+
+    String ORDER_DTO_SELECT = "SELECT new dto.OrderDto(o.id, o.totalAmount, o.status, o.deliveryAddress, o.createdAt, "
+                            + "u.id, u.name, r.id, r.name) FROM Order o JOIN o.user u JOIN o.restaurant r ";
+
+    @Query(ORDER_DTO_SELECT + "WHERE u.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderDto> findDtosByUserId(@Param("userId") Long userId);
+
+    @Query(ORDER_DTO_SELECT + "WHERE r.id = :restaurantId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderDto> findDtosByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    // Keyset pages over (createdAt, id), served by the idx_orders_*_created indexes.
+    // Newest first for browsing history; oldest first for fetching what arrived since a cursor.
+    // The "since" queries assume rows commit in (createdAt, id) order; see OrderService#getOrdersPageByRestaurant.
+    @Query(ORDER_DTO_SELECT + "WHERE r.id = :restaurantId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderDto> findRestaurantPage(@Param("restaurantId") Long restaurantId, Pageable limit);
+
+    @Query(ORDER_DTO_SELECT + "WHERE r.id = :restaurantId "
+         + "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) "
+         + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderDto> findRestaurantPageBefore(@Param("restaurantId") Long restaurantId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id, Pageable limit);
+
+    @Query(ORDER_DTO_SELECT + "WHERE r.id = :restaurantId "
+         + "AND (o.createdAt > :createdAt OR (o.createdAt = :createdAt AND o.id > :id)) "
+         + "ORDER BY o.createdAt ASC, o.id ASC")
+    List<OrderDto> findRestaurantPageAfter(@Param("restaurantId") Long restaurantId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id, Pageable limit);
+
+    @Query(ORDER_DTO_SELECT + "WHERE u.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderDto> findUserPage(@Param("userId") Long userId, Pageable limit);
+
+    @Query(ORDER_DTO_SELECT + "WHERE u.id = :userId "
+         + "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) "
+         + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderDto> findUserPageBefore(@Param("userId") Long userId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id, Pageable limit);
+
+    @Query(ORDER_DTO_SELECT + "WHERE u.id = :userId "
+         + "AND (o.createdAt > :createdAt OR (o.createdAt = :createdAt AND o.id > :id)) "
+         + "ORDER BY o.createdAt ASC, o.id ASC")
+    List<OrderDto> findUserPageAfter(@Param("userId") Long userId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id, Pageable limit);
+
+    // Explicit joins; the r.hotelOwner.id path form is an implicit inner join whose shape depends on the provider
+    @Query("SELECT o.status AS status, o.user.id AS userId, r.id AS restaurantId, h.id AS ownerId "
+         + "FROM Order o JOIN o.restaurant r LEFT JOIN r.hotelOwner h WHERE o.id = :orderId")
+    Optional<OrderStatusView> findStatusViewById(@Param("orderId") Long orderId);
+
+    /**
+     * Compare-and-set: moves the order to newStatus only if it is still in expectedStatus.
+     * Returns the number of rows updated (0 means another writer got there first).
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :newStatus WHERE o.id = :orderId AND o.status = :expectedStatus")
+    int compareAndSetStatus(@Param("orderId") Long orderId,
+                            @Param("expectedStatus") OrderStatus expectedStatus,
+                            @Param("newStatus") OrderStatus newStatus);
 }
\ No newline at end of file
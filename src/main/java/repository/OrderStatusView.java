@@ -0,0 +1,14 @@
+package repository;
+
+import entity.OrderStatus;
+
+/**
+ * Projection with just the columns needed to authorise a status change,
+ * so updateOrderStatus does not load the order graph.
+ */
+public interface OrderStatusView {
+    OrderStatus getStatus();
+    Long getUserId();
+    Long getRestaurantId();
+    Long getOwnerId();
+}
@@ -0,0 +1,179 @@
+package repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+/**
+ * Maintains the {@link entity.RatingSummary} aggregates on restaurants and menu items.
+ * Increments are single relative UPDATEs, so concurrent reviews never lose a count.
+ * The consistency check aggregates the review table once with a GROUP BY and joins the
+ * result to the stored values; a drifted row is then rebuilt on its own, under a row lock.
+ */
+@Repository
+public class RatingAggregateRepository {
+
+    private static final String[] FIELDS =
+        {"ratingCount", "ratingSum", "oneStar", "twoStars", "threeStars", "fourStars", "fiveStars"};
+
+    // Reviews counted for a restaurant, and for a menu item (through the review-to-item link written with each review)
+    private static final String RESTAURANT_REVIEWS = "FROM Review rv";
+    private static final String RESTAURANT_KEY = "rv.restaurant.id";
+    private static final String MENU_ITEM_REVIEWS = "FROM ReviewMenuItem link JOIN Review rv ON rv.id = link.reviewId";
+    private static final String MENU_ITEM_KEY = "link.menuItemId";
+
+    private static final String INCREMENT = incrementClause();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    public int addRestaurantRating(Long restaurantId, int rating) {
+        return entityManager.createQuery("UPDATE Restaurant x SET " + INCREMENT + " WHERE x.id = :id")
+            .setParameter("id", restaurantId)
+            .setParameter("rating", (long) rating)
+            .executeUpdate();
+    }
+
+    /**
+     * Counts the rating once for every distinct menu item on the order.
+     */
+    @Transactional
+    public int addMenuItemRatingsForOrder(Long orderId, int rating) {
+        return entityManager.createQuery("UPDATE MenuItem x SET " + INCREMENT
+                + " WHERE x.id IN (SELECT oi.menuItem.id FROM OrderItem oi WHERE oi.order.id = :orderId)")
+            .setParameter("orderId", orderId)
+            .setParameter("rating", (long) rating)
+            .executeUpdate();
+    }
+
+    /**
+     * Recomputes one restaurant's aggregate if it drifted. Returns whether the row changed.
+     */
+    @Transactional
+    public boolean rebuildRestaurant(Long restaurantId) {
+        return rebuild("Restaurant", restaurantId, RESTAURANT_REVIEWS, RESTAURANT_KEY);
+    }
+
+    /**
+     * Recomputes one menu item's aggregate if it drifted. Returns whether the row changed.
+     */
+    @Transactional
+    public boolean rebuildMenuItem(Long menuItemId) {
+        return rebuild("MenuItem", menuItemId, MENU_ITEM_REVIEWS, MENU_ITEM_KEY);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findInconsistentRestaurantIds() {
+        return findInconsistent("Restaurant", RESTAURANT_REVIEWS, RESTAURANT_KEY);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findInconsistentMenuItemIds() {
+        return findInconsistent("MenuItem", MENU_ITEM_REVIEWS, MENU_ITEM_KEY);
+    }
+
+    // One grouped pass over the reviews, joined to every rated row; rows without reviews must hold zeros
+    private List<Long> findInconsistent(String entity, String reviews, String key) {
+        StringBuilder query = new StringBuilder("SELECT x.id FROM ").append(entity).append(" x LEFT JOIN (SELECT ")
+            .append(key).append(" AS ratedId, ").append(totals(true)).append(' ').append(reviews)
+            .append(" GROUP BY ").append(key).append(") t ON t.ratedId = x.id WHERE ");
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                query.append(" OR ");
+            }
+            query.append("x.ratings.").append(FIELDS[i]).append(" <> COALESCE(t.").append(FIELDS[i]).append(", 0)");
+        }
+        return entityManager.createQuery(query.toString(), Long.class).getResultList();
+    }
+
+    private boolean rebuild(String entity, Long id, String reviews, String key) {
+        // Lock the row before reading the reviews: an increment waits behind the lock, and every
+        // review committed before it is already in the totals, so nothing is counted twice or lost
+        List<Object[]> stored = entityManager.createQuery("SELECT " + storedColumns() + " FROM " + entity + " x WHERE x.id = :id", Object[].class)
+            .setParameter("id", id)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .getResultList();
+        if (stored.isEmpty()) {
+            return false;
+        }
+        long[] expected = longs(entityManager.createQuery("SELECT " + totals(false) + " " + reviews + " WHERE " + key + " = :id", Object[].class)
+            .setParameter("id", id)
+            .getSingleResult());
+        if (Arrays.equals(longs(stored.get(0)), expected)) {
+            return false;
+        }
+
+        StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                assignments.append(", ");
+            }
+            assignments.append("x.ratings.").append(FIELDS[i]).append(" = :").append(FIELDS[i]);
+        }
+        Query update = entityManager.createQuery("UPDATE " + entity + " x SET " + assignments + " WHERE x.id = :id")
+            .setParameter("id", id);
+        for (int i = 0; i < FIELDS.length; i++) {
+            update.setParameter(FIELDS[i], expected[i]);
+        }
+        return update.executeUpdate() > 0;
+    }
+
+    private static String incrementClause() {
+        StringBuilder clause = new StringBuilder(
+            "x.ratings.ratingCount = x.ratings.ratingCount + 1, x.ratings.ratingSum = x.ratings.ratingSum + :rating");
+        for (int star = 1; star <= 5; star++) {
+            String field = "x.ratings." + FIELDS[star + 1];
+            clause.append(", ").append(field).append(" = ").append(field)
+                  .append(" + CASE WHEN :rating = ").append(star).append(" THEN 1 ELSE 0 END");
+        }
+        return clause.toString();
+    }
+
+    private static String storedColumns() {
+        StringBuilder columns = new StringBuilder();
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                columns.append(", ");
+            }
+            columns.append("x.ratings.").append(FIELDS[i]);
+        }
+        return columns.toString();
+    }
+
+    // Count, sum and star histogram of the reviews in scope, in FIELDS order
+    private static String totals(boolean aliased) {
+        String[] expressions = new String[FIELDS.length];
+        expressions[0] = "COUNT(rv)";
+        expressions[1] = "COALESCE(SUM(rv.rating), 0)";
+        for (int star = 1; star <= 5; star++) {
+            expressions[star + 1] = "COALESCE(SUM(CASE WHEN rv.rating = " + star + " THEN 1 ELSE 0 END), 0)";
+        }
+        StringBuilder totals = new StringBuilder();
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (i > 0) {
+                totals.append(", ");
+            }
+            totals.append(expressions[i]);
+            if (aliased) {
+                totals.append(" AS ").append(FIELDS[i]);
+            }
+        }
+        return totals.toString();
+    }
+
+    private static long[] longs(Object[] row) {
+        long[] values = new long[row.length];
+        for (int i = 0; i < row.length; i++) {
+            values[i] = row[i] == null ? 0 : ((Number) row[i]).longValue();
+        }
+        return values;
+    }
+}
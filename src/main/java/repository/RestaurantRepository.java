@@ -1,7 +1,23 @@
 package repository;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import dto.RestaurantDto;
 import entity.Restaurant;
 
-public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {}
+public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
+
+    @Query("SELECT new dto.RestaurantDto(r.id, r.name, r.address, r.cuisineType, o.id, o.name, r.latitude, r.longitude, "
+         + "r.ratings.ratingCount, r.ratings.ratingSum, r.ratings.oneStar, r.ratings.twoStars, "
+         + "r.ratings.threeStars, r.ratings.fourStars, r.ratings.fiveStars) "
+         + "FROM Restaurant r JOIN r.hotelOwner o ORDER BY r.id")
+    List<RestaurantDto> findAllDtos();
+
+    @Query("SELECT r.hotelOwner.id FROM Restaurant r WHERE r.id = :id")
+    Optional<Long> findOwnerIdById(@Param("id") Long id);
+}
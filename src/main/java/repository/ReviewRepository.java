@@ -1,16 +1,80 @@
 package repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import dto.ReviewDto;
 import entity.Review;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByOrderId(Long orderId);
+    boolean existsByOrderId(Long orderId);
     Optional<Review> findByOrderIdAndUserId(Long orderId, Long userId);
     List<Review> findByRestaurantId(Long restaurantId);
-    @Query("SELECT r FROM Review r JOIN r.order o JOIN o.items oi WHERE oi.menuItem.id = :itemId")
+    @Query("SELECT DISTINCT rv FROM Review rv JOIN ReviewMenuItem link ON link.reviewId = rv.id WHERE link.menuItemId = :itemId")
     List<Review> findByMenuItemId(@Param("itemId") Long itemId);
-}
\ No newline at end of file
+
+    String REVIEW_DTO_SELECT = "SELECT new dto.ReviewDto(rv.id, rv.rating, rv.comment, rv.createdAt, "
+                             + "COALESCE(u.name, 'Anonymous'), COALESCE(r.name, 'Unknown Restaurant'), o.id) "
+                             + "FROM Review rv LEFT JOIN rv.user u LEFT JOIN rv.restaurant r LEFT JOIN rv.order o ";
+
+    // The link holds one row per (review, item), so joining it never duplicates a review
+    String ITEM_REVIEW_DTO_SELECT = REVIEW_DTO_SELECT + "JOIN ReviewMenuItem link ON link.reviewId = rv.id ";
+
+    @Query(REVIEW_DTO_SELECT + "WHERE r.id = :restaurantId")
+    List<ReviewDto> findDtosByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    @Query(ITEM_REVIEW_DTO_SELECT + "WHERE link.menuItemId = :itemId")
+    List<ReviewDto> findDtosByMenuItemId(@Param("itemId") Long itemId);
+
+    // Keyset pages, newest first, served by the (restaurant_id, created_at, id) and
+    // (menu_item_id, created_at, review_id) indexes
+    @Query(REVIEW_DTO_SELECT + "WHERE rv.restaurant.id = :restaurantId ORDER BY rv.createdAt DESC, rv.id DESC")
+    List<ReviewDto> findRestaurantPage(@Param("restaurantId") Long restaurantId, Pageable pageable);
+
+    @Query(REVIEW_DTO_SELECT + "WHERE rv.restaurant.id = :restaurantId "
+         + "AND (rv.createdAt < :createdAt OR (rv.createdAt = :createdAt AND rv.id < :id)) "
+         + "ORDER BY rv.createdAt DESC, rv.id DESC")
+    List<ReviewDto> findRestaurantPageBefore(@Param("restaurantId") Long restaurantId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    @Query(ITEM_REVIEW_DTO_SELECT + "WHERE link.menuItemId = :itemId ORDER BY link.createdAt DESC, link.reviewId DESC")
+    List<ReviewDto> findItemPage(@Param("itemId") Long itemId, Pageable pageable);
+
+    @Query(ITEM_REVIEW_DTO_SELECT + "WHERE link.menuItemId = :itemId "
+         + "AND (link.createdAt < :createdAt OR (link.createdAt = :createdAt AND link.reviewId < :id)) "
+         + "ORDER BY link.createdAt DESC, link.reviewId DESC")
+    List<ReviewDto> findItemPageBefore(@Param("itemId") Long itemId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    /**
+     * Links a saved review to every distinct menu item on its order.
+     */
+    @Transactional
+    @Modifying
+    @Query("INSERT INTO ReviewMenuItem (reviewId, menuItemId, createdAt) "
+         + "SELECT DISTINCT rv.id, oi.menuItem.id, rv.createdAt FROM Review rv JOIN OrderItem oi ON oi.order = rv.order "
+         + "WHERE rv.id = :reviewId AND oi.menuItem IS NOT NULL")
+    int linkMenuItems(@Param("reviewId") Long reviewId);
+
+    /**
+     * Links reviews written before the link table existed; a no-op once every review is linked.
+     */
+    @Transactional
+    @Modifying
+    @Query("INSERT INTO ReviewMenuItem (reviewId, menuItemId, createdAt) "
+         + "SELECT DISTINCT rv.id, oi.menuItem.id, COALESCE(rv.createdAt, CURRENT_TIMESTAMP) "
+         + "FROM Review rv JOIN OrderItem oi ON oi.order = rv.order "
+         + "WHERE oi.menuItem IS NOT NULL AND NOT EXISTS (SELECT 1 FROM ReviewMenuItem link WHERE link.reviewId = rv.id)")
+    int linkUnlinkedReviews();
+}
@@ -0,0 +1,53 @@
+package repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import dto.UserSummaryDto;
+import entity.Role;
+
+/**
+ * Reads every user as a summary row without materialising the result set.
+ * The statement is forward-only with a bounded fetch size, so the driver pulls rows
+ * from the server in batches (MySQL needs useCursorFetch=true on the URL for this) and
+ * each row is handed on and dropped before the next one is read. Nothing passes through
+ * the persistence context, so memory stays flat however many users there are.
+ */
+@Repository
+public class UserExportRepository {
+
+    private static final String SELECT_SUMMARIES =
+        "SELECT id, name, email, phone, role, created_at FROM users ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public UserExportRepository(JdbcTemplate jdbcTemplate,
+                                @Value("${users.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    public void forEachSummary(Consumer<UserSummaryDto> sink) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_SUMMARIES, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, rs -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            sink.accept(new UserSummaryDto(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                Role.valueOf(rs.getString("role")),
+                createdAt != null ? createdAt.toLocalDateTime() : null));
+        });
+    }
+}
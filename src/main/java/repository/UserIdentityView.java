@@ -0,0 +1,14 @@
+package repository;
+
+import entity.Role;
+
+/**
+ * Projection with the columns needed to identify and authorise a user,
+ * so hot paths never load the password hash or the user's associations.
+ */
+public interface UserIdentityView {
+    Long getId();
+    Role getRole();
+    String getName();
+    String getEmail();
+}
@@ -1,11 +1,30 @@
 package repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import dto.UserSummaryDto;
 import entity.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+    Optional<UserIdentityView> findIdentityById(Long id);
+
+    // Keyset page in id order; the password and addresses are never selected
+    @Query("SELECT new dto.UserSummaryDto(u.id, u.name, u.email, u.phone, u.role, u.createdAt) "
+         + "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummaryDto> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
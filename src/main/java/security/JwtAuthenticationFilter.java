@@ -31,22 +31,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             
-            if (jwtUtil.isTokenValid(token)) {
-                String email = jwtUtil.extractEmail(token);
-                String role = jwtUtil.extractRole(token);
-                Long userId = jwtUtil.extractUserId(token);
-                
+            // One verification per request (none for a recently seen token)
+            jwtUtil.verify(token).ifPresent(principal -> {
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(
-                        email, 
+                        principal, 
                         null, 
-                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + principal.role()))
                     );
                 
                 // Add userId to authentication details
-                authentication.setDetails(userId);
+                authentication.setDetails(principal.userId());
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+            });
         }
         
         filterChain.doFilter(request, response);
@@ -1,24 +1,72 @@
 package security;
 
+import entity.Role;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import javax.crypto.SecretKey;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
     
-    @Value("${jwt.secret:mySecretKey123456789012345678901234567890}")
-    private String secret;
+    private final Long expiration;
     
-    @Value("${jwt.expiration:86400000}")
-    private Long expiration;
+    // Both are immutable and thread-safe, so they are built once instead of per call
+    private final SecretKey signingKey;
+    private final JwtParser parser;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // SHA-256 of the token -> principal; an entry lives no longer than the token itself
+    private final Cache<ByteBuffer, JwtPrincipal> verifiedTokens;
+    
+    public JwtUtil(@Value("${jwt.secret:mySecretKey123456789012345678901234567890}") String secret,
+                   @Value("${jwt.expiration:86400000}") Long expiration,
+                   @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheSize,
+                   MeterRegistry meterRegistry) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<ByteBuffer, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, JwtPrincipal principal, long currentTime) {
+                        if (principal.expiresAt() == null) {
+                            return Long.MAX_VALUE;
+                        }
+                        return Math.max(0, Duration.between(Instant.now(), principal.expiresAt()).toNanos());
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, JwtPrincipal principal, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, JwtPrincipal principal, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
     }
     
     public String generateToken(String email, String role, Long userId) {
@@ -28,10 +76,48 @@ public class JwtUtil {
                 .claim("userId", userId)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
+    /**
+     * Verifies the token once and returns its principal, or empty if it is malformed,
+     * forged or expired. Verified tokens are remembered until they expire, so repeat
+     * requests with the same token skip the parse and HMAC check.
+     */
+    public Optional<JwtPrincipal> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        ByteBuffer key = digest(token);
+        JwtPrincipal cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            if (!cached.isExpired(Instant.now())) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.invalidate(key);
+            return Optional.empty();
+        }
+        
+        JwtPrincipal principal;
+        try {
+            Claims claims = extractClaims(token);
+            Date expiresAt = claims.getExpiration();
+            String role = claims.get("role", String.class);
+            Long userId = claims.get("userId", Long.class);
+            if (role == null || userId == null) {
+                return Optional.empty();
+            }
+            principal = new JwtPrincipal(userId, claims.getSubject(), Role.valueOf(role),
+                    expiresAt != null ? expiresAt.toInstant() : null);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        // Only verified tokens are cached, so garbage tokens cannot evict real ones
+        verifiedTokens.put(key, principal);
+        return Optional.of(principal);
+    }
+    
     public String extractEmail(String token) {
         return extractClaims(token).getSubject();
     }
@@ -45,19 +131,19 @@ public class JwtUtil {
     }
     
     public boolean isTokenValid(String token) {
-        try {
-            extractClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return verify(token).isPresent();
     }
     
     private Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+    
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
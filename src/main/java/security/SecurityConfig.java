@@ -1,7 +1,9 @@
 package security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -32,8 +34,10 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/restaurants", "/api/restaurants/**").permitAll()
-                .requestMatchers("/api/menu-items/restaurant/**", "/api/menu-items/image/**").permitAll()
+                // Reads only: creating restaurants and menu items needs a token, which names the caller
+                .requestMatchers(HttpMethod.GET, "/api/restaurants", "/api/restaurants/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/menu-items/restaurant/**", "/api/menu-items/image/**").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/api/menu-items/image/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 .anyRequest().authenticated()
             )
@@ -42,9 +46,10 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Hashes made with another strength keep verifying and are re-encoded on the next login
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -1,46 +1,96 @@
 package service;
 
 import entity.Address;
-import entity.User;
+import exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import repository.AddressRepository;
-import repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class AddressService {
     
-    @Autowired
-    private AddressRepository addressRepository;
+    private final AddressRepository addressRepository;
+    private final UserService userService;
+
+    // userId -> full text of the default address, used to fill in an order's delivery address
+    private final LoadingCache<Long, Optional<String>> defaultAddressCache;
     
-    @Autowired
-    private UserRepository userRepository;
+    public AddressService(AddressRepository addressRepository,
+                          UserService userService,
+                          MeterRegistry meterRegistry,
+                          @Value("${addresses.default-cache.max-size:100000}") long maxSize,
+                          @Value("${addresses.default-cache.ttl-minutes:30}") long ttlMinutes) {
+        this.addressRepository = addressRepository;
+        this.userService = userService;
+        this.defaultAddressCache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build(userId -> addressRepository.findDefaultFullAddresses(userId).stream().findFirst());
+        CaffeineCacheMetrics.monitor(meterRegistry, defaultAddressCache, "addresses.default");
+    }
     
     public List<Address> getUserAddresses(Long userId) {
         return addressRepository.findByUserIdOrderByIsDefaultDesc(userId);
     }
     
+    /**
+     * Saves an address. A new default first clears the previous one with a single bulk update;
+     * the unique default_user_id key rejects a second default if two saves ever race.
+     */
     @Transactional
     public Address saveAddress(Long userId, Address address) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        address.setUser(user);
+        // Cached identity check; the address only needs the user's id for its foreign key
+        address.setUser(userService.getUserIdentity(userId).toReference());
         
         if (address.isDefault()) {
-            List<Address> userAddresses = addressRepository.findByUserIdOrderByIsDefaultDesc(userId);
-            userAddresses.forEach(addr -> {
-                addr.setDefault(false);
-                addressRepository.save(addr);
-            });
+            addressRepository.clearDefault(userId);
         }
         
-        return addressRepository.save(address);
+        Address savedAddress = addressRepository.save(address);
+        evictDefaultAfterCommit(userId);
+        return savedAddress;
     }
     
+    @Transactional
     public void deleteAddress(Long addressId) {
-        addressRepository.deleteById(addressId);
+        Address address = addressRepository.findById(addressId)
+            .orElseThrow(() -> new ResourceNotFoundException("Address not found"));
+        Long userId = address.getUser().getId();
+        addressRepository.delete(address);
+        evictDefaultAfterCommit(userId);
+    }
+
+    /**
+     * Full text of the user's default address, or empty if none is marked default.
+     * Served from the cache, so checkout does not query addresses.
+     */
+    public Optional<String> getDefaultDeliveryAddress(Long userId) {
+        return defaultAddressCache.get(userId);
+    }
+
+    private void evictDefaultAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    defaultAddressCache.invalidate(userId);
+                }
+            });
+        } else {
+            defaultAddressCache.invalidate(userId);
+        }
     }
-}
\ No newline at end of file
+}
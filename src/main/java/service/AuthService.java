@@ -2,11 +2,12 @@ package service;
 
 import dto.AuthResponse;
 import dto.LoginRequest;
+import entity.Role;
 import entity.User;
+import exception.ServiceOverloadedException;
 import repository.UserRepository;
 import security.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 
@@ -18,18 +19,25 @@ public class AuthService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private UserService userService;
+    
     public AuthResponse register(User user) {
         if (userRepository.findByEmail(user.getEmail()).isPresent()) {
             throw new RuntimeException("Email already exists");
         }
+        if (user.getRole() == Role.ADMIN) {
+            throw new IllegalArgumentException("Administrator accounts cannot be registered.");
+        }
         
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
         User savedUser = userRepository.save(user);
+        userService.evictIdentity(savedUser.getId());
         
         String token = jwtUtil.generateToken(
             savedUser.getEmail(), 
@@ -47,23 +55,13 @@ public class AuthService {
     }
     
     public AuthResponse login(LoginRequest request) {
-        System.out.println("Login attempt for email: " + request.getEmail());
         User user = userRepository.findByEmail(request.getEmail())
-            .orElseThrow(() -> {
-                System.out.println("User not found: " + request.getEmail());
-                return new RuntimeException("Invalid credentials");
-            });
-        
-        System.out.println("Found user: " + user.getEmail() + " with stored password: " + user.getPassword());
-        System.out.println("Provided password: " + request.getPassword());
-        
-        boolean passwordMatches = passwordEncoder.matches(request.getPassword(), user.getPassword());
-        System.out.println("Password matches: " + passwordMatches);
+            .orElseThrow(() -> new RuntimeException("Invalid credentials"));
         
-        if (!passwordMatches) {
-            System.out.println("Password mismatch for user: " + request.getEmail());
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
+        rehashIfNeeded(user, request.getPassword());
         
         String token = jwtUtil.generateToken(
             user.getEmail(), 
@@ -79,4 +77,20 @@ public class AuthService {
             user.getId()
         );
     }
+    
+    /**
+     * Re-encodes the password with the configured work factor after a successful login,
+     * while the raw password is at hand. Skipped (and retried on a later login) when the
+     * hashing pool is busy, so raising the work factor never fails a login.
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            userRepository.updatePassword(user.getId(), passwordHashingService.encode(rawPassword));
+        } catch (ServiceOverloadedException e) {
+            // Keep the old hash; it still verifies
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content-addressed file store. A blob is named by the SHA-256 of its bytes and kept
+ * under two levels of shard directories (ab/cd/abcd...), so no directory grows large
+ * and identical content is stored once however many owners reference it.
+ * Writes go to a temp file and are renamed into place, so a blob is either absent or complete.
+ * Derived files (such as resized images) live next to their source blob.
+ */
+@Component
+public class BlobStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final Path tempDir;
+
+    public BlobStore(@Value("${blobs.dir:uploads/blobs}") String root) throws IOException {
+        this.root = Paths.get(root);
+        this.tempDir = this.root.resolve("tmp");
+        Files.createDirectories(tempDir);
+    }
+
+    /**
+     * Streams the content into the store and returns its hash.
+     */
+    public String put(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(tempDir, "blob-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                content.transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            moveIntoPlace(temp, hash);
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Moves an already written file into the store under its known hash.
+     * The file must be on the same filesystem as the store, e.g. created under {@link #tempDir()}.
+     */
+    public void putFile(Path file, String hash) throws IOException {
+        try {
+            moveIntoPlace(file, checkHash(hash));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Removes a blob. Derived files are left to the caller, as only it knows which exist.
+     */
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(path(hash));
+    }
+
+    public boolean contains(String hash) {
+        return Files.isRegularFile(path(hash));
+    }
+
+    public Path path(String hash) {
+        checkHash(hash);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /**
+     * Location of a file derived from a blob, e.g. "thumbnail.jpg" for an image.
+     */
+    public Path derivedPath(String hash, String suffix) {
+        Path blob = path(hash);
+        return blob.resolveSibling(hash + "." + suffix);
+    }
+
+    public Path tempDir() {
+        return tempDir;
+    }
+
+    private void moveIntoPlace(Path temp, String hash) throws IOException {
+        Path target = path(hash);
+        if (Files.exists(target)) {
+            // Same bytes are already stored
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // A concurrent writer stored the same content first
+        }
+    }
+
+    private static String checkHash(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash.");
+        }
+        return hash;
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
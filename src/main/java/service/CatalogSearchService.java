@@ -0,0 +1,103 @@
+package service;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import dto.MenuItemDto;
+import dto.RestaurantDto;
+import dto.SearchResultDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import repository.MenuItemRepository;
+import repository.RestaurantRepository;
+
+/**
+ * Full-text search over restaurants and menu items, answered from memory.
+ * The indexes are loaded once the application is ready and kept current by
+ * MenuItemService and RestaurantService as items and restaurants are written.
+ */
+@Service
+public class CatalogSearchService {
+
+    private final MenuItemRepository menuItemRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final int maxResults;
+    private final Timer searchTimer;
+
+    // Names, types and the restaurant name match by prefix; descriptions by whole word
+    private final TextSearchIndex<MenuItemDto> menuItemIndex = new TextSearchIndex<>(
+        MenuItemDto::getId,
+        item -> String.join(" ", nullToEmpty(item.getName()), nullToEmpty(item.getType()), nullToEmpty(item.getRestaurantName())),
+        MenuItemDto::getDescription);
+    private final TextSearchIndex<RestaurantDto> restaurantIndex = new TextSearchIndex<>(
+        RestaurantDto::getId,
+        restaurant -> String.join(" ", nullToEmpty(restaurant.getName()), nullToEmpty(restaurant.getCuisineType())),
+        RestaurantDto::getAddress);
+
+    public CatalogSearchService(MenuItemRepository menuItemRepository,
+                                RestaurantRepository restaurantRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${search.max-results:50}") int maxResults) {
+        this.menuItemRepository = menuItemRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.maxResults = maxResults;
+        this.searchTimer = Timer.builder("catalog.search")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("catalog.search.menu-items", menuItemIndex, TextSearchIndex::size).register(meterRegistry);
+        Gauge.builder("catalog.search.restaurants", restaurantIndex, TextSearchIndex::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        restaurantRepository.findAllDtos().forEach(restaurantIndex::put);
+        menuItemRepository.findAllDtos().forEach(menuItemIndex::put);
+    }
+
+    /**
+     * Adds or replaces a restaurant. On a rename its menu items are re-indexed too,
+     * as they are found by restaurant name.
+     */
+    public void indexRestaurant(RestaurantDto restaurant) {
+        RestaurantDto previous = restaurantIndex.get(restaurant.getId());
+        restaurantIndex.put(restaurant);
+        if (previous == null || Objects.equals(previous.getName(), restaurant.getName())) {
+            return;
+        }
+        for (MenuItemDto item : menuItemIndex.documents(item -> restaurant.getId().equals(item.getRestaurantId()))) {
+            // Indexed documents are shared with concurrent searches, so each item is replaced by a copy
+            MenuItemDto renamed = new MenuItemDto(item.getId(), item.getName(), item.getDescription(), item.getPrice(),
+                item.getType(), item.getAvailable(), item.getRestaurantId(), restaurant.getName());
+            renamed.setRating(item.getRating());
+            menuItemIndex.put(renamed);
+        }
+    }
+
+    /**
+     * Adds or replaces a menu item. Unavailable items stay indexed but are filtered out of results.
+     */
+    public void indexMenuItem(MenuItemDto menuItem) {
+        menuItemIndex.put(menuItem);
+    }
+
+    public SearchResultDto search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank.");
+        }
+        int size = Math.max(1, Math.min(limit, maxResults));
+        return searchTimer.record(() -> new SearchResultDto(
+            query,
+            restaurantIndex.search(query, size, restaurant -> true),
+            menuItemIndex.search(query, size, item -> Boolean.TRUE.equals(item.getAvailable()))));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
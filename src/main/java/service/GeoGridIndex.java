@@ -0,0 +1,230 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory uniform grid over points on the globe.
+ * Cells are fixed latitude/longitude squares keyed by row and column, so a radius query
+ * only visits the cells overlapping the circle's bounding box and measures great-circle
+ * distance to the points in them. A k-nearest query widens its radius until the circle
+ * holds k points; every point inside that circle has been measured, so the answer is exact.
+ */
+class GeoGridIndex<T> {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int cols;
+
+    private final Map<Long, List<Point<T>>> cells = new HashMap<>();
+    private final Map<Long, Point<T>> pointsById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    GeoGridIndex(double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException("Grid cell size must be between 0 and 90 degrees.");
+        }
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.cols = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /**
+     * Adds or moves a point.
+     */
+    void put(long id, double latitude, double longitude, T value) {
+        checkCoordinates(latitude, longitude);
+        Point<T> point = new Point<>(id, latitude, longitude, cellOf(latitude, longitude), value);
+        lock.writeLock().lock();
+        try {
+            Point<T> previous = pointsById.put(id, point);
+            if (previous != null) {
+                removeFromCell(previous);
+            }
+            cells.computeIfAbsent(point.cell, k -> new ArrayList<>()).add(point);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Point<T> previous = pointsById.remove(id);
+            if (previous != null) {
+                removeFromCell(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return pointsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to limit points within radiusKm of the origin, nearest first.
+     */
+    List<Hit<T>> withinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        checkCoordinates(latitude, longitude);
+        if (limit <= 0 || !(radiusKm >= 0)) {
+            return List.of();
+        }
+        // Farthest on top, so a closer point can evict it once the queue is full
+        PriorityQueue<Hit<T>> nearest = new PriorityQueue<>(limit + 1,
+            Comparator.comparingDouble((Hit<T> hit) -> hit.distanceKm()).reversed());
+
+        double dLat = radiusKm / KM_PER_DEGREE;
+        int rowMin = row(latitude - dLat);
+        int rowMax = row(latitude + dLat);
+        int colMin;
+        int colMax;
+        double dLon = longitudeSpan(latitude, radiusKm, dLat);
+        if (dLon >= 180) {
+            colMin = 0;
+            colMax = cols - 1;
+        } else {
+            colMin = (int) Math.floor((longitude - dLon + 180) / cellDegrees);
+            colMax = (int) Math.floor((longitude + dLon + 180) / cellDegrees);
+            if (colMax - colMin + 1 >= cols) {
+                colMin = 0;
+                colMax = cols - 1;
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            for (int r = rowMin; r <= rowMax; r++) {
+                for (int c = colMin; c <= colMax; c++) {
+                    // Columns wrap around the antimeridian
+                    List<Point<T>> cell = cells.get((long) r * cols + Math.floorMod(c, cols));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Point<T> point : cell) {
+                        double distance = distanceKm(latitude, longitude, point.latitude, point.longitude);
+                        if (distance > radiusKm) {
+                            continue;
+                        }
+                        if (nearest.size() < limit) {
+                            nearest.add(new Hit<>(point.id, point.value, distance));
+                        } else if (distance < nearest.peek().distanceKm()) {
+                            nearest.poll();
+                            nearest.add(new Hit<>(point.id, point.value, distance));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit<T>> results = new ArrayList<>(nearest);
+        results.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return results;
+    }
+
+    /**
+     * Returns the k points nearest to the origin, nearest first, ignoring anything beyond maxRadiusKm.
+     * Starts with a one-cell radius and doubles it, so dense areas are answered from a few cells.
+     */
+    List<Hit<T>> nearest(double latitude, double longitude, int k, double maxRadiusKm) {
+        double radius = Math.min(cellDegrees * KM_PER_DEGREE, maxRadiusKm);
+        while (true) {
+            List<Hit<T>> hits = withinRadius(latitude, longitude, radius, k);
+            if (hits.size() >= k || radius >= maxRadiusKm) {
+                return hits;
+            }
+            radius = Math.min(radius * 2, maxRadiusKm);
+        }
+    }
+
+    static void checkCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90.");
+        }
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180.");
+        }
+    }
+
+    /**
+     * Great-circle distance by the haversine formula.
+     */
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Half-width in degrees of longitude of the circle's bounding box, or 180 when the
+     * circle reaches a pole and every column has to be visited.
+     */
+    private static double longitudeSpan(double latitude, double radiusKm, double dLat) {
+        if (latitude + dLat >= 90 || latitude - dLat <= -90) {
+            return 180;
+        }
+        double ratio = Math.sin(radiusKm / EARTH_RADIUS_KM) / Math.cos(Math.toRadians(latitude));
+        return ratio >= 1 ? 180 : Math.toDegrees(Math.asin(ratio));
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        int col = Math.min((int) Math.floor((longitude + 180) / cellDegrees), cols - 1);
+        return (long) row(latitude) * cols + col;
+    }
+
+    private int row(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / cellDegrees);
+        return Math.max(0, Math.min(row, rows - 1));
+    }
+
+    private void removeFromCell(Point<T> point) {
+        List<Point<T>> cell = cells.get(point.cell);
+        for (int i = 0; i < cell.size(); i++) {
+            if (cell.get(i) == point) {
+                // Order within a cell does not matter, so swap the last point into the gap
+                cell.set(i, cell.get(cell.size() - 1));
+                cell.remove(cell.size() - 1);
+                break;
+            }
+        }
+        if (cell.isEmpty()) {
+            cells.remove(point.cell);
+        }
+    }
+
+    record Hit<T>(long id, T value, double distanceKm) {}
+
+    private static final class Point<T> {
+        final long id;
+        final double latitude;
+        final double longitude;
+        final long cell;
+        final T value;
+
+        Point(long id, double latitude, double longitude, long cell, T value) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import dto.ImageUploadDto;
+import entity.MenuItem;
+import exception.ResourceNotFoundException;
+import exception.ServiceOverloadedException;
+import exception.UnauthorizedActionException;
+import exception.UploadOffsetConflictException;
+import exception.UploadSizeExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import repository.MenuItemRepository;
+import security.JwtPrincipal;
+
+/**
+ * Chunked, resumable menu image uploads. Each chunk is streamed from the request
+ * straight into a file channel at the upload's current offset through one fixed-size
+ * buffer, so memory per upload stays constant however large the image is. The SHA-256
+ * is computed as bytes are written; once the declared size is reached it must match
+ * the checksum given when the upload started, and the file moves into the blob store.
+ * A client that lost a chunk asks for the current offset and continues from there.
+ */
+@Service
+public class ImageUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageUploadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MenuItemRepository menuItemRepository;
+    private final MenuImageService menuImageService;
+    private final BlobStore blobStore;
+    private final RestaurantAccessService restaurantAccessService;
+    private final long maxBytes;
+    private final int maxSessions;
+    private final long sessionTtlMillis;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public ImageUploadService(MenuItemRepository menuItemRepository,
+                              MenuImageService menuImageService,
+                              BlobStore blobStore,
+                              RestaurantAccessService restaurantAccessService,
+                              MeterRegistry meterRegistry,
+                              @Value("${menu.images.uploads.max-bytes:52428800}") long maxBytes,
+                              @Value("${menu.images.uploads.max-sessions:1000}") int maxSessions,
+                              @Value("${menu.images.uploads.session-ttl-minutes:60}") long sessionTtlMinutes) {
+        this.menuItemRepository = menuItemRepository;
+        this.menuImageService = menuImageService;
+        this.blobStore = blobStore;
+        this.restaurantAccessService = restaurantAccessService;
+        this.maxBytes = maxBytes;
+        this.maxSessions = maxSessions;
+        this.sessionTtlMillis = sessionTtlMinutes * 60_000L;
+
+        Gauge.builder("menu.images.uploads.active", sessions, Map::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void discardPartialUploads() {
+        sessions.values().forEach(this::discard);
+    }
+
+    @Transactional(readOnly = true)
+    public ImageUploadDto startUpload(Long itemId, JwtPrincipal caller, long size, String sha256, String contentType) {
+        MenuItem item = menuItemRepository.findById(itemId)
+            .orElseThrow(() -> new ResourceNotFoundException("Menu item not found"));
+        restaurantAccessService.requireOwner(caller, item.getRestaurant().getId(),
+            "You can only upload images for your own restaurant's items");
+        if (size <= 0 || size > maxBytes) {
+            throw new IllegalArgumentException("Image size must be between 1 and " + maxBytes + " bytes.");
+        }
+        String expectedHash = sha256 == null ? "" : sha256.toLowerCase(Locale.ROOT);
+        if (!expectedHash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("sha256 must be 64 hexadecimal characters.");
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        if (!"image".equals(mediaType.getType())) {
+            throw new IllegalArgumentException("Only image uploads are accepted.");
+        }
+
+        expireStaleSessions();
+        if (sessions.size() >= maxSessions) {
+            throw new ServiceOverloadedException("Too many uploads in progress, please retry shortly.");
+        }
+        try {
+            Path file = Files.createTempFile(blobStore.tempDir(), "upload-", ".part");
+            UploadSession session = new UploadSession(UUID.randomUUID().toString(), caller.userId(), itemId, size,
+                expectedHash, mediaType, file);
+            sessions.put(session.id, session);
+            return session.toDto();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start upload", e);
+        }
+    }
+
+    public ImageUploadDto getUpload(String uploadId, JwtPrincipal caller) {
+        UploadSession session = session(uploadId, caller);
+        synchronized (session) {
+            return session.toDto();
+        }
+    }
+
+    /**
+     * Appends the request body at the given offset, which must equal the bytes received so far.
+     * If the connection drops mid-chunk, the bytes already written count and the client resumes after them.
+     * A chunk whose declared length (-1 if unknown) would pass the upload's size is refused before any of it is read.
+     */
+    public ImageUploadDto appendChunk(String uploadId, JwtPrincipal caller, long offset, long length, InputStream body) {
+        UploadSession session = session(uploadId, caller);
+        synchronized (session) {
+            if (session.completed) {
+                return session.toDto();
+            }
+            if (offset != session.offset) {
+                throw new UploadOffsetConflictException(
+                    "Upload is at offset " + session.offset + ", not " + offset + ".", session.offset);
+            }
+            if (length > session.size - session.offset) {
+                throw new UploadSizeExceededException("A chunk of " + length + " bytes at offset " + session.offset
+                    + " runs past the declared size of " + session.size + " bytes.", session.offset);
+            }
+            session.touch();
+
+            try (FileChannel channel = FileChannel.open(session.file, StandardOpenOption.WRITE);
+                 ReadableByteChannel in = Channels.newChannel(body)) {
+                channel.position(session.offset);
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    // A body without a declared length is only caught here; the earlier buffers are kept
+                    if (session.offset + buffer.remaining() > session.size) {
+                        throw new UploadSizeExceededException("Chunk runs past the declared size of " + session.size
+                            + " bytes; " + session.offset + " bytes were accepted.", session.offset);
+                    }
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    // Only bytes that reached the file are hashed and counted
+                    session.digest.update(buffer.array(), 0, buffer.limit());
+                    session.offset += buffer.limit();
+                    buffer.clear();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Upload interrupted at offset " + session.offset, e);
+            } finally {
+                session.touch();
+            }
+
+            if (session.offset == session.size) {
+                complete(session);
+            }
+            return session.toDto();
+        }
+    }
+
+    private void complete(UploadSession session) {
+        String actualHash = HexFormat.of().formatHex(session.digest.digest());
+        if (!actualHash.equals(session.expectedHash)) {
+            discard(session);
+            throw new IllegalArgumentException("Checksum mismatch, the upload was discarded.");
+        }
+        try {
+            blobStore.putFile(session.file, actualHash);
+        } catch (IOException e) {
+            discard(session);
+            throw new UncheckedIOException("Failed to store upload", e);
+        }
+        menuImageService.attach(session.itemId, actualHash, session.mediaType);
+        session.completed = true;
+    }
+
+    private UploadSession session(String uploadId, JwtPrincipal caller) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new ResourceNotFoundException("Upload not found or expired");
+        }
+        if (!session.ownerId.equals(caller.userId())) {
+            throw new UnauthorizedActionException("You can only access uploads you started");
+        }
+        return session;
+    }
+
+    private void expireStaleSessions() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> {
+            if (now - session.lastActivity <= sessionTtlMillis) {
+                return false;
+            }
+            if (!session.completed) {
+                deleteQuietly(session.file);
+            }
+            return true;
+        });
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.id);
+        deleteQuietly(session.file);
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete partial upload {}", file, e);
+        }
+    }
+
+    private static final class UploadSession {
+        final String id;
+        // The user who started the upload; only they may read or extend it
+        final Long ownerId;
+        final Long itemId;
+        final long size;
+        final String expectedHash;
+        final MediaType mediaType;
+        final Path file;
+        final MessageDigest digest = BlobStore.sha256();
+        long offset;
+        boolean completed;
+        volatile long lastActivity = System.currentTimeMillis();
+
+        UploadSession(String id, Long ownerId, Long itemId, long size, String expectedHash, MediaType mediaType, Path file) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.itemId = itemId;
+            this.size = size;
+            this.expectedHash = expectedHash;
+            this.mediaType = mediaType;
+            this.file = file;
+        }
+
+        void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        ImageUploadDto toDto() {
+            return new ImageUploadDto(id, itemId, size, offset, completed ? "COMPLETED" : "IN_PROGRESS");
+        }
+    }
+}
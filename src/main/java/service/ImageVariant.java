@@ -0,0 +1,31 @@
+package service;
+
+import java.util.Locale;
+
+/**
+ * Sizes a menu image is re-encoded to after upload, by longest edge in pixels.
+ */
+public enum ImageVariant {
+    THUMBNAIL(200, 0.72f),
+    MEDIUM(640, 0.78f),
+    FULL(1600, 0.82f);
+
+    private final int maxEdge;
+    private final float quality;
+
+    ImageVariant(int maxEdge, float quality) {
+        this.maxEdge = maxEdge;
+        this.quality = quality;
+    }
+
+    public int getMaxEdge() { return maxEdge; }
+    public float getQuality() { return quality; }
+
+    public static ImageVariant fromParam(String size) {
+        try {
+            return valueOf(size.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown image size '" + size + "', expected thumbnail, medium or full.");
+        }
+    }
+}
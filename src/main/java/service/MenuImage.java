@@ -0,0 +1,39 @@
+package service;
+
+import java.nio.file.Path;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Resolved location and validators of a stored menu item image.
+ */
+public final class MenuImage {
+
+    private final Path path;
+    private final MediaType mediaType;
+    private final long length;
+    private final long lastModified;
+    private final String etag;
+    private final boolean provisional;
+
+    MenuImage(Path path, MediaType mediaType, long length, long lastModified, String etag) {
+        this(path, mediaType, length, lastModified, etag, false);
+    }
+
+    MenuImage(Path path, MediaType mediaType, long length, long lastModified, String etag, boolean provisional) {
+        this.path = path;
+        this.mediaType = mediaType;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.etag = etag;
+        this.provisional = provisional;
+    }
+
+    public Path getPath() { return path; }
+    public MediaType getMediaType() { return mediaType; }
+    public long getLength() { return length; }
+    public long getLastModified() { return lastModified; }
+    public String getEtag() { return etag; }
+    // The original standing in for a variant that is still being produced
+    public boolean isProvisional() { return provisional; }
+}
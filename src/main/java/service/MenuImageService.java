@@ -0,0 +1,386 @@
+package service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import repository.MenuItemImageView;
+import repository.MenuItemRepository;
+
+/**
+ * Stores menu item images in the {@link BlobStore} and resolves them for serving.
+ * An in-memory index maps each item to its image hash, so serving an image never
+ * probes the filesystem; small, frequently requested images are also kept in memory.
+ * Resized variants are produced in the background, once per distinct photo; until
+ * they exist the original is served in their place.
+ */
+@Service
+public class MenuImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuImageService.class);
+
+    // Extensions of images saved before the blob store, imported once at startup
+    private static final List<String> LEGACY_EXTENSIONS = List.of(".jpg", ".jpeg", ".png", ".webp", ".gif");
+
+    private final BlobStore blobStore;
+    private final MenuItemRepository menuItemRepository;
+    private final Path legacyDir;
+    private final long hotMaxFileBytes;
+
+    private final Map<Long, StoredImage> imagesByItem = new ConcurrentHashMap<>();
+    // Blobs stored for new items whose transaction has not finished yet, with how many such items
+    private final ConcurrentHashMap<String, Integer> uncommittedBlobs = new ConcurrentHashMap<>();
+    // Keyed by hash + "." + variant suffix; holds the variant's length
+    private final Map<String, Long> variantLengths = new ConcurrentHashMap<>();
+    private final Cache<Path, byte[]> hotBytes;
+
+    private final ThreadPoolExecutor variantExecutor;
+    private final Set<String> variantsQueued = ConcurrentHashMap.newKeySet();
+    // Hashes whose variants could not be produced, so they are not retried on every request
+    private final Cache<String, Boolean> variantFailures;
+    private final Counter variantsGenerated;
+    private final Counter variantsFailed;
+    private final Counter variantsRejected;
+
+    public MenuImageService(BlobStore blobStore,
+                            MenuItemRepository menuItemRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${menu.images.dir:uploads/menu-images}") String legacyDir,
+                            @Value("${menu.images.hot-cache-bytes:33554432}") long hotCacheBytes,
+                            @Value("${menu.images.hot-max-file-bytes:262144}") long hotMaxFileBytes,
+                            @Value("${menu.images.variants.threads:2}") int variantThreads,
+                            @Value("${menu.images.variants.queue-capacity:100}") int variantQueueCapacity,
+                            @Value("${menu.images.variants.retry-seconds:600}") long variantRetrySeconds) {
+        this.blobStore = blobStore;
+        this.menuItemRepository = menuItemRepository;
+        this.legacyDir = Paths.get(legacyDir);
+        this.hotMaxFileBytes = hotMaxFileBytes;
+        this.hotBytes = Caffeine.newBuilder()
+            .maximumWeight(hotCacheBytes)
+            .weigher((Path path, byte[] bytes) -> bytes.length)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, hotBytes, "menu.images.hot");
+        Gauge.builder("menu.images.indexed", imagesByItem, Map::size).register(meterRegistry);
+
+        // Decoding a large photo takes tens of megabytes, so both the threads and the backlog are bounded
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.variantExecutor = new ThreadPoolExecutor(variantThreads, variantThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(variantQueueCapacity), r -> {
+                Thread thread = new Thread(r, "menu-image-variants-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.variantFailures = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofSeconds(variantRetrySeconds))
+            .build();
+        Gauge.builder("menu.images.variants.queue.depth", variantExecutor, e -> e.getQueue().size()).register(meterRegistry);
+        this.variantsGenerated = meterRegistry.counter("menu.images.variants.generated");
+        this.variantsFailed = meterRegistry.counter("menu.images.variants.failed");
+        this.variantsRejected = meterRegistry.counter("menu.images.variants.rejected");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        variantExecutor.shutdownNow();
+    }
+
+    /**
+     * Loads the item to image index, then imports images still stored as {itemId}.{ext}
+     * in the legacy directory. This is the only place that probes the filesystem per item.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        for (MenuItemImageView view : menuItemRepository.findImageViews()) {
+            MediaType mediaType = MediaType.parseMediaType(view.getImageType());
+            describeBlob(view.getImageHash(), mediaType).ifPresentOrElse(
+                stored -> imagesByItem.put(view.getId(), stored),
+                () -> logger.warn("Image blob {} of menu item {} is missing", view.getImageHash(), view.getId()));
+        }
+
+        int imported = 0;
+        for (Long itemId : menuItemRepository.findIdsWithoutImage()) {
+            for (String extension : LEGACY_EXTENSIONS) {
+                Path legacy = legacyDir.resolve(itemId + extension);
+                if (!Files.isRegularFile(legacy)) {
+                    continue;
+                }
+                try (InputStream in = Files.newInputStream(legacy)) {
+                    StoredImage stored = store(in, mediaTypeOf(legacy.getFileName().toString()));
+                    menuItemRepository.updateImage(itemId, stored.hash(), stored.mediaType().toString());
+                    register(itemId, stored);
+                    imported++;
+                } catch (IOException e) {
+                    logger.warn("Failed to import legacy image {}", legacy, e);
+                }
+                break;
+            }
+        }
+        if (imported > 0) {
+            logger.info("Imported {} legacy menu images into the blob store", imported);
+        }
+    }
+
+    public Optional<MenuImage> findImage(Long itemId) {
+        StoredImage stored = imagesByItem.get(itemId);
+        if (stored == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new MenuImage(blobStore.path(stored.hash()), stored.mediaType(), stored.length(),
+            stored.storedAt(), "\"" + stored.hash() + "\""));
+    }
+
+    /**
+     * Returns the requested variant, or the original while the variant is still being produced.
+     * That stand-in is marked provisional and tagged so it never validates against the variant;
+     * a photo whose variants cannot be produced is served as its plain original.
+     */
+    public Optional<MenuImage> findImage(Long itemId, ImageVariant variant) {
+        StoredImage stored = imagesByItem.get(itemId);
+        if (stored == null) {
+            return Optional.empty();
+        }
+        String suffix = variantSuffix(variant);
+        Long length = variantLengths.get(stored.hash() + "." + suffix);
+        if (length == null) {
+            if (variantFailures.getIfPresent(stored.hash()) != null) {
+                return findImage(itemId);
+            }
+            scheduleVariants(stored.hash());
+            return Optional.of(new MenuImage(blobStore.path(stored.hash()), stored.mediaType(), stored.length(),
+                stored.storedAt(), "\"" + stored.hash() + "-" + variant.name().toLowerCase() + "-pending\"", true));
+        }
+        return Optional.of(new MenuImage(blobStore.derivedPath(stored.hash(), suffix), MediaType.IMAGE_JPEG, length,
+            stored.storedAt(), "\"" + stored.hash() + "-" + variant.name().toLowerCase() + "\""));
+    }
+
+    /**
+     * Returns the image bytes when the image is small enough to keep in memory, otherwise null.
+     * Callers must not modify the returned array.
+     */
+    public byte[] getHotBytes(MenuImage image) {
+        if (image.getLength() > hotMaxFileBytes) {
+            return null;
+        }
+        byte[] bytes = hotBytes.get(image.getPath(), this::read);
+        if (bytes == null || bytes.length != image.getLength()) {
+            hotBytes.invalidate(image.getPath());
+            return null;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the upload to the blob store. The caller records the returned hash on the
+     * menu item, calls {@link #register} once the item is committed and {@link #release}
+     * when its transaction finishes either way.
+     */
+    public StoredImage storeImage(MultipartFile image) {
+        try {
+            StoredImage stored = store(image, mediaTypeOf(image.getOriginalFilename()));
+            uncommittedBlobs.merge(stored.hash(), 1, Integer::sum);
+            if (!blobStore.contains(stored.hash())) {
+                // A rolled back item with the same bytes removed the blob before it was counted here
+                stored = store(image, stored.mediaType());
+            }
+            return stored;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save image", e);
+        }
+    }
+
+    /**
+     * Ends the pending use of a blob returned by {@link #storeImage}. When the item was rolled back
+     * and no other item, committed or pending, uses the same bytes, the blob is deleted.
+     */
+    public void release(StoredImage stored, boolean committed) {
+        uncommittedBlobs.compute(stored.hash(), (hash, pending) -> {
+            int remaining = pending == null ? 0 : pending - 1;
+            if (remaining > 0) {
+                return remaining;
+            }
+            if (!committed && !isReferenced(hash)) {
+                try {
+                    blobStore.delete(hash);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete unused image blob {}", hash, e);
+                }
+            }
+            return null;
+        });
+    }
+
+    public void register(Long itemId, StoredImage stored) {
+        imagesByItem.put(itemId, stored);
+        scheduleVariants(stored.hash());
+    }
+
+    /**
+     * Points an existing item at a blob already in the store, e.g. a completed chunked upload.
+     */
+    public void attach(Long itemId, String hash, MediaType mediaType) {
+        StoredImage stored = describeBlob(hash, mediaType)
+            .orElseThrow(() -> new IllegalStateException("Blob " + hash + " is not in the store"));
+        menuItemRepository.updateImage(itemId, hash, mediaType.toString());
+        register(itemId, stored);
+    }
+
+    /**
+     * Drops an item whose blob was found missing while serving it.
+     */
+    public void invalidate(Long itemId) {
+        StoredImage stored = imagesByItem.remove(itemId);
+        if (stored != null) {
+            hotBytes.invalidate(blobStore.path(stored.hash()));
+            for (ImageVariant variant : ImageVariant.values()) {
+                variantLengths.remove(stored.hash() + "." + variantSuffix(variant));
+                hotBytes.invalidate(blobStore.derivedPath(stored.hash(), variantSuffix(variant)));
+            }
+        }
+    }
+
+    private StoredImage store(MultipartFile image, MediaType mediaType) throws IOException {
+        try (InputStream in = image.getInputStream()) {
+            return store(in, mediaType);
+        }
+    }
+
+    private StoredImage store(InputStream in, MediaType mediaType) throws IOException {
+        String hash = blobStore.put(in);
+        return describeBlob(hash, mediaType)
+            .orElseThrow(() -> new IOException("Blob " + hash + " vanished after being stored"));
+    }
+
+    private boolean isReferenced(String hash) {
+        return imagesByItem.values().stream().anyMatch(stored -> stored.hash().equals(hash))
+            || menuItemRepository.existsByImageHash(hash);
+    }
+
+    private Optional<StoredImage> describeBlob(String hash, MediaType mediaType) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(blobStore.path(hash), BasicFileAttributes.class);
+            for (ImageVariant variant : ImageVariant.values()) {
+                Path derived = blobStore.derivedPath(hash, variantSuffix(variant));
+                if (Files.isRegularFile(derived)) {
+                    variantLengths.put(hash + "." + variantSuffix(variant), Files.size(derived));
+                }
+            }
+            return Optional.of(new StoredImage(hash, mediaType, attributes.size(), attributes.lastModifiedTime().toMillis()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read image attributes", e);
+        }
+    }
+
+    /**
+     * Queues variant generation for a photo without blocking the caller. When the queue
+     * is full the request is dropped; a later lookup of the missing variant queues it again.
+     */
+    private void scheduleVariants(String hash) {
+        if (variantFailures.getIfPresent(hash) != null || !variantsQueued.add(hash)) {
+            return;
+        }
+        try {
+            variantExecutor.execute(() -> {
+                try {
+                    generateVariants(hash);
+                } finally {
+                    variantsQueued.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            variantsQueued.remove(hash);
+            variantsRejected.increment();
+        }
+    }
+
+    private void generateVariants(String hash) {
+        try {
+            BufferedImage source = ImageIO.read(blobStore.path(hash).toFile());
+            if (source == null) {
+                // No ImageIO reader for this format (e.g. WebP); keep serving the original
+                variantFailures.put(hash, Boolean.TRUE);
+                variantsFailed.increment();
+                return;
+            }
+            for (ImageVariant variant : ImageVariant.values()) {
+                String suffix = variantSuffix(variant);
+                Path target = blobStore.derivedPath(hash, suffix);
+                if (!variantLengths.containsKey(hash + "." + suffix)) {
+                    ImageVariantEncoder.writeJpeg(ImageVariantEncoder.scale(source, variant.getMaxEdge()),
+                        variant.getQuality(), target);
+                    variantLengths.put(hash + "." + suffix, Files.size(target));
+                }
+            }
+            variantsGenerated.increment();
+        } catch (IOException | RuntimeException e) {
+            variantFailures.put(hash, Boolean.TRUE);
+            variantsFailed.increment();
+            logger.warn("Failed to generate image variants for blob {}", hash, e);
+        }
+    }
+
+    private static String variantSuffix(ImageVariant variant) {
+        return variant.name().toLowerCase() + ".jpg";
+    }
+
+    private byte[] read(Path path) {
+        try {
+            return Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read image", e);
+        }
+    }
+
+    private static MediaType mediaTypeOf(String filename) {
+        return MediaTypeFactory.getMediaType(filename)
+            .filter(type -> "image".equals(type.getType()))
+            .orElse(MediaType.IMAGE_JPEG);
+    }
+
+    /**
+     * Image as recorded in the index: its blob hash, type, size and when it was stored.
+     */
+    public record StoredImage(String hash, MediaType mediaType, long length, long storedAt) {}
+}
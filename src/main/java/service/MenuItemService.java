@@ -1,149 +1,258 @@
 package service;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
 import dto.MenuItemDto;
 import dto.ReviewDto;
+import dto.ReviewPageDto;
 import entity.MenuItem;
 import entity.Order;
+import entity.RatingSummary;
 import entity.Restaurant;
 import entity.Review;
 import entity.Role;
-import entity.User;
+import exception.DuplicateReviewException;
 import exception.ResourceNotFoundException;
 import exception.UnauthorizedActionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import repository.MenuItemRepository;
 import repository.OrderRepository;
+import repository.RatingAggregateRepository;
 import repository.RestaurantRepository;
 import repository.ReviewRepository;
-import repository.UserRepository;
+import security.JwtPrincipal;
 
 @Service
 public class MenuItemService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuItemService.class);
+    private static final int MAX_REVIEW_PAGE_SIZE = 100;
     
     private final MenuItemRepository menuItemRepository;
     private final RestaurantRepository restaurantRepository;
-    private final UserRepository userRepository;
     private final ReviewRepository reviewRepository;
     private final OrderRepository orderRepository;
+    private final CatalogSearchService catalogSearchService;
+    private final MenuImageService menuImageService;
+    private final RatingAggregateRepository ratingAggregateRepository;
+    private final RestaurantAccessService restaurantAccessService;
+
+    // Available menu per restaurant; concurrent misses for one restaurant share a single load
+    private final LoadingCache<Long, List<MenuItemDto>> availableMenuCache;
     
     public MenuItemService(MenuItemRepository menuItemRepository, 
                           RestaurantRepository restaurantRepository,
-                          UserRepository userRepository,
                           ReviewRepository reviewRepository,
-                          OrderRepository orderRepository) {
+                          OrderRepository orderRepository,
+                          CatalogSearchService catalogSearchService,
+                          MenuImageService menuImageService,
+                          RatingAggregateRepository ratingAggregateRepository,
+                          RestaurantAccessService restaurantAccessService,
+                          MeterRegistry meterRegistry,
+                          @Value("${menu.cache.max-restaurants:10000}") long maxRestaurants,
+                          @Value("${menu.cache.ttl-seconds:300}") long ttlSeconds) {
         this.menuItemRepository = menuItemRepository;
         this.restaurantRepository = restaurantRepository;
-        this.userRepository = userRepository;
         this.reviewRepository = reviewRepository;
         this.orderRepository = orderRepository;
+        this.catalogSearchService = catalogSearchService;
+        this.menuImageService = menuImageService;
+        this.ratingAggregateRepository = ratingAggregateRepository;
+        this.restaurantAccessService = restaurantAccessService;
+        this.availableMenuCache = Caffeine.newBuilder()
+            .maximumSize(maxRestaurants)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build(restaurantId -> List.copyOf(menuItemRepository.findAvailableDtosByRestaurantId(restaurantId)));
+        CaffeineCacheMetrics.monitor(meterRegistry, availableMenuCache, "menu.available");
     }
     
-    public MenuItem addMenuItem(MenuItem menuItem, Long restaurantId, Long ownerId, MultipartFile image) {
-        User owner = userRepository.findById(ownerId)
-            .orElseThrow(() -> new RuntimeException("Owner not found"));
-            
-        if (owner.getRole() != Role.HOTEL) {
+    @Transactional
+    public MenuItem addMenuItem(MenuItem menuItem, Long restaurantId, JwtPrincipal caller, MultipartFile image) {
+        if (!caller.hasRole(Role.HOTEL)) {
             throw new UnauthorizedActionException("Only HOTEL users can add menu items");
         }
+        restaurantAccessService.requireOwner(caller, restaurantId, "You can only add items to your own restaurant");
         
+        // Loaded for the restaurant name on the returned item
         Restaurant restaurant = restaurantRepository.findById(restaurantId)
             .orElseThrow(() -> new RuntimeException("Restaurant not found"));
-            
-        if (!restaurant.getHotelOwner().getId().equals(ownerId)) {
-            throw new UnauthorizedActionException("You can only add items to your own restaurant");
-        }
         
         menuItem.setRestaurant(restaurant);
-        MenuItem savedItem = menuItemRepository.save(menuItem);
-        
+        MenuImageService.StoredImage storedImage = null;
         if (image != null && !image.isEmpty()) {
-            saveImage(image, savedItem.getId());
+            // Content-addressed, so the image can be stored before the item has an id
+            storedImage = menuImageService.storeImage(image);
+            MenuImageService.StoredImage stored = storedImage;
+            // Runs on rollback too, so a blob no item ended up using is removed
+            afterCompletion(committed -> menuImageService.release(stored, committed));
+            menuItem.setImageHash(storedImage.hash());
+            menuItem.setImageType(storedImage.mediaType().toString());
         }
+        MenuItem savedItem = menuItemRepository.save(menuItem);
+        MenuItemDto indexed = toDto(savedItem);
+        MenuImageService.StoredImage registered = storedImage;
+        afterCommit(() -> {
+            availableMenuCache.invalidate(restaurantId);
+            catalogSearchService.indexMenuItem(indexed);
+            if (registered != null) {
+                menuImageService.register(indexed.getId(), registered);
+            }
+        });
         
         return savedItem;
     }
+
+    @Transactional
+    public MenuItem updateAvailability(Long itemId, JwtPrincipal caller, boolean available) {
+        MenuItem item = menuItemRepository.findById(itemId)
+            .orElseThrow(() -> new ResourceNotFoundException("Menu item not found"));
+
+        restaurantAccessService.requireOwner(caller, item.getRestaurant().getId(),
+            "You can only update items of your own restaurant");
+
+        item.setAvailable(available);
+        MenuItem savedItem = menuItemRepository.save(item);
+        MenuItemDto indexed = toDto(savedItem);
+        afterCommit(() -> {
+            availableMenuCache.invalidate(indexed.getRestaurantId());
+            catalogSearchService.indexMenuItem(indexed);
+        });
+        return savedItem;
+    }
+
+    /**
+     * Drops a restaurant's cached menu and refreshes the search index once the surrounding
+     * transaction commits, so a concurrent reload cannot cache the pre-commit state.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void afterCompletion(Consumer<Boolean> action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            action.accept(true);
+        }
+    }
+
+    public MenuItemDto toDto(MenuItem item) {
+        RatingSummary ratings = item.getRatings();
+        return new MenuItemDto(
+            item.getId(),
+            item.getName(),
+            item.getDescription(),
+            item.getPrice(),
+            item.getType(),
+            item.getAvailable(),
+            item.getRestaurant().getId(),
+            item.getRestaurant().getName(),
+            ratings.getRatingCount(),
+            ratings.getRatingSum(),
+            ratings.getOneStar(),
+            ratings.getTwoStars(),
+            ratings.getThreeStars(),
+            ratings.getFourStars(),
+            ratings.getFiveStars()
+        );
+    }
     
     public List<MenuItemDto> getAvailableMenuItems(Long restaurantId) {
-        return menuItemRepository.findByRestaurantIdAndAvailableTrue(restaurantId).stream()
-            .map(item -> new MenuItemDto(
-                item.getId(),
-                item.getName(),
-                item.getDescription(),
-                item.getPrice(),
-                item.getType(),
-                item.getAvailable(),
-                item.getRestaurant().getId(),
-                item.getRestaurant().getName()
-            ))
-            .collect(Collectors.toList());
+        return availableMenuCache.get(restaurantId);
     }
     
     public List<MenuItemDto> getAllMenuItems(Long restaurantId) {
-        return menuItemRepository.findByRestaurantId(restaurantId).stream()
-            .map(item -> new MenuItemDto(
-                item.getId(),
-                item.getName(),
-                item.getDescription(),
-                item.getPrice(),
-                item.getType(),
-                item.getAvailable(),
-                item.getRestaurant().getId(),
-                item.getRestaurant().getName()
-            ))
-            .collect(Collectors.toList());
+        return menuItemRepository.findDtosByRestaurantId(restaurantId);
     }
     
-    private void saveImage(MultipartFile image, Long itemId) {
-        try {
-            Path uploadDir = Paths.get("uploads/menu-images");
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
-            }
-            
-            String extension = getFileExtension(image.getOriginalFilename());
-            Path imagePath = uploadDir.resolve(itemId + extension);
-            Files.copy(image.getInputStream(), imagePath, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to save image", e);
+    // Reviews written before the review-to-item link existed are linked once, at startup
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    public void linkExistingReviews() {
+        int linked = reviewRepository.linkUnlinkedReviews();
+        if (linked > 0) {
+            logger.info("Linked {} existing reviews to their menu items", linked);
         }
     }
-    
-    private String getFileExtension(String filename) {
-        if (filename != null && filename.contains(".")) {
-            return filename.substring(filename.lastIndexOf("."));
+
+    /**
+     * Saves the review, links it to the ordered items and folds it into the restaurant's and the ordered items' rating aggregates
+     * in the same transaction. An order can be reviewed once; the unique order_id settles two concurrent attempts
+     * before either touches the aggregates.
+     */
+    @Transactional
+    public Review addReview(Long orderId, JwtPrincipal caller, Integer rating, String comment) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5.");
         }
-        return ".jpg";
-    }
-    
-    public Review addReview(Long orderId, Long userId, Integer rating, String comment) {
+        
         Order order = orderRepository.findById(orderId)
             .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
             
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-            
-        if (!order.getUser().getId().equals(userId)) {
+        if (!order.getUser().getId().equals(caller.userId())) {
             throw new UnauthorizedActionException("You can only review your own orders");
         }
+        if (reviewRepository.existsByOrderId(orderId)) {
+            throw new DuplicateReviewException("This order has already been reviewed");
+        }
         
         Review review = new Review();
         review.setOrder(order);
-        review.setUser(user);
+        // The order's customer is the caller, so its reference can be reused without loading the user
+        review.setUser(order.getUser());
         review.setRestaurant(order.getRestaurant());
         review.setRating(rating);
         review.setComment(comment);
         
-        return reviewRepository.save(review);
+        Review savedReview;
+        try {
+            savedReview = reviewRepository.saveAndFlush(review);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateReviewException("This order has already been reviewed");
+        }
+        reviewRepository.linkMenuItems(savedReview.getId());
+        ratingAggregateRepository.addRestaurantRating(order.getRestaurant().getId(), rating);
+        ratingAggregateRepository.addMenuItemRatingsForOrder(orderId, rating);
+        return savedReview;
     }
     
     public List<Review> getRestaurantReviews(Long restaurantId) {
@@ -155,30 +264,41 @@ public class MenuItemService {
     }
     
     public List<ReviewDto> getRestaurantReviewsDto(Long restaurantId) {
-        return reviewRepository.findByRestaurantId(restaurantId).stream()
-            .map(review -> new ReviewDto(
-                review.getId(),
-                review.getRating(),
-                review.getComment(),
-                review.getCreatedAt(),
-                review.getUser() != null ? review.getUser().getName() : "Anonymous",
-                review.getRestaurant() != null ? review.getRestaurant().getName() : "Unknown Restaurant",
-                review.getOrder() != null ? review.getOrder().getId() : null
-            ))
-            .collect(Collectors.toList());
+        return reviewRepository.findDtosByRestaurantId(restaurantId);
     }
     
     public List<ReviewDto> getItemReviewsDto(Long itemId) {
-        return reviewRepository.findByMenuItemId(itemId).stream()
-            .map(review -> new ReviewDto(
-                review.getId(),
-                review.getRating(),
-                review.getComment(),
-                review.getCreatedAt(),
-                review.getUser() != null ? review.getUser().getName() : "Anonymous",
-                review.getRestaurant() != null ? review.getRestaurant().getName() : "Unknown Restaurant",
-                review.getOrder() != null ? review.getOrder().getId() : null
-            ))
-            .collect(Collectors.toList());
+        return reviewRepository.findDtosByMenuItemId(itemId);
+    }
+
+    /**
+     * Keyset page of a restaurant's reviews, newest first. Pass the returned nextCursor for the next older page.
+     */
+    public ReviewPageDto getRestaurantReviewsDto(Long restaurantId, String cursor, int size) {
+        return reviewPage(cursor, size,
+            limit -> reviewRepository.findRestaurantPage(restaurantId, limit),
+            (key, limit) -> reviewRepository.findRestaurantPageBefore(restaurantId, key.createdAt(), key.id(), limit));
+    }
+
+    /**
+     * Keyset page of the reviews of orders containing the item, newest first, with the same cursor semantics.
+     */
+    public ReviewPageDto getItemReviewsDto(Long itemId, String cursor, int size) {
+        return reviewPage(cursor, size,
+            limit -> reviewRepository.findItemPage(itemId, limit),
+            (key, limit) -> reviewRepository.findItemPageBefore(itemId, key.createdAt(), key.id(), limit));
+    }
+
+    private ReviewPageDto reviewPage(String cursor, int size,
+                                     Function<Pageable, List<ReviewDto>> first,
+                                     BiFunction<PageCursor, Pageable, List<ReviewDto>> before) {
+        Pageable limit = PageRequest.of(0, Math.max(1, Math.min(size, MAX_REVIEW_PAGE_SIZE)));
+        List<ReviewDto> reviews = cursor == null ? first.apply(limit) : before.apply(PageCursor.decode(cursor, "review"), limit);
+        String nextCursor = null;
+        if (reviews.size() == limit.getPageSize()) {
+            ReviewDto last = reviews.get(reviews.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new ReviewPageDto(reviews, nextCursor);
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import dto.NearbyRestaurantDto;
+import dto.RestaurantDto;
+import entity.Address;
+import exception.ResourceNotFoundException;
+import exception.UnauthorizedActionException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import repository.AddressRepository;
+import repository.RestaurantRepository;
+import security.JwtPrincipal;
+
+/**
+ * "Restaurants near me", answered from an in-memory grid over restaurant coordinates.
+ * The grid is loaded once the application is ready and kept current by RestaurantService.
+ * Restaurants without coordinates are not indexed.
+ */
+@Service
+public class NearbyRestaurantService {
+
+    private final RestaurantRepository restaurantRepository;
+    private final AddressRepository addressRepository;
+    private final GeoGridIndex<RestaurantDto> restaurantGrid;
+    private final double maxRadiusKm;
+    private final int maxResults;
+    private final Timer nearbyTimer;
+
+    public NearbyRestaurantService(RestaurantRepository restaurantRepository,
+                                   AddressRepository addressRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${restaurants.nearby.cell-degrees:0.05}") double cellDegrees,
+                                   @Value("${restaurants.nearby.max-radius-km:50}") double maxRadiusKm,
+                                   @Value("${restaurants.nearby.max-results:50}") int maxResults) {
+        this.restaurantRepository = restaurantRepository;
+        this.addressRepository = addressRepository;
+        this.restaurantGrid = new GeoGridIndex<>(cellDegrees);
+        this.maxRadiusKm = maxRadiusKm;
+        this.maxResults = maxResults;
+        this.nearbyTimer = Timer.builder("restaurants.nearby")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("restaurants.nearby.indexed", restaurantGrid, GeoGridIndex::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        restaurantRepository.findAllDtos().forEach(this::indexRestaurant);
+    }
+
+    public void indexRestaurant(RestaurantDto restaurant) {
+        if (restaurant.getLatitude() != null && restaurant.getLongitude() != null) {
+            restaurantGrid.put(restaurant.getId(), restaurant.getLatitude(), restaurant.getLongitude(), restaurant);
+        } else {
+            restaurantGrid.remove(restaurant.getId());
+        }
+    }
+
+    /**
+     * Restaurants around a point, nearest first. With a radius, returns those within it (at most k);
+     * without one, returns the k nearest within the configured maximum radius.
+     */
+    public List<NearbyRestaurantDto> findNearby(double latitude, double longitude, Double radiusKm, Integer k) {
+        GeoGridIndex.checkCoordinates(latitude, longitude);
+        if (radiusKm != null && !(radiusKm > 0 && radiusKm <= maxRadiusKm)) {
+            throw new IllegalArgumentException("Radius must be greater than 0 and at most " + maxRadiusKm + " km.");
+        }
+        int limit = k == null ? maxResults : Math.max(1, Math.min(k, maxResults));
+        return nearbyTimer.record(() -> {
+            List<GeoGridIndex.Hit<RestaurantDto>> hits = radiusKm != null
+                ? restaurantGrid.withinRadius(latitude, longitude, radiusKm, limit)
+                : restaurantGrid.nearest(latitude, longitude, limit, maxRadiusKm);
+            return hits.stream()
+                .map(hit -> new NearbyRestaurantDto(hit.value(), hit.distanceKm()))
+                .toList();
+        });
+    }
+
+    /**
+     * Same as {@link #findNearby} around one of the caller's saved addresses.
+     */
+    public List<NearbyRestaurantDto> findNearAddress(JwtPrincipal caller, Long addressId, Double radiusKm, Integer k) {
+        if (caller == null) {
+            throw new UnauthorizedActionException("Sign in to search near a saved address");
+        }
+        Address address = addressRepository.findById(addressId)
+            .orElseThrow(() -> new ResourceNotFoundException("Address not found"));
+        if (!address.getUser().getId().equals(caller.userId())) {
+            throw new UnauthorizedActionException("You can only search near your own addresses");
+        }
+        if (address.getLatitude() == null || address.getLongitude() == null) {
+            throw new IllegalArgumentException("This address has no coordinates.");
+        }
+        return findNearby(address.getLatitude(), address.getLongitude(), radiusKm, k);
+    }
+}
@@ -0,0 +1,361 @@
+package service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import dto.OrderStatusDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fan-out hub for order Server-Sent Events. Subscribers are grouped per restaurant
+ * and per customer, so a status change is only written to the connections that care.
+ * Idle connections are plain async servlet responses and hold no request thread.
+ * <p>
+ * Publishing only appends to a per-subscriber queue; the writes happen on a small
+ * delivery pool, so a slow client never holds up the thread that changed the order
+ * (an HTTP request or the intake writer). A subscriber whose queue overflows is
+ * disconnected and catches up by reconnecting.
+ * <p>
+ * A bounded replay buffer lets reconnecting clients resume from Last-Event-ID. Event ids
+ * are {bootEpoch}-{sequence}; an id from another process, from the future or older than
+ * the buffer cannot be resumed, and the client is sent a "resync" event instead so it
+ * reloads its order list.
+ */
+@Service
+public class OrderEventHub {
+
+    static final String EVENT_NAME = "order-status";
+    static final String RESYNC_EVENT_NAME = "resync";
+
+    private final Map<Long, Set<Subscriber>> restaurantSubscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> customerSubscribers = new ConcurrentHashMap<>();
+    private final String bootEpoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong eventIds = new AtomicLong();
+    private final Deque<Event> replayBuffer = new ArrayDeque<>();
+    private final int replaySize;
+    private final int subscriberQueueSize;
+    private final long emitterTimeoutMillis;
+    private final ScheduledExecutorService heartbeat;
+    private final ThreadPoolExecutor delivery;
+    private final Counter overflowDisconnects;
+
+    public OrderEventHub(MeterRegistry meterRegistry,
+                         @Value("${orders.events.replay-size:1000}") int replaySize,
+                         @Value("${orders.events.timeout-minutes:30}") long timeoutMinutes,
+                         @Value("${orders.events.heartbeat-seconds:15}") long heartbeatSeconds,
+                         @Value("${orders.events.delivery-threads:4}") int deliveryThreads,
+                         @Value("${orders.events.subscriber-queue-size:256}") int subscriberQueueSize) {
+        this.replaySize = replaySize;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.emitterTimeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "order-events-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        // At most one queued drain task per subscriber, so the task queue is bounded by the connection count
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.delivery = new ThreadPoolExecutor(deliveryThreads, deliveryThreads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "order-events-delivery-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        Gauge.builder("orders.events.subscribers", this, OrderEventHub::subscriberCount).register(meterRegistry);
+        Gauge.builder("orders.events.delivery.queue.depth", delivery, e -> e.getQueue().size()).register(meterRegistry);
+        this.overflowDisconnects = meterRegistry.counter("orders.events.overflow.disconnects");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        delivery.shutdownNow();
+    }
+
+    public SseEmitter subscribeRestaurant(Long restaurantId, String lastEventId) {
+        return subscribe(restaurantSubscribers, restaurantId, lastEventId, true);
+    }
+
+    public SseEmitter subscribeCustomer(Long userId, String lastEventId) {
+        return subscribe(customerSubscribers, userId, lastEventId, false);
+    }
+
+    /**
+     * Queues order events for delivery once the transaction that produced them has committed.
+     * Events published outside a transaction (the intake writer) are queued immediately.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatus(OrderStatusDto status) {
+        Event event;
+        synchronized (replayBuffer) {
+            // Numbered under the lock so the buffer stays in id order
+            event = new Event(eventIds.incrementAndGet(), status);
+            replayBuffer.addLast(event);
+            if (replayBuffer.size() > replaySize) {
+                replayBuffer.removeFirst();
+            }
+        }
+        enqueueAll(restaurantSubscribers.get(status.getRestaurantId()), event);
+        enqueueAll(customerSubscribers.get(status.getUserId()), event);
+    }
+
+    /**
+     * Creates the emitter for a new subscription; tests substitute one that records what is sent.
+     */
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private SseEmitter subscribe(Map<Long, Set<Subscriber>> subscribers, Long key, String lastEventId, boolean byRestaurant) {
+        SseEmitter emitter = createEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, subscribers, key);
+        emitter.onCompletion(() -> discard(subscriber));
+        emitter.onTimeout(() -> discard(subscriber));
+        emitter.onError(ex -> discard(subscriber));
+
+        // Register before replaying so nothing published in between is lost; clients dedupe by id
+        subscribers.compute(key, (k, group) -> {
+            Set<Subscriber> joined = group != null ? group : ConcurrentHashMap.newKeySet();
+            joined.add(subscriber);
+            return joined;
+        });
+        if (lastEventId != null) {
+            List<Event> missed = missedSince(lastEventId);
+            if (missed == null) {
+                enqueue(subscriber, Event.RESYNC);
+            } else {
+                for (Event event : missed) {
+                    Long owner = byRestaurant ? event.status.getRestaurantId() : event.status.getUserId();
+                    if (key.equals(owner)) {
+                        enqueue(subscriber, event);
+                    }
+                }
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Buffered events after lastEventId, or null if the id cannot be resumed from this buffer.
+     */
+    private List<Event> missedSince(String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash <= 0 || !lastEventId.substring(0, dash).equals(bootEpoch)) {
+            return null;
+        }
+        long lastSeq;
+        try {
+            lastSeq = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        synchronized (replayBuffer) {
+            if (lastSeq > eventIds.get() || lastSeq < 0) {
+                return null;
+            }
+            // Events between lastSeq and the oldest buffered one have been evicted
+            long oldest = replayBuffer.isEmpty() ? eventIds.get() + 1 : replayBuffer.peekFirst().seq;
+            if (oldest > lastSeq + 1) {
+                return null;
+            }
+            List<Event> missed = new ArrayList<>();
+            for (Event event : replayBuffer) {
+                if (event.seq > lastSeq) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        }
+    }
+
+    private void enqueueAll(Set<Subscriber> group, Event event) {
+        if (group == null) {
+            return;
+        }
+        for (Subscriber subscriber : group) {
+            enqueue(subscriber, event);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Event event) {
+        boolean overflow = false;
+        boolean schedule = false;
+        synchronized (subscriber.pending) {
+            if (subscriber.closed) {
+                return;
+            }
+            if (event == Event.HEARTBEAT && !subscriber.pending.isEmpty()) {
+                // Queued events keep the connection alive just as well
+                return;
+            }
+            if (subscriber.pending.size() >= subscriberQueueSize) {
+                overflow = true;
+            } else {
+                subscriber.pending.addLast(event);
+                if (!subscriber.draining) {
+                    subscriber.draining = true;
+                    schedule = true;
+                }
+            }
+        }
+        if (overflow) {
+            overflowDisconnects.increment();
+            close(subscriber, new IOException("Subscriber fell too far behind"));
+        } else if (schedule) {
+            try {
+                delivery.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException ex) {
+                close(subscriber, ex);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Event event;
+            synchronized (subscriber.pending) {
+                event = subscriber.pending.pollFirst();
+                if (event == null || subscriber.closed) {
+                    subscriber.draining = false;
+                    return;
+                }
+            }
+            if (!send(subscriber.emitter, event)) {
+                close(subscriber, null);
+                return;
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, Event event) {
+        try {
+            if (event == Event.HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else if (event == Event.RESYNC) {
+                emitter.send(SseEmitter.event().name(RESYNC_EVENT_NAME).data("resync"));
+            } else {
+                emitter.send(SseEmitter.event()
+                    .id(bootEpoch + "-" + event.seq)
+                    .name(EVENT_NAME)
+                    .data(event.status));
+            }
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Unregisters the subscriber straight away (the emitter callbacks only fire once the
+     * container notices) and ends its response.
+     */
+    private void close(Subscriber subscriber, Throwable cause) {
+        if (!discard(subscriber)) {
+            return;
+        }
+        if (cause != null) {
+            subscriber.emitter.completeWithError(cause);
+        } else {
+            subscriber.emitter.complete();
+        }
+    }
+
+    /**
+     * Stops delivery to the subscriber and unregisters it; returns false if it was already closed.
+     */
+    private boolean discard(Subscriber subscriber) {
+        synchronized (subscriber.pending) {
+            if (subscriber.closed) {
+                return false;
+            }
+            subscriber.closed = true;
+            subscriber.pending.clear();
+        }
+        unregister(subscriber);
+        return true;
+    }
+
+    private void unregister(Subscriber subscriber) {
+        // Remove inside compute so an emptied group is never dropped while being joined
+        subscriber.group.computeIfPresent(subscriber.key, (k, group) -> {
+            group.remove(subscriber);
+            return group.isEmpty() ? null : group;
+        });
+    }
+
+    private void sendHeartbeats() {
+        heartbeat(restaurantSubscribers);
+        heartbeat(customerSubscribers);
+    }
+
+    private void heartbeat(Map<Long, Set<Subscriber>> subscribers) {
+        for (Set<Subscriber> group : subscribers.values()) {
+            enqueueAll(group, Event.HEARTBEAT);
+        }
+    }
+
+    private double subscriberCount() {
+        int count = 0;
+        for (Set<Subscriber> group : restaurantSubscribers.values()) {
+            count += group.size();
+        }
+        for (Set<Subscriber> group : customerSubscribers.values()) {
+            count += group.size();
+        }
+        return count;
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Map<Long, Set<Subscriber>> group;
+        final Long key;
+        // Guards draining and closed as well
+        final Deque<Event> pending = new ArrayDeque<>();
+        boolean draining;
+        boolean closed;
+
+        Subscriber(SseEmitter emitter, Map<Long, Set<Subscriber>> group, Long key) {
+            this.emitter = emitter;
+            this.group = group;
+            this.key = key;
+        }
+    }
+
+    private static final class Event {
+        static final Event HEARTBEAT = new Event(-1, null);
+        static final Event RESYNC = new Event(-1, null);
+
+        final long seq;
+        final OrderStatusDto status;
+
+        Event(long seq, OrderStatusDto status) {
+            this.seq = seq;
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import dto.OrderDto;
+import dto.OrderRequestDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import security.JwtPrincipal;
+
+/**
+ * Deduplicates order placement by client-supplied Idempotency-Key.
+ * A bounded, expiring in-memory cache answers retries and collapses concurrent
+ * requests for the same key; the order_idempotency_keys table backs it across
+ * restarts and instances, and also catches a duplicate whose entry was evicted.
+ */
+@Service
+public class OrderIdempotencyService {
+
+    private final OrderService orderService;
+
+    // userId:key -> outcome of the first request carrying it; incomplete while that request runs
+    private final Cache<String, CompletableFuture<OrderDto>> entries;
+
+    @Autowired
+    public OrderIdempotencyService(OrderService orderService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${orders.idempotency.max-entries:10000}") int maxEntries,
+                                   @Value("${orders.idempotency.ttl-minutes:1440}") long ttlMinutes) {
+        this(orderService, meterRegistry, maxEntries, ttlMinutes, Ticker.systemTicker());
+    }
+
+    OrderIdempotencyService(OrderService orderService, MeterRegistry meterRegistry,
+                            int maxEntries, long ttlMinutes, Ticker ticker) {
+        this.orderService = orderService;
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .ticker(ticker)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "orders.idempotency");
+    }
+
+    public OrderDto placeOrder(String idempotencyKey, OrderRequestDto orderRequestDto, JwtPrincipal caller, Long restaurantId) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 100) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and 100 characters.");
+        }
+        String cacheKey = caller.userId() + ":" + idempotencyKey;
+
+        CompletableFuture<OrderDto> mine = new CompletableFuture<>();
+        CompletableFuture<OrderDto> existing = entries.asMap().putIfAbsent(cacheKey, mine);
+        if (existing == null) {
+            return placeAndPublish(cacheKey, mine, idempotencyKey, orderRequestDto, caller, restaurantId);
+        }
+        // A retry or a concurrent duplicate: wait for the first request's outcome
+        return await(existing);
+    }
+
+    private OrderDto placeAndPublish(String cacheKey, CompletableFuture<OrderDto> mine, String idempotencyKey,
+                                     OrderRequestDto orderRequestDto, JwtPrincipal caller, Long restaurantId) {
+        try {
+            OrderDto order = orderService.findOrderByIdempotencyKey(caller.userId(), idempotencyKey)
+                .orElseGet(() -> placeOnce(idempotencyKey, orderRequestDto, caller, restaurantId));
+            mine.complete(order);
+            return order;
+        } catch (RuntimeException ex) {
+            // Failed attempts are not remembered, so the client may retry with the same key
+            entries.asMap().remove(cacheKey, mine);
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private OrderDto placeOnce(String idempotencyKey, OrderRequestDto orderRequestDto, JwtPrincipal caller, Long restaurantId) {
+        try {
+            return orderService.convertToDto(
+                orderService.placeOrder(orderRequestDto, caller, restaurantId, idempotencyKey));
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance committed the same key first; return its order
+            return orderService.findOrderByIdempotencyKey(caller.userId(), idempotencyKey).orElseThrow(() -> ex);
+        }
+    }
+
+    private OrderDto await(CompletableFuture<OrderDto> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Number of remembered keys once pending evictions have run.
+     */
+    long cachedKeys() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+}
@@ -0,0 +1,252 @@
+package service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import dto.OrderIntakeDto;
+import dto.OrderRequestDto;
+import entity.Order;
+import exception.ResourceNotFoundException;
+import exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import repository.OrderBatchRepository;
+import repository.OrderRepository;
+import security.JwtPrincipal;
+
+/**
+ * Asynchronous order intake. Carts are validated and priced on the request thread,
+ * then handed to a bounded queue; a single writer thread drains the queue and
+ * inserts whole batches through {@link OrderBatchRepository}. On shutdown intake
+ * stops accepting carts and the writer empties the queue before it exits.
+ */
+@Service
+public class OrderIntakeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final OrderBatchRepository orderBatchRepository;
+    private final BlockingQueue<Order> queue;
+    private final int batchSize;
+    private final long shutdownTimeoutMillis;
+
+    // Handles are {boot time}-{random}-{sequence}: unique across restarts and instances, one atomic increment each
+    private final String handlePrefix = Long.toString(System.currentTimeMillis(), 36)
+        + "-" + Integer.toHexString(ThreadLocalRandom.current().nextInt() | 0x10000000) + "-";
+    private final AtomicLong handleSequence = new AtomicLong();
+
+    // Handles accepted but not yet written, and a bounded log of handles whose write failed.
+    // Both keep the submitting user, as handles are sequential and only the submitter may resolve one.
+    private final Map<String, Order> pending = new ConcurrentHashMap<>();
+    private final Map<String, Failure> failed = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Failure> eldest) {
+            return size() > 10_000;
+        }
+    });
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary batchSizeSummary;
+
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public OrderIntakeService(OrderService orderService,
+                              OrderRepository orderRepository,
+                              OrderBatchRepository orderBatchRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${orders.intake.queue-capacity:5000}") int queueCapacity,
+                              @Value("${orders.intake.batch-size:200}") int batchSize,
+                              @Value("${orders.intake.shutdown-timeout-seconds:30}") long shutdownTimeoutSeconds) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.orderBatchRepository = orderBatchRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.shutdownTimeoutMillis = TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds);
+
+        Gauge.builder("orders.intake.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("orders.intake.queue.remaining", queue, BlockingQueue::remainingCapacity).register(meterRegistry);
+        this.acceptedCounter = meterRegistry.counter("orders.intake.accepted");
+        this.rejectedCounter = meterRegistry.counter("orders.intake.rejected");
+        this.writtenCounter = meterRegistry.counter("orders.intake.written");
+        this.failedCounter = meterRegistry.counter("orders.intake.failed");
+        this.batchSizeSummary = meterRegistry.summary("orders.intake.batch.size");
+    }
+
+    @PostConstruct
+    void startWriter() {
+        writer = new Thread(this::drainLoop, "order-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops intake and lets the writer drain the queue. Orders that raced the stop into the
+     * queue are written here once the writer is gone; any still unwritten are logged by handle.
+     */
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        accepting = false;
+        running = false;
+        writer.join(shutdownTimeoutMillis);
+        if (writer.isAlive()) {
+            writer.interrupt();
+            writer.join(1_000);
+        }
+        if (!writer.isAlive()) {
+            List<Order> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                writeSafely(batch);
+            }
+        }
+        if (!pending.isEmpty()) {
+            logger.error("ORDER_INTAKE_UNWRITTEN_AT_SHUTDOWN - count={} handles={}", pending.size(), pending.keySet());
+        }
+    }
+
+    /**
+     * Validates and prices the cart, then queues it for the writer.
+     * Fails fast with 503 when the queue is full instead of blocking the request thread.
+     */
+    public OrderIntakeDto submit(OrderRequestDto orderRequestDto, JwtPrincipal caller, Long restaurantId) {
+        if (!accepting) {
+            throw new ServiceOverloadedException("Order intake is shutting down, please retry shortly.");
+        }
+        Order order = orderService.buildOrder(orderRequestDto, caller, restaurantId);
+        String handle = handlePrefix + Long.toString(handleSequence.incrementAndGet(), 36);
+        order.setIntakeHandle(handle);
+
+        pending.put(handle, order);
+        if (!queue.offer(order)) {
+            pending.remove(handle);
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException("Order intake is at capacity, please retry shortly.");
+        }
+        // Shutdown began after the check above; if the final drain has not taken the order, withdraw it
+        if (!accepting && queue.remove(order)) {
+            pending.remove(handle);
+            rejectedCounter.increment();
+            throw new ServiceOverloadedException("Order intake is shutting down, please retry shortly.");
+        }
+        acceptedCounter.increment();
+        return new OrderIntakeDto(handle, "QUEUED", null, null);
+    }
+
+    /**
+     * Resolves a handle for the user who submitted it; anyone else is refused.
+     */
+    public OrderIntakeDto getStatus(String handle, JwtPrincipal caller) {
+        Order queued = pending.get(handle);
+        if (queued != null) {
+            caller.actingAs(queued.getUser().getId());
+            return new OrderIntakeDto(handle, "QUEUED", null, null);
+        }
+        Failure failure = failed.get(handle);
+        if (failure != null) {
+            caller.actingAs(failure.userId());
+            return new OrderIntakeDto(handle, "FAILED", null, failure.message());
+        }
+        Order order = orderRepository.findByIntakeHandle(handle)
+            .orElseThrow(() -> new ResourceNotFoundException("Order handle not found."));
+        caller.actingAs(order.getUser().getId());
+        return new OrderIntakeDto(handle, "WRITTEN", order.getId(), null);
+    }
+
+    // Runs until stopped and the queue is empty, so every accepted order is written before exit
+    private void drainLoop() {
+        List<Order> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            Order first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // Only an overrunning shutdown interrupts; stopWriter reports what is left
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeSafely(batch);
+            }
+        }
+    }
+
+    // The writer is the only consumer, so nothing thrown by a batch may end it
+    private void writeSafely(List<Order> batch) {
+        try {
+            write(batch);
+        } catch (Throwable t) {
+            logger.error("ORDER_INTAKE_WRITER_ERROR - size={}", batch.size(), t);
+            for (Order order : batch) {
+                // Recorded as failed before it leaves pending, so a status poll never finds neither
+                if (pending.containsKey(order.getIntakeHandle())) {
+                    failedCounter.increment();
+                    failed.put(order.getIntakeHandle(), new Failure(order.getUser().getId(), "Order could not be saved."));
+                    pending.remove(order.getIntakeHandle());
+                }
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void write(List<Order> batch) {
+        batchSizeSummary.record(batch.size());
+        // Stamped here rather than at submit so created_at follows write order, which keyset paging relies on
+        LocalDateTime writtenAt = LocalDateTime.now();
+        batch.forEach(order -> order.setCreatedAt(writtenAt));
+        try {
+            orderBatchRepository.insertAll(batch);
+            batch.forEach(this::markWritten);
+        } catch (RuntimeException batchFailure) {
+            // Isolate the bad order(s) so one invalid row does not sink the whole batch
+            logger.warn("ORDER_INTAKE_BATCH_FAILED - size={} error={}", batch.size(), batchFailure.getMessage());
+            for (Order order : batch) {
+                try {
+                    orderBatchRepository.insertAll(List.of(order));
+                    markWritten(order);
+                } catch (RuntimeException ex) {
+                    failedCounter.increment();
+                    failed.put(order.getIntakeHandle(), new Failure(order.getUser().getId(), "Order could not be saved."));
+                    pending.remove(order.getIntakeHandle());
+                    logger.error("ORDER_INTAKE_WRITE_FAILED - handle={} error={}", order.getIntakeHandle(), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private record Failure(Long userId, String message) {}
+
+    private void markWritten(Order order) {
+        writtenCounter.increment();
+        pending.remove(order.getIntakeHandle());
+        orderService.publishPlaced(order);
+    }
+}
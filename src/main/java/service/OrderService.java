@@ -1,67 +1,128 @@
 package service;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import dto.OrderDto;
+import dto.OrderPageDto;
 import dto.OrderRequestDto;
+import dto.OrderStatusDto;
 import entity.MenuItem;
 import entity.Order;
+import entity.OrderIdempotencyKey;
 import entity.OrderItem;
 import entity.OrderStatus;
 import entity.Restaurant;
 import entity.Role;
-import entity.User;
+import exception.OrderStatusConflictException;
 import exception.ResourceNotFoundException;
 import exception.UnauthorizedActionException;
 import repository.MenuItemRepository;
+import repository.OrderIdempotencyKeyRepository;
+import repository.OrderItemRepository;
+import repository.OrderItemView;
 import repository.OrderRepository;
+import repository.OrderStatusView;
 import repository.RestaurantRepository;
+import security.JwtPrincipal;
 
 @Service
 public class OrderService {
 
+ // Legal next states for each status; terminal states have none
+ private static final Map<OrderStatus, Set<OrderStatus>> ALLOWED_TRANSITIONS = new EnumMap<>(OrderStatus.class);
+ static {
+     ALLOWED_TRANSITIONS.put(OrderStatus.PLACED, EnumSet.of(OrderStatus.PREPARING, OrderStatus.CANCELLED));
+     ALLOWED_TRANSITIONS.put(OrderStatus.PREPARING, EnumSet.of(OrderStatus.OUT_FOR_DELIVERY, OrderStatus.CANCELLED));
+     ALLOWED_TRANSITIONS.put(OrderStatus.OUT_FOR_DELIVERY, EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED));
+     ALLOWED_TRANSITIONS.put(OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class));
+     ALLOWED_TRANSITIONS.put(OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+ }
+
+ private static final int MAX_PAGE_SIZE = 100;
+
  private final OrderRepository orderRepository;
  private final UserService userService;
+ private final AddressService addressService;
  private final RestaurantRepository restaurantRepository;
  private final MenuItemRepository menuItemRepository;
+ private final OrderItemRepository orderItemRepository;
+ private final OrderIdempotencyKeyRepository idempotencyKeyRepository;
+ private final ApplicationEventPublisher eventPublisher;
 
- public OrderService(OrderRepository orderRepository, UserService userService, 
-                    RestaurantRepository restaurantRepository, MenuItemRepository menuItemRepository) {
+ public OrderService(OrderRepository orderRepository, UserService userService, AddressService addressService,
+                    RestaurantRepository restaurantRepository, MenuItemRepository menuItemRepository,
+                    OrderItemRepository orderItemRepository, OrderIdempotencyKeyRepository idempotencyKeyRepository,
+                    ApplicationEventPublisher eventPublisher) {
      this.orderRepository = orderRepository;
      this.userService = userService;
+     this.addressService = addressService;
      this.restaurantRepository = restaurantRepository;
      this.menuItemRepository = menuItemRepository;
+     this.orderItemRepository = orderItemRepository;
+     this.idempotencyKeyRepository = idempotencyKeyRepository;
+     this.eventPublisher = eventPublisher;
  }
 
  /**
   * Places a new order. MUST be atomic!
   */
  @Transactional
- public Order placeOrder(OrderRequestDto orderRequestDto, Long userId, Long restaurantId) {
-     // Validate user exists and has USER role
-     User customer = userService.getUserById(userId);
-     if (customer.getRole() != Role.USER) {
+ public Order placeOrder(OrderRequestDto orderRequestDto, JwtPrincipal caller, Long restaurantId) {
+     Order savedOrder = orderRepository.save(buildOrder(orderRequestDto, caller, restaurantId));
+     publishPlaced(savedOrder);
+     return savedOrder;
+ }
+
+ /**
+  * Announces a newly written order to live order streams (delivered after commit).
+  */
+ public void publishPlaced(Order order) {
+     eventPublisher.publishEvent(new OrderStatusDto(order.getId(), order.getUser().getId(),
+             order.getRestaurant().getId(), null, order.getStatus().toString()));
+ }
+
+ /**
+  * Validates the cart and prices it into an unsaved Order graph.
+  * Shared by the synchronous path and the asynchronous intake pipeline.
+  */
+ public Order buildOrder(OrderRequestDto orderRequestDto, JwtPrincipal caller, Long restaurantId) {
+     // The role comes from the verified token
+     if (!caller.hasRole(Role.USER)) {
          throw new UnauthorizedActionException("Only users with USER role can place orders.");
      }
+     // Cached identity, for the customer name shown on the placed order
+     UserIdentity customer = userService.getUserIdentity(caller.userId());
      
      // Validate restaurant exists
      Restaurant restaurant = restaurantRepository.findById(restaurantId)
              .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found."));
      
      Order newOrder = new Order();
-     newOrder.setUser(customer);
+     newOrder.setUser(customer.toReference());
      newOrder.setRestaurant(restaurant);
-     newOrder.setDeliveryAddress(orderRequestDto.getDeliveryAddress());
+     newOrder.setDeliveryAddress(deliveryAddressFor(orderRequestDto, caller.userId()));
      
-     // Process items from the DTO
+     // Resolve every line item in one query, restricted to this restaurant
+     Map<Long, MenuItem> menuItems = loadOrderableItems(orderRequestDto, restaurantId);
+
      double total = 0.0;
      for (OrderRequestDto.OrderItemDto itemDto : orderRequestDto.getItems()) {
-         MenuItem menuItem = menuItemRepository.findById(itemDto.getMenuItemId())
-             .orElseThrow(() -> new ResourceNotFoundException("Menu item not found"));
+         MenuItem menuItem = menuItems.get(itemDto.getMenuItemId());
              
          OrderItem orderItem = new OrderItem();
          orderItem.setMenuItem(menuItem);
@@ -73,74 +134,209 @@ public class OrderService {
      }
 
      newOrder.setTotalAmount(total);
-     
-     return orderRepository.save(newOrder); 
+     return newOrder;
+ }
+
+ /**
+  * Places a new order and records the client's Idempotency-Key in the same transaction.
+  * The unique (user_id, idempotency_key) constraint rejects a second insert for the same key.
+  */
+ @Transactional
+ public Order placeOrder(OrderRequestDto orderRequestDto, JwtPrincipal caller, Long restaurantId, String idempotencyKey) {
+     Order savedOrder = placeOrder(orderRequestDto, caller, restaurantId);
+
+     OrderIdempotencyKey key = new OrderIdempotencyKey();
+     key.setUserId(caller.userId());
+     key.setIdempotencyKey(idempotencyKey);
+     key.setOrderId(savedOrder.getId());
+     idempotencyKeyRepository.saveAndFlush(key);
+
+     return savedOrder;
+ }
+
+ /**
+  * Looks up the order previously placed for an Idempotency-Key, if any.
+  */
+ public Optional<OrderDto> findOrderByIdempotencyKey(Long userId, String idempotencyKey) {
+     return idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+         .flatMap(key -> orderRepository.findDetailById(key.getOrderId()))
+         .map(this::convertToDto);
+ }
+
+ /**
+  * The address typed at checkout, or else the customer's cached default address (if any).
+  */
+ private String deliveryAddressFor(OrderRequestDto orderRequestDto, Long userId) {
+     String requested = orderRequestDto.getDeliveryAddress();
+     if (requested != null && !requested.isBlank()) {
+         return requested;
+     }
+     return addressService.getDefaultDeliveryAddress(userId).orElse(null);
+ }
+
+ /**
+  * Loads all menu items of the cart with a single IN query scoped to the restaurant.
+  * Items from another restaurant are reported as not found; unavailable items are rejected.
+  */
+ private Map<Long, MenuItem> loadOrderableItems(OrderRequestDto orderRequestDto, Long restaurantId) {
+     if (orderRequestDto.getItems() == null || orderRequestDto.getItems().isEmpty()) {
+         throw new IllegalArgumentException("Order must contain at least one item.");
+     }
+
+     Set<Long> menuItemIds = new HashSet<>();
+     for (OrderRequestDto.OrderItemDto itemDto : orderRequestDto.getItems()) {
+         if (itemDto.getMenuItemId() == null) {
+             throw new IllegalArgumentException("Every order item must reference a menu item.");
+         }
+         if (itemDto.getQuantity() == null || itemDto.getQuantity() < 1) {
+             throw new IllegalArgumentException("Quantity must be at least 1.");
+         }
+         menuItemIds.add(itemDto.getMenuItemId());
+     }
+
+     Map<Long, MenuItem> menuItems = menuItemRepository.findByRestaurantIdAndIdIn(restaurantId, menuItemIds).stream()
+         .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+
+     for (Long menuItemId : menuItemIds) {
+         MenuItem menuItem = menuItems.get(menuItemId);
+         if (menuItem == null) {
+             throw new ResourceNotFoundException("Menu item " + menuItemId + " not found in this restaurant.");
+         }
+         if (!Boolean.TRUE.equals(menuItem.getAvailable())) {
+             throw new IllegalArgumentException("Menu item " + menuItem.getName() + " is currently unavailable.");
+         }
+     }
+     return menuItems;
  }
 
  /**
   * Updates order status with role-based authorization.
+  * The transition is applied with a single conditional UPDATE on the status the
+  * caller saw, so two concurrent updates cannot both win.
   */
- public Order updateOrderStatus(Long orderId, OrderStatus newStatus, Long updaterId) {
-     Order order = orderRepository.findById(orderId)
+ @Transactional
+ public OrderStatusDto updateOrderStatus(Long orderId, OrderStatus newStatus, JwtPrincipal updater) {
+     OrderStatusView order = orderRepository.findStatusViewById(orderId)
              .orElseThrow(() -> new ResourceNotFoundException("Order not found."));
      
-     User updater = userService.getUserById(updaterId);
+     // Compared from the caller's side, as the LEFT JOIN may yield a null owner id
+     boolean isCustomer = updater.hasRole(Role.USER) && updater.userId().equals(order.getUserId());
+     boolean isRestaurantOwner = updater.hasRole(Role.HOTEL) && updater.userId().equals(order.getOwnerId());
 
      // Authorization based on status and role
      if (newStatus == OrderStatus.DELIVERED) {
-         // Debug logging
-         System.out.println("Attempting to mark order as delivered:");
-         System.out.println("Order ID: " + orderId);
-         System.out.println("Order User ID: " + order.getUser().getId());
-         System.out.println("Updater ID: " + updaterId);
-         System.out.println("Updater Role: " + updater.getRole());
-         System.out.println("Current Order Status: " + order.getStatus());
-         
          // Only the customer who placed the order can mark it as delivered
-         if (updater.getRole() != Role.USER || !order.getUser().getId().equals(updaterId)) {
+         if (!isCustomer) {
              throw new UnauthorizedActionException("Only the customer can mark the order as delivered.");
          }
-         // Order must be OUT_FOR_DELIVERY to be marked as delivered
-         if (order.getStatus() != OrderStatus.OUT_FOR_DELIVERY) {
-             throw new UnauthorizedActionException("Order can only be marked as delivered when it's out for delivery.");
-         }
      } else if (newStatus == OrderStatus.CANCELLED) {
          // Both customer and restaurant owner can cancel
-         boolean isCustomer = updater.getRole() == Role.USER && order.getUser().getId().equals(updaterId);
-         boolean isRestaurantOwner = updater.getRole() == Role.HOTEL && order.getRestaurant().getHotelOwner().getId().equals(updaterId);
-         
          if (!isCustomer && !isRestaurantOwner) {
              throw new UnauthorizedActionException("You are not authorized to cancel this order.");
          }
-         
          // Customer can only cancel if order is still PLACED
          if (isCustomer && order.getStatus() != OrderStatus.PLACED) {
              throw new UnauthorizedActionException("Order cannot be cancelled after preparation has started.");
          }
-     } else {
+     } else if (!isRestaurantOwner) {
          // PREPARING and OUT_FOR_DELIVERY can only be set by restaurant owner
-         if (updater.getRole() != Role.HOTEL || !order.getRestaurant().getHotelOwner().getId().equals(updaterId)) {
-             throw new UnauthorizedActionException("Only the restaurant owner can update order preparation status.");
-         }
+         throw new UnauthorizedActionException("Only the restaurant owner can update order preparation status.");
+     }
+
+     if (!ALLOWED_TRANSITIONS.get(order.getStatus()).contains(newStatus)) {
+         throw new UnauthorizedActionException("Order cannot move from " + order.getStatus() + " to " + newStatus + ".");
      }
 
-     order.setStatus(newStatus);
-     return orderRepository.save(order);
+     int updated = orderRepository.compareAndSetStatus(orderId, order.getStatus(), newStatus);
+     if (updated == 0) {
+         throw new OrderStatusConflictException("Order " + orderId + " was updated concurrently; reload and try again.");
+     }
+     OrderStatusDto statusChange = new OrderStatusDto(orderId, order.getUserId(), order.getRestaurantId(),
+             order.getStatus().toString(), newStatus.toString());
+     eventPublisher.publishEvent(statusChange);
+     return statusChange;
  }
  
  public List<OrderDto> getOrdersByUser(Long userId) {
-     return orderRepository.findByUserId(userId).stream()
-         .map(this::convertToDto)
-         .collect(Collectors.toList());
+     return withItems(orderRepository.findDtosByUserId(userId));
  }
  
  public List<OrderDto> getOrdersByRestaurant(Long restaurantId) {
-     return orderRepository.findByRestaurantId(restaurantId).stream()
-         .map(this::convertToDto)
-         .collect(Collectors.toList());
+     return withItems(orderRepository.findDtosByRestaurantId(restaurantId));
+ }
+
+ /**
+  * Keyset page of a restaurant's orders. Without a cursor returns the newest orders;
+  * with cursor returns the next older page; with since returns orders created after it,
+  * oldest first, so dashboards only fetch what is new.
+  * <p>
+  * Keys are (createdAt, id), so rows sharing a timestamp are split by id. The since refresh
+  * assumes orders become visible in key order: a row committed after a since cursor was
+  * handed out but keyed before it is never returned by that refresh. The intake writer keeps
+  * this by stamping createdAt at write time on its single thread; a synchronous order whose
+  * transaction commits late can still land behind a concurrent one.
+  */
+ public OrderPageDto getOrdersPageByRestaurant(Long restaurantId, String cursor, String since, int size) {
+     return page(cursor, since, size,
+         limit -> orderRepository.findRestaurantPage(restaurantId, limit),
+         (key, limit) -> orderRepository.findRestaurantPageBefore(restaurantId, key.createdAt(), key.id(), limit),
+         (key, limit) -> orderRepository.findRestaurantPageAfter(restaurantId, key.createdAt(), key.id(), limit));
+ }
+
+ /**
+  * Keyset page of a customer's orders, with the same cursor semantics as the restaurant listing.
+  */
+ public OrderPageDto getOrdersPageByUser(Long userId, String cursor, String since, int size) {
+     return page(cursor, since, size,
+         limit -> orderRepository.findUserPage(userId, limit),
+         (key, limit) -> orderRepository.findUserPageBefore(userId, key.createdAt(), key.id(), limit),
+         (key, limit) -> orderRepository.findUserPageAfter(userId, key.createdAt(), key.id(), limit));
+ }
+
+ private OrderPageDto page(String cursor, String since, int size,
+                           Function<Pageable, List<OrderDto>> first,
+                           BiFunction<PageCursor, Pageable, List<OrderDto>> before,
+                           BiFunction<PageCursor, Pageable, List<OrderDto>> after) {
+     Pageable limit = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+
+     if (since != null) {
+         List<OrderDto> newer = after.apply(PageCursor.decode(since, "order"), limit);
+         String sinceCursor = newer.isEmpty() ? since : keyOf(newer.get(newer.size() - 1)).encode();
+         return new OrderPageDto(withItems(newer), null, sinceCursor);
+     }
+
+     List<OrderDto> orders = cursor == null ? first.apply(limit) : before.apply(PageCursor.decode(cursor, "order"), limit);
+     String nextCursor = orders.size() == limit.getPageSize() ? keyOf(orders.get(orders.size() - 1)).encode() : null;
+     String sinceCursor = cursor == null && !orders.isEmpty() ? keyOf(orders.get(0)).encode() : null;
+     return new OrderPageDto(withItems(orders), nextCursor, sinceCursor);
+ }
+
+ private static PageCursor keyOf(OrderDto order) {
+     return new PageCursor(order.getCreatedAt(), order.getId());
+ }
+
+ /**
+  * Fills the item lists of projected order headers with one IN query.
+  */
+ private List<OrderDto> withItems(List<OrderDto> orders) {
+     if (orders.isEmpty()) {
+         return orders;
+     }
+     Map<Long, OrderDto> byId = orders.stream()
+         .collect(Collectors.toMap(OrderDto::getId, Function.identity()));
+     for (OrderItemView item : orderItemRepository.findItemViewsByOrderIds(byId.keySet())) {
+         byId.get(item.orderId()).getItems().add(new OrderDto.OrderItemDto(
+             item.id(),
+             item.quantity(),
+             item.priceAtOrder(),
+             item.itemName() != null ? item.itemName() : "Unknown Item",
+             item.menuItemId()
+         ));
+     }
+     return orders;
  }
 
- private OrderDto convertToDto(Order order) {
+ public OrderDto convertToDto(Order order) {
      List<OrderDto.OrderItemDto> itemDtos = order.getItems().stream()
          .map(item -> new OrderDto.OrderItemDto(
              item.getId(),
@@ -0,0 +1,30 @@
+package service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of a row in (createdAt, id) order, carried to clients as an opaque cursor.
+ * Shared by the keyset-paginated order and review listings.
+ */
+record PageCursor(LocalDateTime createdAt, Long id) {
+
+    String encode() {
+        String raw = createdAt + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param kind what the cursor pages over, for the error message
+     */
+    static PageCursor decode(String cursor, String kind) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('_');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid " + kind + " cursor.");
+        }
+    }
+}
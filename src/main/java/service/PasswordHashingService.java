@@ -0,0 +1,119 @@
+package service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool with a bounded backlog,
+ * so a login storm queues here instead of occupying every request thread. When the backlog
+ * is full, or a caller would wait longer than the timeout, the request fails fast with 503.
+ */
+@Service
+public class PasswordHashingService {
+
+    // $2a$10$..., $2b$12$...: the two digits after the version are the cost
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./A-Za-z0-9]{53}$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final int workFactor;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+    private final Timer hashTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.bcrypt.strength:10}") int workFactor,
+                                  @Value("${auth.hashing.threads:2}") int threads,
+                                  @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${auth.hashing.timeout-ms:5000}") long timeoutMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.workFactor = workFactor;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "password-hashing-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        this.rejected = meterRegistry.counter("auth.hashing.rejected");
+        this.hashTimer = meterRegistry.timer("auth.hashing");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True when the stored hash was made with a different work factor than the configured one
+     * (or is not a BCrypt hash at all), so it should be replaced after the next successful login.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT.matcher(encodedPassword);
+        return !matcher.matches() || Integer.parseInt(matcher.group(1)) != workFactor;
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many sign-in requests, please retry shortly.");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // Drop it if it has not started; a running hash finishes and is discarded
+            future.cancel(false);
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many sign-in requests, please retry shortly.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new ServiceOverloadedException("Interrupted while waiting for password check.");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
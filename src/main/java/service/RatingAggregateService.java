@@ -0,0 +1,98 @@
+package service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import repository.RatingAggregateRepository;
+
+/**
+ * Keeps the per-restaurant and per-menu-item rating aggregates honest. A periodic job
+ * compares every aggregate with the review table and rebuilds the rows that drifted,
+ * e.g. after reviews were edited by hand or before the aggregate columns existed.
+ */
+@Service
+public class RatingAggregateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingAggregateService.class);
+
+    private final RatingAggregateRepository ratingAggregateRepository;
+    private final Counter repairedCounter;
+    private final ScheduledExecutorService scheduler;
+    private final boolean enabled;
+
+    public RatingAggregateService(RatingAggregateRepository ratingAggregateRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${ratings.consistency-check-minutes:1440}") long checkIntervalMinutes) {
+        this.ratingAggregateRepository = ratingAggregateRepository;
+        this.repairedCounter = meterRegistry.counter("ratings.aggregates.repaired");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rating-aggregate-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.enabled = checkIntervalMinutes > 0;
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::runCheck, checkIntervalMinutes, checkIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // Aggregates added to an existing database start at zero; the first check fills them in.
+    // Ordered after the review-to-item linking, which the menu item totals are read from.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void checkOnStartup() {
+        if (enabled) {
+            scheduler.execute(this::runCheck);
+        }
+    }
+
+    /**
+     * Rebuilds every aggregate that disagrees with the review table and returns how many rows were fixed.
+     * Each candidate is re-checked and rebuilt in its own transaction under a row lock, so a review
+     * added between the scan and the rebuild is neither lost nor counted twice.
+     */
+    public int repairInconsistencies() {
+        int repaired = 0;
+        for (Long restaurantId : ratingAggregateRepository.findInconsistentRestaurantIds()) {
+            if (ratingAggregateRepository.rebuildRestaurant(restaurantId)) {
+                repaired++;
+            }
+        }
+        for (Long menuItemId : ratingAggregateRepository.findInconsistentMenuItemIds()) {
+            if (ratingAggregateRepository.rebuildMenuItem(menuItemId)) {
+                repaired++;
+            }
+        }
+        if (repaired > 0) {
+            logger.warn("Rebuilt {} rating aggregates that disagreed with the review table", repaired);
+            repairedCounter.increment(repaired);
+        }
+        return repaired;
+    }
+
+    private void runCheck() {
+        try {
+            repairInconsistencies();
+        } catch (RuntimeException e) {
+            logger.error("Rating aggregate consistency check failed", e);
+        }
+    }
+}
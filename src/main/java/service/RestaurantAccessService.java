@@ -0,0 +1,57 @@
+package service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import entity.Role;
+import exception.ResourceNotFoundException;
+import exception.UnauthorizedActionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import repository.RestaurantRepository;
+import security.JwtPrincipal;
+
+/**
+ * Answers "does this caller own this restaurant?" from a cached restaurant-to-owner map,
+ * so owner-only operations neither load the user nor the restaurant. A restaurant's owner
+ * is fixed when it is created, so entries never go stale; unknown ids are not cached.
+ */
+@Service
+public class RestaurantAccessService {
+
+    private final LoadingCache<Long, Long> ownerByRestaurant;
+
+    public RestaurantAccessService(RestaurantRepository restaurantRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${restaurants.owner-cache.max-size:100000}") long maxSize,
+                                   @Value("${restaurants.owner-cache.ttl-minutes:60}") long ttlMinutes) {
+        this.ownerByRestaurant = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build(restaurantId -> restaurantRepository.findOwnerIdById(restaurantId).orElse(null));
+        CaffeineCacheMetrics.monitor(meterRegistry, ownerByRestaurant, "restaurants.owner");
+    }
+
+    /**
+     * Throws unless the caller is a HOTEL user who owns the restaurant.
+     */
+    public void requireOwner(JwtPrincipal caller, Long restaurantId, String message) {
+        Long ownerId = restaurantId == null ? null : ownerByRestaurant.get(restaurantId);
+        if (ownerId == null) {
+            throw new ResourceNotFoundException("Restaurant not found");
+        }
+        if (!caller.hasRole(Role.HOTEL) || !ownerId.equals(caller.userId())) {
+            throw new UnauthorizedActionException(message);
+        }
+    }
+
+    public void recordOwner(Long restaurantId, Long ownerId) {
+        ownerByRestaurant.put(restaurantId, ownerId);
+    }
+}
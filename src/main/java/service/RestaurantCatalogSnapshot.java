@@ -0,0 +1,33 @@
+package service;
+
+/**
+ * Immutable, pre-serialised restaurant catalog: the JSON body, its gzip encoding
+ * and a strong ETag derived from the JSON bytes. The gzip body is a different
+ * representation, so it carries its own ETag with a -gzip suffix.
+ */
+public final class RestaurantCatalogSnapshot {
+
+    private final byte[] json;
+    private final byte[] gzippedJson;
+    private final String etag;
+    private final String gzipEtag;
+    private final long builtAtMillis;
+    private final long generation;
+
+    RestaurantCatalogSnapshot(byte[] json, byte[] gzippedJson, String etag, long builtAtMillis, long generation) {
+        this.json = json;
+        this.gzippedJson = gzippedJson;
+        this.etag = etag;
+        this.gzipEtag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+        this.builtAtMillis = builtAtMillis;
+        this.generation = generation;
+    }
+
+    // Callers must not modify the returned arrays; they are shared by every request
+    public byte[] getJson() { return json; }
+    public byte[] getGzippedJson() { return gzippedJson; }
+    public String getEtag() { return etag; }
+    public String getGzipEtag() { return gzipEtag; }
+    public long getBuiltAtMillis() { return builtAtMillis; }
+    long getGeneration() { return generation; }
+}
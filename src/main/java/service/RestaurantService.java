@@ -1,49 +1,149 @@
 package service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import dto.RestaurantDto;
+import entity.RatingSummary;
 import entity.Restaurant;
 import entity.Role;
-import entity.User;
 import exception.UnauthorizedActionException;
 import repository.RestaurantRepository;
+import security.JwtPrincipal;
 
 @Service
 public class RestaurantService {
 
     private final RestaurantRepository restaurantRepository;
     private final UserService userService; 
+    private final ObjectMapper objectMapper;
+    private final CatalogSearchService catalogSearchService;
+    private final RestaurantAccessService restaurantAccessService;
+    private final NearbyRestaurantService nearbyRestaurantService;
+    private final long catalogMaxAgeMillis;
+
+    // Rebuilt lazily after addRestaurant or once it is older than catalogMaxAgeMillis.
+    // Each invalidation bumps the generation; a build that overlapped one is not kept.
+    private volatile RestaurantCatalogSnapshot catalogSnapshot;
+    private final AtomicLong catalogGeneration = new AtomicLong();
+    private final ReentrantLock catalogRefresh = new ReentrantLock();
 
-    public RestaurantService(RestaurantRepository restaurantRepository, UserService userService) {
+    public RestaurantService(RestaurantRepository restaurantRepository, UserService userService,
+                             ObjectMapper objectMapper, CatalogSearchService catalogSearchService,
+                             RestaurantAccessService restaurantAccessService,
+                             NearbyRestaurantService nearbyRestaurantService,
+                             @Value("${restaurants.catalog.max-age-seconds:600}") long catalogMaxAgeSeconds) {
         this.restaurantRepository = restaurantRepository;
         this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.catalogSearchService = catalogSearchService;
+        this.restaurantAccessService = restaurantAccessService;
+        this.nearbyRestaurantService = nearbyRestaurantService;
+        this.catalogMaxAgeMillis = catalogMaxAgeSeconds * 1000L;
     }
 
-    public Restaurant addRestaurant(Restaurant restaurant, Long hotelOwnerId) {
-        User hotelOwner = userService.getUserById(hotelOwnerId); 
-
-        if (hotelOwner.getRole() != Role.HOTEL) {
+    public Restaurant addRestaurant(Restaurant restaurant, JwtPrincipal caller) {
+        if (!caller.hasRole(Role.HOTEL)) {
             throw new UnauthorizedActionException("Only users with the HOTEL role can add a restaurant.");
         }
+        // Cached identity, for the owner name shown in the catalog and search index
+        UserIdentity hotelOwner = userService.getUserIdentity(caller.userId());
+        if ((restaurant.getLatitude() == null) != (restaurant.getLongitude() == null)) {
+            throw new IllegalArgumentException("Latitude and longitude must be given together.");
+        }
+        if (restaurant.getLatitude() != null) {
+            GeoGridIndex.checkCoordinates(restaurant.getLatitude(), restaurant.getLongitude());
+        }
 
-        restaurant.setHotelOwner(hotelOwner);
-        return restaurantRepository.save(restaurant);
+        // A new restaurant starts unrated, whatever the request body carried
+        restaurant.setRatings(new RatingSummary());
+        restaurant.setHotelOwner(hotelOwner.toReference());
+        Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        restaurantAccessService.recordOwner(savedRestaurant.getId(), hotelOwner.id());
+        invalidateCatalog();
+        RestaurantDto indexed = new RestaurantDto(savedRestaurant.getId(), savedRestaurant.getName(),
+                savedRestaurant.getAddress(), savedRestaurant.getCuisineType(), hotelOwner.id(), hotelOwner.name());
+        indexed.setLatitude(savedRestaurant.getLatitude());
+        indexed.setLongitude(savedRestaurant.getLongitude());
+        catalogSearchService.indexRestaurant(indexed);
+        nearbyRestaurantService.indexRestaurant(indexed);
+        return savedRestaurant;
     }
 
     public List<RestaurantDto> getAllRestaurants() {
-        return restaurantRepository.findAll().stream()
-            .map(restaurant -> new RestaurantDto(
-                restaurant.getId(),
-                restaurant.getName(),
-                restaurant.getAddress(),
-                restaurant.getCuisineType(),
-                restaurant.getHotelOwner().getId(),
-                restaurant.getHotelOwner().getName()
-            ))
-            .collect(Collectors.toList());
+        return restaurantRepository.findAllDtos();
+    }
+
+    /**
+     * Returns the pre-serialised catalog served by GET /api/restaurants.
+     * One caller rebuilds an outdated catalog while the others keep getting the previous
+     * one; callers only wait when there is no catalog at all yet.
+     */
+    public RestaurantCatalogSnapshot getCatalogSnapshot() {
+        RestaurantCatalogSnapshot snapshot = catalogSnapshot;
+        if (snapshot != null && isCurrent(snapshot)) {
+            return snapshot;
+        }
+        if (snapshot == null) {
+            catalogRefresh.lock();
+        } else if (!catalogRefresh.tryLock()) {
+            return snapshot;
+        }
+        try {
+            snapshot = catalogSnapshot;
+            if (snapshot != null && isCurrent(snapshot)) {
+                return snapshot;
+            }
+            long generation = catalogGeneration.get();
+            RestaurantCatalogSnapshot built = buildCatalogSnapshot(generation);
+            // An invalidation during the build may not be reflected in it; the next caller rebuilds
+            if (catalogGeneration.get() == generation) {
+                catalogSnapshot = built;
+            }
+            return built;
+        } finally {
+            catalogRefresh.unlock();
+        }
+    }
+
+    public void invalidateCatalog() {
+        catalogGeneration.incrementAndGet();
+    }
+
+    private boolean isCurrent(RestaurantCatalogSnapshot snapshot) {
+        return snapshot.getGeneration() == catalogGeneration.get()
+            && System.currentTimeMillis() - snapshot.getBuiltAtMillis() <= catalogMaxAgeMillis;
+    }
+
+    private RestaurantCatalogSnapshot buildCatalogSnapshot(long generation) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(getAllRestaurants());
+
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(json);
+            }
+
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            return new RestaurantCatalogSnapshot(json, gzipped.toByteArray(), etag, System.currentTimeMillis(), generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialise restaurant catalog", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
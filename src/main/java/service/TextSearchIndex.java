@@ -0,0 +1,396 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index over one kind of document.
+ * Each document has "primary" text (names, types; matched by whole word or by prefix)
+ * and optional "secondary" text (descriptions; matched by whole word only, to keep
+ * the prefix postings small). Query words are ANDed; the rarest word's postings are
+ * intersected with the others, then the survivors are ranked.
+ * Postings hold internal document numbers in increasing order, so appends stay sorted,
+ * together with the position of the primary word that produced them. Ranking reads those
+ * positions instead of the documents, which keeps a broad query over a large index to a
+ * pass over arrays; only documents that would make the top results are looked at.
+ * Replaced documents leave tombstones behind; once they make up half the index it is
+ * rebuilt from the live documents.
+ */
+class TextSearchIndex<T> {
+
+    private static final int MIN_PREFIX = 2;
+    private static final int MAX_PREFIX = 12;
+    // Below this many tombstones a rebuild costs more than the dead postings it frees
+    private static final int MIN_DEAD_FOR_COMPACTION = 256;
+    private static final int NO_MORE = Integer.MAX_VALUE;
+
+    private final Function<T, Long> idOf;
+    private final Function<T, String> primaryText;
+    private final Function<T, String> secondaryText;
+
+    private final List<Entry<T>> docs = new ArrayList<>();
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private final Map<String, IntList> wordPostings = new HashMap<>();
+    private final Map<String, IntList> prefixPostings = new HashMap<>();
+    // Number of primary words of each document, by document number, for the length bonus
+    private int[] primaryLengths = new int[16];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int deadEntries;
+
+    TextSearchIndex(Function<T, Long> idOf, Function<T, String> primaryText, Function<T, String> secondaryText) {
+        this.idOf = idOf;
+        this.primaryText = primaryText;
+        this.secondaryText = secondaryText;
+    }
+
+    /**
+     * Adds or replaces a document. A replaced document is tombstoned and re-added under a new number.
+     */
+    void put(T doc) {
+        String[] primary = tokenize(primaryText.apply(doc));
+        String[] secondary = tokenize(secondaryText.apply(doc));
+        lock.writeLock().lock();
+        try {
+            Integer previous = docById.get(idOf.apply(doc));
+            if (previous != null) {
+                docs.get(previous).deleted = true;
+                deadEntries++;
+            }
+            append(new Entry<>(doc, primary, secondary));
+            if (deadEntries >= MIN_DEAD_FOR_COMPACTION && deadEntries * 2 > docs.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Live documents accepted by the filter, in no particular order. Scans the whole index.
+     */
+    List<T> documents(Predicate<T> filter) {
+        lock.readLock().lock();
+        try {
+            List<T> matching = new ArrayList<>();
+            for (Entry<T> entry : docs) {
+                if (!entry.deleted && filter.test(entry.doc)) {
+                    matching.add(entry.doc);
+                }
+            }
+            return matching;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    T get(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer docNo = docById.get(id);
+            return docNo == null ? null : docs.get(docNo).doc;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int deadEntries() {
+        lock.readLock().lock();
+        try {
+            return deadEntries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void append(Entry<T> entry) {
+        int docNo = docs.size();
+        docs.add(entry);
+        docById.put(idOf.apply(entry.doc), docNo);
+        if (docNo == primaryLengths.length) {
+            primaryLengths = Arrays.copyOf(primaryLengths, docNo * 2);
+        }
+        primaryLengths[docNo] = entry.primary.length;
+
+        for (int i = 0; i < entry.primary.length; i++) {
+            String word = entry.primary[i];
+            add(wordPostings, word, docNo, i);
+            for (int len = MIN_PREFIX; len <= Math.min(word.length(), MAX_PREFIX); len++) {
+                add(prefixPostings, word.substring(0, len), docNo, i);
+            }
+        }
+        for (String word : entry.secondary) {
+            add(wordPostings, word, docNo, IntList.SECONDARY);
+        }
+    }
+
+    /**
+     * Renumbers the live documents from 0 and rebuilds the postings without the tombstones.
+     * Caller holds the write lock; the stored tokens are reused, so nothing is re-tokenized.
+     */
+    private void compact() {
+        List<Entry<T>> live = new ArrayList<>(docs.size() - deadEntries);
+        for (Entry<T> entry : docs) {
+            if (!entry.deleted) {
+                live.add(entry);
+            }
+        }
+        docs.clear();
+        docById.clear();
+        wordPostings.clear();
+        prefixPostings.clear();
+        deadEntries = 0;
+        live.forEach(this::append);
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to limit documents matching every query word, best first.
+     */
+    List<T> search(String query, int limit, Predicate<T> filter) {
+        String[] words = Arrays.stream(tokenize(query)).distinct().toArray(String[]::new);
+        if (words.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<WordCursor> cursors = new ArrayList<>(words.length);
+            for (String word : words) {
+                WordCursor cursor = new WordCursor(word);
+                if (cursor.estimatedSize() == 0) {
+                    return List.of();
+                }
+                cursors.add(cursor);
+            }
+            // The rarest word proposes candidates; the others skip ahead to them
+            WordCursor rarest = Collections.min(cursors, Comparator.comparingInt(WordCursor::estimatedSize));
+
+            PriorityQueue<Scored<T>> top = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(s -> s.score));
+            int target = 0;
+            candidates:
+            while (true) {
+                int docNo = rarest.advance(target);
+                if (docNo == NO_MORE) {
+                    break;
+                }
+                target = docNo + 1;
+                // Summed in query word order
+                double score = 0;
+                for (WordCursor cursor : cursors) {
+                    int at = cursor.advance(docNo);
+                    if (at == NO_MORE) {
+                        break candidates;
+                    }
+                    if (at != docNo) {
+                        target = at;
+                        continue candidates;
+                    }
+                    double wordScore = cursor.score(docNo);
+                    if (wordScore == 0) {
+                        continue candidates;
+                    }
+                    score += wordScore;
+                }
+                // Shorter documents are closer matches when the words hit equally well
+                score += 1.0 / (1 + primaryLengths[docNo]);
+                if (top.size() == limit && score <= top.peek().score) {
+                    continue;
+                }
+                // Only documents that would make the results are read, so the filter runs last
+                Entry<T> entry = docs.get(docNo);
+                if (entry.deleted || !filter.test(entry.doc)) {
+                    continue;
+                }
+                if (top.size() == limit) {
+                    top.poll();
+                }
+                top.add(new Scored<>(entry.doc, score));
+            }
+
+            List<T> results = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                results.add(top.poll().doc);
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double prefixScore(Entry<?> entry, String word) {
+        for (int i = 0; i < entry.primary.length; i++) {
+            if (entry.primary[i].startsWith(word)) {
+                return 2 * weight(i);
+            }
+        }
+        return 0;
+    }
+
+    private static double weight(int position) {
+        return 1.0 / (1 + position * 0.1);
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+            .filter(word -> !word.isEmpty())
+            .toArray(String[]::new);
+    }
+
+    private static void add(Map<String, IntList> postings, String key, int docNo, int position) {
+        postings.computeIfAbsent(key, k -> new IntList()).addIfLast(docNo, position);
+    }
+
+    private static final class Entry<T> {
+        final T doc;
+        final String[] primary;
+        final String[] secondary;
+        volatile boolean deleted;
+
+        Entry(T doc, String[] primary, String[] secondary) {
+            this.doc = doc;
+            this.primary = primary;
+            this.secondary = secondary;
+        }
+    }
+
+    private record Scored<T>(T doc, double score) {}
+
+    /**
+     * Growable sorted int array; a document number is appended once per key, with the
+     * position of the first primary word that produced it (SECONDARY for a description word).
+     */
+    private static final class IntList {
+        static final short SECONDARY = -1;
+
+        private int[] values = new int[4];
+        private short[] positions = new short[4];
+        private int size;
+
+        /**
+         * Index of the first value at or after target, searching from index from on:
+         * galloping, then binary search, so skipping far ahead stays cheap.
+         */
+        int seek(int from, int target) {
+            if (from >= size || values[from] >= target) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            while (low + step < size && values[low + step] < target) {
+                low += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(values, low + 1, Math.min(low + step, size - 1) + 1, target);
+            return found >= 0 ? found : -found - 1;
+        }
+
+        void addIfLast(int value, int position) {
+            if (size > 0 && values[size - 1] == value) {
+                // Primary words are added first, so the earliest position is already here
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            values[size] = value;
+            // Positions past 32767 rank as 32767; no name or type runs that long
+            positions[size] = (short) Math.min(position, Short.MAX_VALUE);
+            size++;
+        }
+    }
+
+    /**
+     * Walks the documents matching one query word, in increasing order: the union of the
+     * word's whole-word and prefix postings. Reads postings only; the documents themselves
+     * are read only for query words whose prefix the postings cannot answer.
+     */
+    private final class WordCursor {
+        private final String word;
+        private final IntList exact;
+        private final IntList prefix;
+        // Postings of longer words are keyed by a truncated prefix, and single letters have
+        // none; for those the prefix score is checked against the document's own words
+        private final boolean prefixFromPostings;
+        private int e;
+        private int p;
+
+        WordCursor(String word) {
+            this.word = word;
+            this.exact = wordPostings.get(word);
+            this.prefix = word.length() >= MIN_PREFIX
+                ? prefixPostings.get(word.length() > MAX_PREFIX ? word.substring(0, MAX_PREFIX) : word)
+                : null;
+            this.prefixFromPostings = word.length() >= MIN_PREFIX && word.length() <= MAX_PREFIX;
+        }
+
+        int estimatedSize() {
+            return (exact == null ? 0 : exact.size) + (prefix == null ? 0 : prefix.size);
+        }
+
+        /**
+         * Moves to the first matching document at or after target and returns it, or NO_MORE.
+         */
+        int advance(int target) {
+            int next = NO_MORE;
+            if (exact != null) {
+                e = exact.seek(e, target);
+                if (e < exact.size) {
+                    next = exact.values[e];
+                }
+            }
+            if (prefix != null) {
+                p = prefix.seek(p, target);
+                if (p < prefix.size) {
+                    next = Math.min(next, prefix.values[p]);
+                }
+            }
+            return next;
+        }
+
+        /**
+         * Score of the word in the document the cursor is on.
+         * Whole-word primary hits outrank primary prefixes, which outrank description words;
+         * earlier words (e.g. the item name) weigh slightly more than later ones.
+         * A document whose words merely share a truncated prefix scores 0 and is dropped.
+         */
+        double score(int docNo) {
+            boolean inWords = exact != null && e < exact.size && exact.values[e] == docNo;
+            int exactPosition = inWords ? exact.positions[e] : IntList.SECONDARY;
+            double best = exactPosition == IntList.SECONDARY ? 0 : 3 * weight(exactPosition);
+            if (!prefixFromPostings) {
+                best = Math.max(best, prefixScore(docs.get(docNo), word));
+            } else if (prefix != null && p < prefix.size && prefix.values[p] == docNo) {
+                best = Math.max(best, 2 * weight(prefix.positions[p]));
+            }
+            if (best == 0 && inWords) {
+                // Only in the description
+                best = 1;
+            }
+            return best;
+        }
+    }
+}
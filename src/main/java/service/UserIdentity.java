@@ -0,0 +1,25 @@
+package service;
+
+import entity.Role;
+import entity.User;
+
+/**
+ * Immutable identity of a user as cached by {@link UserService}: enough to authorise
+ * a request and to label what the user wrote, without the password or associations.
+ */
+public record UserIdentity(Long id, Role role, String name, String email) {
+
+    /**
+     * Returns an unmanaged User carrying only these fields, usable as the target of a
+     * many-to-one when saving another entity (e.g. an order's customer) without a select.
+     * It must never be saved or merged itself.
+     */
+    public User toReference() {
+        User user = new User();
+        user.setId(id);
+        user.setRole(role);
+        user.setName(name);
+        user.setEmail(email);
+        return user;
+    }
+}
@@ -1,23 +1,67 @@
 package service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
-import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import dto.UserPageDto;
+import dto.UserSummaryDto;
 import entity.Role;
 import entity.User;
 import exception.ResourceNotFoundException;
+import exception.UnauthorizedActionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import repository.UserExportRepository;
 import repository.UserRepository;
+import security.JwtPrincipal;
 
 @Service
 public class UserService {
 
+ private static final int MAX_USER_PAGE_SIZE = 100;
+
  private final UserRepository userRepository;
+ private final UserExportRepository userExportRepository;
+ private final ObjectMapper objectMapper;
+ // Flushing after every row would push each line to the client as its own chunk
+ private final ObjectWriter summaryWriter;
+
+ // id -> identity for the order and restaurant hot paths; unknown ids are not cached
+ private final LoadingCache<Long, UserIdentity> identityCache;
 
  // Dependency Injection via constructor (Best Practice!)
- public UserService(UserRepository userRepository) {
+ public UserService(UserRepository userRepository,
+                    UserExportRepository userExportRepository,
+                    ObjectMapper objectMapper,
+                    MeterRegistry meterRegistry,
+                    @Value("${users.identity-cache.max-size:100000}") long maxSize,
+                    @Value("${users.identity-cache.ttl-minutes:10}") long ttlMinutes) {
      this.userRepository = userRepository;
+     this.userExportRepository = userExportRepository;
+     this.objectMapper = objectMapper;
+     this.summaryWriter = objectMapper.writerFor(UserSummaryDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+     this.identityCache = Caffeine.newBuilder()
+         .maximumSize(maxSize)
+         .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+         .recordStats()
+         .build(id -> userRepository.findIdentityById(id)
+             .map(view -> new UserIdentity(view.getId(), view.getRole(), view.getName(), view.getEmail()))
+             .orElse(null));
+     CaffeineCacheMetrics.monitor(meterRegistry, identityCache, "users.identity");
  }
 
  public User registerUser(User user) {
@@ -30,30 +74,85 @@ public class UserService {
      if (user.getRole() == null) {
          user.setRole(Role.USER);
      }
+     if (user.getRole() == Role.ADMIN) {
+         throw new IllegalArgumentException("Administrator accounts cannot be registered.");
+     }
      
      // Security Note: Here is where a PasswordEncoder would hash the password!
      
-     return userRepository.save(user);
+     User savedUser = userRepository.save(user);
+     evictIdentity(savedUser.getId());
+     return savedUser;
  }
 
- public List<User> getAllUsers() {
-     return userRepository.findAll();
+ /**
+  * Keyset page of user summaries in id order, for administrators. Pass the returned
+  * nextAfterId to get the following page; it is null on the last page.
+  */
+ public UserPageDto getUserPage(JwtPrincipal caller, Long afterId, int size) {
+     requireAdmin(caller);
+     int limit = Math.max(1, Math.min(size, MAX_USER_PAGE_SIZE));
+     List<UserSummaryDto> users = userRepository.findSummariesAfter(afterId == null ? 0L : afterId, PageRequest.of(0, limit));
+     Long nextAfterId = users.size() == limit ? users.get(users.size() - 1).getId() : null;
+     return new UserPageDto(users, nextAfterId);
  }
 
- public User getUserById(Long id) {
-     System.out.println("Searching for user ID: " + id);
-     List<User> allUsers = userRepository.findAll();
-     System.out.println("All users in database: " + allUsers.size());
-     for (User u : allUsers) {
-         System.out.println("User ID: " + u.getId() + ", Email: " + u.getEmail());
+ /**
+  * Writes every user as one JSON object per line (NDJSON). Rows are streamed from the
+  * database and serialised one at a time, so memory use does not grow with the user count.
+  */
+ public void exportUsers(JwtPrincipal caller, OutputStream out) throws IOException {
+     requireAdmin(caller);
+     try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+         // The servlet container owns the response stream
+         generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+         userExportRepository.forEachSummary(summary -> {
+             try {
+                 summaryWriter.writeValue(generator, summary);
+                 generator.writeRaw('\n');
+             } catch (IOException ex) {
+                 throw new UncheckedIOException(ex);
+             }
+         });
+     } catch (UncheckedIOException ex) {
+         throw ex.getCause();
      }
+ }
+
+ private void requireAdmin(JwtPrincipal caller) {
+     if (!caller.hasRole(Role.ADMIN)) {
+         throw new UnauthorizedActionException("Only administrators can list users");
+     }
+ }
+
+ public User getUserById(Long id) {
      return userRepository.findById(id)
              .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
  }
 
- public User updateUser(User user) {
-     return userRepository.save(user);
+ /**
+  * Returns the cached identity of a user, loading it with a single primary-key projection on a miss.
+  */
+ public UserIdentity getUserIdentity(Long id) {
+     UserIdentity identity = id == null ? null : identityCache.get(id);
+     if (identity == null) {
+         throw new ResourceNotFoundException("User not found with ID: " + id);
+     }
+     return identity;
  }
-}
 
+ public User updateUser(User user) {
+     User savedUser = userRepository.save(user);
+     evictIdentity(savedUser.getId());
+     return savedUser;
+ }
 
+ /**
+  * Drops a user's cached identity; called whenever a user row is written.
+  */
+ public void evictIdentity(Long id) {
+     if (id != null) {
+         identityCache.invalidate(id);
+     }
+ }
+}
@@ -0,0 +1,44 @@
+package com.foodapp.food_ordering_system;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Boots the application on an in-memory database for benchmarks that go through the real
+ * services and repositories. Uses the same settings as the H2-backed tests, with a random
+ * port and per-call logging turned down so it does not dominate what is measured.
+ */
+public final class BenchmarkContext {
+
+	private BenchmarkContext() {
+	}
+
+	public static ConfigurableApplicationContext start(String databaseName) {
+		return SpringApplication.run(FoodOrderingSystemApplication.class,
+			"--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+			"--spring.datasource.driver-class-name=org.h2.Driver",
+			"--spring.datasource.username=sa",
+			"--spring.datasource.password=",
+			"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+			"--spring.jpa.hibernate.ddl-auto=create-drop",
+			"--spring.jpa.show-sql=false",
+			"--spring.jpa.properties.hibernate.generate_statistics=true",
+			"--server.port=0",
+			"--blobs.dir=target/bench-blobs",
+			"--ratings.consistency-check-minutes=0",
+			"--logging.level.aspect=WARN",
+			"--logging.level.service=WARN",
+			"--logging.level.controller=WARN");
+	}
+
+	/**
+	 * Hibernate statistics of the context, for reporting statements and entity loads per call.
+	 */
+	public static Statistics statistics(ConfigurableApplicationContext context) {
+		return context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+	}
+}
@@ -0,0 +1,105 @@
+package com.foodapp.food_ordering_system;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import entity.Address;
+import entity.AddressType;
+import entity.Role;
+import entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import repository.AddressRepository;
+import repository.UserRepository;
+import service.AddressService;
+
+/**
+ * Checks default-address switching and the one-default-per-user key on an in-memory database.
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:addresses;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.show-sql=false",
+	"spring.jpa.properties.hibernate.generate_statistics=true",
+	"blobs.dir=target/test-blobs",
+	"ratings.consistency-check-minutes=0"
+})
+class DefaultAddressTests {
+
+	@Autowired private AddressService addressService;
+	@Autowired private AddressRepository addressRepository;
+	@Autowired private UserRepository userRepository;
+	@Autowired private EntityManagerFactory entityManagerFactory;
+
+	private User customer;
+
+	@BeforeEach
+	void setUp() {
+		addressRepository.deleteAll();
+		userRepository.deleteAll();
+
+		customer = new User();
+		customer.setEmail("customer@example.com");
+		customer.setName("customer");
+		customer.setPassword("secret");
+		customer.setRole(Role.USER);
+		customer = userRepository.save(customer);
+	}
+
+	@Test
+	void newDefaultReplacesTheOldOneWithTwoStatements() {
+		for (int i = 0; i < 3; i++) {
+			addressService.saveAddress(customer.getId(), address(i + " Main St", false));
+		}
+		addressService.saveAddress(customer.getId(), address("Home", true));
+		assertEquals("Home", addressService.getDefaultDeliveryAddress(customer.getId()).orElseThrow());
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		addressService.saveAddress(customer.getId(), address("Office", true));
+		// bulk clear of the previous default, then the insert; the user identity is cached
+		assertEquals(2, statistics.getPrepareStatementCount());
+
+		List<Address> defaults = addressRepository.findByUserIdOrderByIsDefaultDesc(customer.getId())
+			.stream().filter(Address::isDefault).toList();
+		assertEquals(1, defaults.size());
+		assertEquals("Office", defaults.get(0).getFullAddress());
+
+		statistics.clear();
+		assertEquals("Office", addressService.getDefaultDeliveryAddress(customer.getId()).orElseThrow());
+		assertEquals("Office", addressService.getDefaultDeliveryAddress(customer.getId()).orElseThrow());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void databaseRejectsASecondDefault() {
+		addressService.saveAddress(customer.getId(), address("Home", true));
+
+		Address second = address("Office", true);
+		second.setUser(customer);
+		assertThrows(DataIntegrityViolationException.class, () -> addressRepository.saveAndFlush(second));
+	}
+
+	private Address address(String fullAddress, boolean isDefault) {
+		Address address = new Address();
+		address.setType(AddressType.HOME);
+		address.setFullAddress(fullAddress);
+		address.setCity("Pune");
+		address.setPincode("411001");
+		address.setDefault(isDefault);
+		return address;
+	}
+}
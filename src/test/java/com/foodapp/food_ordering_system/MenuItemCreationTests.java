@@ -0,0 +1,147 @@
+package com.foodapp.food_ordering_system;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import dto.MenuItemDto;
+import entity.MenuItem;
+import entity.Restaurant;
+import entity.Role;
+import entity.User;
+import repository.MenuItemRepository;
+import repository.OrderRepository;
+import repository.RestaurantRepository;
+import repository.ReviewRepository;
+import repository.UserRepository;
+import security.JwtPrincipal;
+import service.BlobStore;
+import service.CatalogSearchService;
+import service.MenuImageService;
+import service.MenuItemService;
+
+/**
+ * Checks that adding a menu item publishes it to the caches, search and image index only once it commits.
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:menucreation;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.show-sql=false",
+	"blobs.dir=target/test-blobs",
+	"ratings.consistency-check-minutes=0"
+})
+class MenuItemCreationTests {
+
+	@Autowired private MenuItemService menuItemService;
+	@Autowired private MenuImageService menuImageService;
+	@Autowired private CatalogSearchService catalogSearchService;
+	@Autowired private BlobStore blobStore;
+	@Autowired private UserRepository userRepository;
+	@Autowired private RestaurantRepository restaurantRepository;
+	@Autowired private MenuItemRepository menuItemRepository;
+	@Autowired private OrderRepository orderRepository;
+	@Autowired private ReviewRepository reviewRepository;
+
+	private User owner;
+	private Restaurant restaurant;
+
+	@BeforeEach
+	void setUp() {
+		reviewRepository.deleteAll();
+		orderRepository.deleteAll();
+		menuItemRepository.deleteAll();
+		restaurantRepository.deleteAll();
+		userRepository.deleteAll();
+
+		owner = new User();
+		owner.setName("Owner");
+		owner.setEmail("owner@example.com");
+		owner.setPassword("secret");
+		owner.setRole(Role.HOTEL);
+		owner = userRepository.save(owner);
+
+		restaurant = new Restaurant();
+		restaurant.setName("Diner");
+		restaurant.setHotelOwner(owner);
+		restaurant = restaurantRepository.save(restaurant);
+	}
+
+	@Test
+	void committedItemIsListedSearchableAndServesItsImage() {
+		// Warm the menu cache so the add has to invalidate it
+		assertEquals(List.of(), menuItemService.getAvailableMenuItems(restaurant.getId()));
+
+		MenuItem added = menuItemService.addMenuItem(menuItem("Quesadilla"), restaurant.getId(), ownerPrincipal(), photo());
+
+		assertEquals(List.of("Quesadilla"),
+			menuItemService.getAvailableMenuItems(restaurant.getId()).stream().map(MenuItemDto::getName).toList());
+		assertEquals(List.of(added.getId()),
+			catalogSearchService.search("quesadilla", 10).getMenuItems().stream().map(MenuItemDto::getId).toList());
+		assertTrue(menuImageService.findImage(added.getId()).isPresent());
+	}
+
+	@Test
+	void failedSaveLeavesNoTraceAndRemovesItsNewBlob() throws Exception {
+		MockMultipartFile image = photo();
+		String hash = sha256(image);
+		// Too long for the name column, so the insert fails after the image was stored
+		MenuItem invalid = menuItem("x".repeat(300));
+
+		assertThrows(RuntimeException.class,
+			() -> menuItemService.addMenuItem(invalid, restaurant.getId(), ownerPrincipal(), image));
+
+		assertFalse(blobStore.contains(hash));
+		assertEquals(List.of(), menuItemService.getAvailableMenuItems(restaurant.getId()));
+		assertEquals(List.of(), catalogSearchService.search("xxxxxxxx", 10).getMenuItems());
+	}
+
+	@Test
+	void failedSaveKeepsABlobAnotherItemUses() throws Exception {
+		MockMultipartFile image = photo();
+		MenuItem kept = menuItemService.addMenuItem(menuItem("Nachos"), restaurant.getId(), ownerPrincipal(), image);
+
+		assertThrows(RuntimeException.class,
+			() -> menuItemService.addMenuItem(menuItem("x".repeat(300)), restaurant.getId(), ownerPrincipal(), image));
+
+		assertTrue(blobStore.contains(sha256(image)));
+		assertTrue(menuImageService.findImage(kept.getId()).isPresent());
+	}
+
+	private JwtPrincipal ownerPrincipal() {
+		return new JwtPrincipal(owner.getId(), owner.getEmail(), Role.HOTEL, null);
+	}
+
+	private MenuItem menuItem(String name) {
+		MenuItem item = new MenuItem();
+		item.setName(name);
+		item.setPrice(7.0);
+		return item;
+	}
+
+	private MockMultipartFile photo() {
+		// Random bytes per test, so no blob is shared with another test run against the same directory
+		byte[] bytes = new byte[2048];
+		new Random().nextBytes(bytes);
+		return new MockMultipartFile("image", "photo.png", "image/png", bytes);
+	}
+
+	private String sha256(MockMultipartFile image) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(image.getBytes()));
+	}
+}
@@ -0,0 +1,301 @@
+package com.foodapp.food_ordering_system;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import dto.OrderIntakeDto;
+import dto.OrderRequestDto;
+import entity.MenuItem;
+import entity.Order;
+import entity.Restaurant;
+import entity.Role;
+import entity.User;
+import repository.MenuItemRepository;
+import repository.OrderBatchRepository;
+import repository.OrderRepository;
+import repository.RestaurantRepository;
+import repository.UserRepository;
+import security.JwtPrincipal;
+import security.JwtUtil;
+import service.OrderIntakeService;
+
+/**
+ * Drives the asynchronous intake path end to end on an in-memory database. The batch
+ * repository can hold the writer inside its first insert, so tests decide what is
+ * queued behind it.
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:intake;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.show-sql=false",
+	"blobs.dir=target/test-blobs",
+	"ratings.consistency-check-minutes=0",
+	"orders.intake.queue-capacity=5"
+})
+@AutoConfigureMockMvc
+class OrderIntakeTests {
+
+	@Autowired private MockMvc mockMvc;
+	@Autowired private JwtUtil jwtUtil;
+	@Autowired private OrderIntakeService orderIntakeService;
+	@Autowired private GatedOrderBatchRepository orderBatchRepository;
+	@Autowired private OrderRepository orderRepository;
+	@Autowired private MenuItemRepository menuItemRepository;
+	@Autowired private RestaurantRepository restaurantRepository;
+	@Autowired private UserRepository userRepository;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	private User customer;
+	private User otherCustomer;
+	private Restaurant restaurant;
+	private MenuItem burger;
+	private MenuItem fries;
+
+	@BeforeEach
+	void setUp() {
+		orderRepository.deleteAll();
+		menuItemRepository.deleteAll();
+		restaurantRepository.deleteAll();
+		userRepository.deleteAll();
+		orderBatchRepository.batchSizes().clear();
+
+		User owner = userRepository.save(user("owner@example.com", Role.HOTEL));
+		customer = userRepository.save(user("customer@example.com", Role.USER));
+		otherCustomer = userRepository.save(user("other@example.com", Role.USER));
+
+		restaurant = new Restaurant();
+		restaurant.setName("Diner");
+		restaurant.setCuisineType("American");
+		restaurant.setHotelOwner(owner);
+		restaurant = restaurantRepository.save(restaurant);
+
+		burger = menuItemRepository.save(menuItem("Burger", 8.0));
+		fries = menuItemRepository.save(menuItem("Fries", 3.0));
+	}
+
+	@AfterEach
+	void releaseWriter() {
+		orderBatchRepository.release();
+	}
+
+	@Test
+	void ordersQueuedBehindAWriteGoOutAsOneBatch() throws Exception {
+		orderBatchRepository.hold();
+		String first = submit(burger);
+		orderBatchRepository.awaitHeld();
+
+		List<String> queued = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			queued.add(submit(i % 2 == 0 ? burger : fries));
+		}
+		assertEquals("QUEUED", orderIntakeService.getStatus(queued.get(0), customerPrincipal()).getStatus());
+
+		orderBatchRepository.release();
+		List<Long> orderIds = new ArrayList<>();
+		for (String handle : queued) {
+			OrderIntakeDto written = awaitOutcome(handle);
+			assertEquals("WRITTEN", written.getStatus());
+			orderIds.add(written.getOrderId());
+		}
+		assertEquals("WRITTEN", awaitOutcome(first).getStatus());
+		assertEquals(List.of(1, 5), List.copyOf(orderBatchRepository.batchSizes()));
+
+		// One batch, one timestamp, taken when it was written
+		List<Order> batch = orderRepository.findAllById(orderIds);
+		assertEquals(5, batch.size());
+		assertEquals(1, batch.stream().map(Order::getCreatedAt).distinct().count());
+		assertEquals(5, jdbcTemplate.queryForObject(
+			"SELECT COUNT(*) FROM order_items WHERE order_id IN (" + joined(orderIds) + ")", Integer.class));
+	}
+
+	@Test
+	void aFailedBatchIsRetriedOrderByOrder() throws Exception {
+		orderBatchRepository.hold();
+		submit(burger);
+		orderBatchRepository.awaitHeld();
+
+		String good = submit(burger);
+		String bad = submit(fries);
+		// The queued order now points at a menu item that no longer exists
+		menuItemRepository.deleteById(fries.getId());
+
+		orderBatchRepository.release();
+		OrderIntakeDto written = awaitOutcome(good);
+		OrderIntakeDto failed = awaitOutcome(bad);
+
+		assertEquals("WRITTEN", written.getStatus());
+		assertNotNull(written.getOrderId());
+		assertEquals("FAILED", failed.getStatus());
+		assertEquals("Order could not be saved.", failed.getMessage());
+		assertEquals(List.of(1, 2, 1, 1), List.copyOf(orderBatchRepository.batchSizes()));
+	}
+
+	@Test
+	void aFullQueueIsRejectedWith503() throws Exception {
+		orderBatchRepository.hold();
+		submit(burger);
+		orderBatchRepository.awaitHeld();
+		for (int i = 0; i < 5; i++) {
+			submit(burger);
+		}
+
+		String token = "Bearer " + jwtUtil.generateToken(customer.getEmail(), customer.getRole().toString(), customer.getId());
+		mockMvc.perform(post("/api/orders/" + customer.getId() + "/" + restaurant.getId() + "/intake")
+				.header("Authorization", token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"items\":[{\"menuItemId\":" + burger.getId() + ",\"quantity\":1}]}"))
+			.andExpect(status().isServiceUnavailable());
+
+		orderBatchRepository.release();
+		String handle = submit(burger);
+		assertEquals("WRITTEN", awaitOutcome(handle).getStatus());
+		mockMvc.perform(get("/api/orders/intake/" + handle).header("Authorization", token))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.status").value("WRITTEN"));
+	}
+
+	@Test
+	void onlyTheSubmitterCanResolveAHandle() throws Exception {
+		orderBatchRepository.hold();
+		String queued = submit(burger);
+		orderBatchRepository.awaitHeld();
+		String other = "Bearer " + jwtUtil.generateToken(otherCustomer.getEmail(), otherCustomer.getRole().toString(), otherCustomer.getId());
+
+		mockMvc.perform(get("/api/orders/intake/" + queued).header("Authorization", other))
+			.andExpect(status().isForbidden());
+
+		orderBatchRepository.release();
+		assertEquals("WRITTEN", awaitOutcome(queued).getStatus());
+		mockMvc.perform(get("/api/orders/intake/" + queued).header("Authorization", other))
+			.andExpect(status().isForbidden());
+	}
+
+	private String submit(MenuItem item) {
+		OrderRequestDto.OrderItemDto line = new OrderRequestDto.OrderItemDto();
+		line.setMenuItemId(item.getId());
+		line.setQuantity(1);
+		OrderRequestDto request = new OrderRequestDto();
+		request.setItems(List.of(line));
+		request.setDeliveryAddress("1 Main St");
+		return orderIntakeService.submit(request, customerPrincipal(), restaurant.getId()).getHandle();
+	}
+
+	private JwtPrincipal customerPrincipal() {
+		return new JwtPrincipal(customer.getId(), customer.getEmail(), Role.USER, null);
+	}
+
+	private OrderIntakeDto awaitOutcome(String handle) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (true) {
+			OrderIntakeDto status = orderIntakeService.getStatus(handle, customerPrincipal());
+			if (!"QUEUED".equals(status.getStatus())) {
+				return status;
+			}
+			assertTrue(System.nanoTime() < deadline, "Order " + handle + " was never written");
+			Thread.sleep(10);
+		}
+	}
+
+	private static String joined(List<Long> ids) {
+		return String.join(",", ids.stream().map(String::valueOf).toList());
+	}
+
+	private MenuItem menuItem(String name, double price) {
+		MenuItem item = new MenuItem();
+		item.setName(name);
+		item.setPrice(price);
+		item.setRestaurant(restaurant);
+		return item;
+	}
+
+	private User user(String email, Role role) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName(email.substring(0, email.indexOf('@')));
+		user.setPassword("secret");
+		user.setRole(role);
+		return user;
+	}
+
+	@TestConfiguration
+	static class IntakeTestConfiguration {
+
+		@Bean
+		@Primary
+		GatedOrderBatchRepository gatedOrderBatchRepository(JdbcTemplate jdbcTemplate) {
+			return new GatedOrderBatchRepository(jdbcTemplate);
+		}
+	}
+
+	/**
+	 * Records every batch it is asked to insert and can hold the writer before inserting.
+	 * Only reached through methods, as the bean is a transactional proxy.
+	 */
+	static class GatedOrderBatchRepository extends OrderBatchRepository {
+		private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+		private volatile CountDownLatch gate = new CountDownLatch(0);
+		private volatile CountDownLatch held = new CountDownLatch(0);
+
+		GatedOrderBatchRepository(JdbcTemplate jdbcTemplate) {
+			super(jdbcTemplate);
+		}
+
+		public List<Integer> batchSizes() {
+			return batchSizes;
+		}
+
+		public void hold() {
+			held = new CountDownLatch(1);
+			gate = new CountDownLatch(1);
+		}
+
+		public void awaitHeld() throws InterruptedException {
+			assertTrue(held.await(10, TimeUnit.SECONDS), "Writer never reached the database");
+		}
+
+		public void release() {
+			gate.countDown();
+		}
+
+		@Override
+		public void insertAll(List<Order> orders) {
+			held.countDown();
+			try {
+				gate.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+			batchSizes.add(orders.size());
+			super.insertAll(orders);
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package com.foodapp.food_ordering_system;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import dto.OrderDto;
+import dto.OrderPageDto;
+import entity.MenuItem;
+import entity.Order;
+import entity.OrderItem;
+import entity.Restaurant;
+import entity.Role;
+import entity.User;
+import repository.MenuItemRepository;
+import repository.OrderRepository;
+import repository.RestaurantRepository;
+import repository.UserRepository;
+import security.JwtUtil;
+import service.OrderService;
+
+/**
+ * Walks the keyset-paginated order listings on an in-memory database, including
+ * orders that share a created_at timestamp.
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:orderpages;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.show-sql=false",
+	"blobs.dir=target/test-blobs",
+	"ratings.consistency-check-minutes=0"
+})
+@AutoConfigureMockMvc
+class OrderPageTests {
+
+	private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+	@Autowired private MockMvc mockMvc;
+	@Autowired private JwtUtil jwtUtil;
+	@Autowired private OrderService orderService;
+	@Autowired private UserRepository userRepository;
+	@Autowired private RestaurantRepository restaurantRepository;
+	@Autowired private MenuItemRepository menuItemRepository;
+	@Autowired private OrderRepository orderRepository;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	private User owner;
+	private User customer;
+	private User otherCustomer;
+	private Restaurant restaurant;
+	private Restaurant otherRestaurant;
+	private MenuItem burger;
+
+	@BeforeEach
+	void setUp() {
+		orderRepository.deleteAll();
+		menuItemRepository.deleteAll();
+		restaurantRepository.deleteAll();
+		userRepository.deleteAll();
+
+		owner = userRepository.save(user("owner@example.com", Role.HOTEL));
+		customer = userRepository.save(user("customer@example.com", Role.USER));
+		otherCustomer = userRepository.save(user("other@example.com", Role.USER));
+		restaurant = restaurantRepository.save(restaurant("Diner", owner));
+		otherRestaurant = restaurantRepository.save(restaurant("Cafe", owner));
+
+		burger = new MenuItem();
+		burger.setName("Burger");
+		burger.setPrice(5.0);
+		burger.setRestaurant(restaurant);
+		burger = menuItemRepository.save(burger);
+	}
+
+	@Test
+	void cursorPagesVisitEveryOrderOnceAcrossEqualTimestamps() {
+		List<Order> placed = new ArrayList<>();
+		// Three at noon, two a minute later, two at the same minute after that
+		int[] minutes = {0, 0, 0, 1, 1, 2, 2};
+		for (int minute : minutes) {
+			placed.add(order(restaurant, customer, NOON.plusMinutes(minute)));
+		}
+		order(otherRestaurant, otherCustomer, NOON.plusMinutes(1));
+
+		List<Long> expected = placed.stream()
+			.sorted(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed())
+			.map(Order::getId)
+			.toList();
+
+		assertEquals(expected, walk(cursor -> orderService.getOrdersPageByRestaurant(restaurant.getId(), cursor, null, 2)));
+		assertEquals(expected, walk(cursor -> orderService.getOrdersPageByUser(customer.getId(), cursor, null, 2)));
+		// A page size that ends exactly on a timestamp boundary
+		assertEquals(expected, walk(cursor -> orderService.getOrdersPageByRestaurant(restaurant.getId(), cursor, null, 3)));
+	}
+
+	@Test
+	void sinceRefreshReturnsOnlyNewerOrdersOldestFirst() {
+		order(restaurant, customer, NOON);
+		Order newest = order(restaurant, customer, NOON.plusMinutes(1));
+
+		OrderPageDto first = orderService.getOrdersPageByRestaurant(restaurant.getId(), null, null, 10);
+		assertEquals(newest.getId(), first.getOrders().get(0).getId());
+		String since = first.getSinceCursor();
+
+		// Nothing new yet: no orders and the same cursor back
+		OrderPageDto idle = orderService.getOrdersPageByRestaurant(restaurant.getId(), null, since, 10);
+		assertEquals(List.of(), idle.getOrders());
+		assertEquals(since, idle.getSinceCursor());
+
+		// One sharing the newest timestamp, split from it by id, and two later ones
+		List<Long> arrived = List.of(
+			order(restaurant, customer, NOON.plusMinutes(1)).getId(),
+			order(restaurant, customer, NOON.plusMinutes(2)).getId(),
+			order(restaurant, customer, NOON.plusMinutes(3)).getId());
+		order(otherRestaurant, otherCustomer, NOON.plusMinutes(2));
+
+		OrderPageDto refresh = orderService.getOrdersPageByRestaurant(restaurant.getId(), null, since, 2);
+		assertEquals(arrived.subList(0, 2), ids(refresh));
+		assertNull(refresh.getNextCursor());
+
+		OrderPageDto rest = orderService.getOrdersPageByRestaurant(restaurant.getId(), null, refresh.getSinceCursor(), 2);
+		assertEquals(arrived.subList(2, 3), ids(rest));
+
+		OrderPageDto caughtUp = orderService.getOrdersPageByRestaurant(restaurant.getId(), null, rest.getSinceCursor(), 2);
+		assertEquals(List.of(), caughtUp.getOrders());
+		assertEquals(rest.getSinceCursor(), caughtUp.getSinceCursor());
+	}
+
+	@Test
+	void pagesAreOnlyServedToTheirUserAndRestaurantOwner() throws Exception {
+		order(restaurant, customer, NOON);
+		String userPage = "/api/orders/user/" + customer.getId() + "/page";
+		String restaurantPage = "/api/orders/restaurant/" + restaurant.getId() + "/page";
+
+		mockMvc.perform(get(userPage).header("Authorization", bearer(customer)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.orders.length()").value(1));
+		mockMvc.perform(get(userPage).header("Authorization", bearer(otherCustomer)))
+			.andExpect(status().isForbidden());
+
+		mockMvc.perform(get(restaurantPage).header("Authorization", bearer(owner)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.orders.length()").value(1));
+		mockMvc.perform(get(restaurantPage).header("Authorization", bearer(customer)))
+			.andExpect(status().isForbidden());
+	}
+
+	private String bearer(User user) {
+		return "Bearer " + jwtUtil.generateToken(user.getEmail(), user.getRole().toString(), user.getId());
+	}
+
+	private List<Long> walk(Function<String, OrderPageDto> pages) {
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		do {
+			OrderPageDto page = pages.apply(cursor);
+			seen.addAll(ids(page));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		return seen;
+	}
+
+	private static List<Long> ids(OrderPageDto page) {
+		return page.getOrders().stream().map(OrderDto::getId).toList();
+	}
+
+	private Order order(Restaurant from, User by, LocalDateTime createdAt) {
+		Order order = new Order();
+		order.setUser(by);
+		order.setRestaurant(from);
+		order.setTotalAmount(5.0);
+		OrderItem line = new OrderItem();
+		line.setMenuItem(burger);
+		line.setQuantity(1);
+		line.setPriceAtOrder(5.0);
+		order.addItem(line);
+		order = orderRepository.save(order);
+		// created_at is stamped on persist; pin it so tests control ties
+		jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", Timestamp.valueOf(createdAt), order.getId());
+		order.setCreatedAt(createdAt);
+		return order;
+	}
+
+	private Restaurant restaurant(String name, User owner) {
+		Restaurant restaurant = new Restaurant();
+		restaurant.setName(name);
+		restaurant.setHotelOwner(owner);
+		return restaurant;
+	}
+
+	private User user(String email, Role role) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName(email.substring(0, email.indexOf('@')));
+		user.setPassword("secret");
+		user.setRole(role);
+		return user;
+	}
+}
@@ -0,0 +1,157 @@
+package com.foodapp.food_ordering_system;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import dto.OrderStatusDto;
+import entity.Order;
+import entity.OrderStatus;
+import entity.Restaurant;
+import entity.Role;
+import entity.User;
+import exception.OrderStatusConflictException;
+import exception.UnauthorizedActionException;
+import repository.MenuItemRepository;
+import repository.OrderRepository;
+import repository.RestaurantRepository;
+import repository.UserRepository;
+import security.JwtPrincipal;
+import service.OrderService;
+
+/**
+ * Races status updates on one order against a real database, so the conditional
+ * UPDATE is what keeps the transitions legal rather than a stand-in for it.
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:orderstatus;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.show-sql=false",
+	"blobs.dir=target/test-blobs",
+	"ratings.consistency-check-minutes=0"
+})
+class OrderStatusConcurrencyTests {
+
+	private static final Map<OrderStatus, Set<OrderStatus>> LEGAL = Map.of(
+		OrderStatus.PLACED, EnumSet.of(OrderStatus.PREPARING, OrderStatus.CANCELLED),
+		OrderStatus.PREPARING, EnumSet.of(OrderStatus.OUT_FOR_DELIVERY, OrderStatus.CANCELLED),
+		OrderStatus.OUT_FOR_DELIVERY, EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED),
+		OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class),
+		OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+	@Autowired private OrderService orderService;
+	@Autowired private UserRepository userRepository;
+	@Autowired private RestaurantRepository restaurantRepository;
+	@Autowired private MenuItemRepository menuItemRepository;
+	@Autowired private OrderRepository orderRepository;
+
+	private JwtPrincipal customer;
+	private JwtPrincipal owner;
+	private Restaurant restaurant;
+	private User customerUser;
+
+	@BeforeEach
+	void setUp() {
+		orderRepository.deleteAll();
+		menuItemRepository.deleteAll();
+		restaurantRepository.deleteAll();
+		userRepository.deleteAll();
+
+		User ownerUser = userRepository.save(user("owner@example.com", Role.HOTEL));
+		customerUser = userRepository.save(user("customer@example.com", Role.USER));
+		owner = new JwtPrincipal(ownerUser.getId(), ownerUser.getEmail(), Role.HOTEL, null);
+		customer = new JwtPrincipal(customerUser.getId(), customerUser.getEmail(), Role.USER, null);
+
+		restaurant = new Restaurant();
+		restaurant.setName("Diner");
+		restaurant.setHotelOwner(ownerUser);
+		restaurant = restaurantRepository.save(restaurant);
+	}
+
+	@Test
+	void concurrentStatusUpdatesOnlyPersistLegalTransitions() throws Exception {
+		for (int round = 0; round < 5; round++) {
+			Long orderId = placeOrder();
+			List<OrderStatusDto> applied = Collections.synchronizedList(new ArrayList<>());
+
+			ExecutorService pool = Executors.newFixedThreadPool(16);
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> workers = new ArrayList<>();
+			for (int t = 0; t < 16; t++) {
+				JwtPrincipal actor = t % 2 == 0 ? customer : owner;
+				workers.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < 40; i++) {
+						OrderStatus target = OrderStatus.values()[ThreadLocalRandom.current().nextInt(OrderStatus.values().length)];
+						try {
+							applied.add(orderService.updateOrderStatus(orderId, target, actor));
+						} catch (UnauthorizedActionException | OrderStatusConflictException expected) {
+							// Rejected transitions and lost races are the point of the test
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+			pool.shutdown();
+
+			// Each state can be left at most once, so the winners form a single legal chain
+			Map<OrderStatus, OrderStatus> next = new EnumMap<>(OrderStatus.class);
+			for (OrderStatusDto change : applied) {
+				OrderStatus from = OrderStatus.valueOf(change.getPreviousStatus());
+				OrderStatus to = OrderStatus.valueOf(change.getStatus());
+				assertTrue(LEGAL.get(from).contains(to), from + " -> " + to);
+				assertNull(next.put(from, to), "Two updates left " + from);
+			}
+			OrderStatus current = OrderStatus.PLACED;
+			int steps = 0;
+			for (; next.containsKey(current); current = next.get(current)) {
+				steps++;
+			}
+			assertEquals(applied.size(), steps);
+			assertEquals(current, orderRepository.findById(orderId).orElseThrow().getStatus());
+		}
+	}
+
+	private Long placeOrder() {
+		Order order = new Order();
+		order.setUser(customerUser);
+		order.setRestaurant(restaurant);
+		order.setTotalAmount(10.0);
+		return orderRepository.save(order).getId();
+	}
+
+	private User user(String email, Role role) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName(email.substring(0, email.indexOf('@')));
+		user.setPassword("secret");
+		user.setRole(role);
+		return user;
+	}
+}
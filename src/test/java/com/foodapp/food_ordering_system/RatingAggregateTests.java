@@ -0,0 +1,274 @@
+package com.foodapp.food_ordering_system;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import dto.MenuItemDto;
+import dto.RatingSummaryDto;
+import dto.RestaurantDto;
+import entity.MenuItem;
+import entity.Order;
+import entity.OrderItem;
+import entity.Restaurant;
+import entity.Role;
+import entity.User;
+import exception.DuplicateReviewException;
+import repository.MenuItemRepository;
+import repository.OrderRepository;
+import repository.RestaurantRepository;
+import repository.ReviewRepository;
+import repository.UserRepository;
+import security.JwtPrincipal;
+import security.JwtUtil;
+import service.MenuItemService;
+import service.RatingAggregateService;
+
+/**
+ * Checks the rating aggregates against the reviews they summarise, on an in-memory database.
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:ratings;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.show-sql=false",
+	"blobs.dir=target/test-blobs",
+	"ratings.consistency-check-minutes=0"
+})
+@AutoConfigureMockMvc
+class RatingAggregateTests {
+
+	@Autowired private MockMvc mockMvc;
+	@Autowired private JwtUtil jwtUtil;
+
+	@Autowired private MenuItemService menuItemService;
+	@Autowired private RatingAggregateService ratingAggregateService;
+	@Autowired private UserRepository userRepository;
+	@Autowired private RestaurantRepository restaurantRepository;
+	@Autowired private MenuItemRepository menuItemRepository;
+	@Autowired private OrderRepository orderRepository;
+	@Autowired private ReviewRepository reviewRepository;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	private User owner;
+	private User customer;
+	private Restaurant restaurant;
+	private MenuItem burger;
+	private MenuItem fries;
+	private MenuItem salad;
+
+	@BeforeEach
+	void setUp() {
+		reviewRepository.deleteAll();
+		orderRepository.deleteAll();
+		menuItemRepository.deleteAll();
+		restaurantRepository.deleteAll();
+		userRepository.deleteAll();
+
+		owner = userRepository.save(user("owner@example.com", Role.HOTEL));
+		customer = userRepository.save(user("customer@example.com", Role.USER));
+
+		restaurant = new Restaurant();
+		restaurant.setName("Diner");
+		restaurant.setHotelOwner(owner);
+		restaurant = restaurantRepository.save(restaurant);
+
+		burger = menuItemRepository.save(menuItem("Burger"));
+		fries = menuItemRepository.save(menuItem("Fries"));
+		salad = menuItemRepository.save(menuItem("Salad"));
+	}
+
+	@Test
+	void reviewsFoldIntoRestaurantAndItemAggregates() {
+		// The burger is on two lines of the first order but is rated once per review
+		Order first = order(burger, burger, fries);
+		Order second = order(burger);
+		menuItemService.addReview(first.getId(), customerPrincipal(), 5, "Great");
+		menuItemService.addReview(second.getId(), customerPrincipal(), 2, "Cold");
+
+		RatingSummaryDto restaurantRating = restaurantRating();
+		assertEquals(2, restaurantRating.getCount());
+		assertEquals(3.5, restaurantRating.getAverage());
+		assertEquals(List.of(0L, 1L, 0L, 0L, 1L), restaurantRating.getHistogram());
+
+		assertEquals(2, itemRating(burger).getCount());
+		assertEquals(1, itemRating(fries).getCount());
+		assertEquals(5.0, itemRating(fries).getAverage());
+		assertEquals(0, itemRating(salad).getCount());
+		assertNull(itemRating(salad).getAverage());
+		assertEquals(0, ratingAggregateService.repairInconsistencies());
+	}
+
+	@Test
+	void concurrentReviewsAreAllCounted() throws Exception {
+		List<Order> orders = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			orders.add(order(burger, fries));
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<?>> reviews = new ArrayList<>();
+		for (int i = 0; i < orders.size(); i++) {
+			Long orderId = orders.get(i).getId();
+			int rating = i % 5 + 1;
+			reviews.add(pool.submit(() -> menuItemService.addReview(orderId, customerPrincipal(), rating, null)));
+		}
+		for (Future<?> review : reviews) {
+			review.get();
+		}
+		pool.shutdown();
+
+		RatingSummaryDto rating = restaurantRating();
+		assertEquals(40, rating.getCount());
+		assertEquals(3.0, rating.getAverage());
+		assertEquals(List.of(8L, 8L, 8L, 8L, 8L), rating.getHistogram());
+		assertEquals(40, itemRating(burger).getCount());
+	}
+
+	@Test
+	void anOrderIsReviewedAndCountedOnce() throws Exception {
+		Order placed = order(burger);
+		menuItemService.addReview(placed.getId(), customerPrincipal(), 5, "Great");
+		assertThrows(DuplicateReviewException.class,
+			() -> menuItemService.addReview(placed.getId(), customerPrincipal(), 1, "Again"));
+
+		// Racing retries of one review: the unique order_id lets exactly one through
+		Order raced = order(fries);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<?>> attempts = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			attempts.add(pool.submit(() -> menuItemService.addReview(raced.getId(), customerPrincipal(), 3, null)));
+		}
+		int accepted = 0;
+		for (Future<?> attempt : attempts) {
+			try {
+				attempt.get();
+				accepted++;
+			} catch (ExecutionException e) {
+				assertInstanceOf(DuplicateReviewException.class, e.getCause());
+			}
+		}
+		pool.shutdown();
+
+		assertEquals(1, accepted);
+		assertEquals(2, restaurantRating().getCount());
+		assertEquals(1, itemRating(burger).getCount());
+		assertEquals(1, itemRating(fries).getCount());
+		assertEquals(0, ratingAggregateService.repairInconsistencies());
+	}
+
+	@Test
+	void consistencyCheckRebuildsDriftedAggregates() {
+		Order placed = order(burger, fries);
+		menuItemService.addReview(placed.getId(), customerPrincipal(), 4, "Good");
+		jdbcTemplate.update("UPDATE restaurant SET rating_count = 0, rating_sum = 0, rating_4 = 0");
+		jdbcTemplate.update("UPDATE menu_item SET rating_count = 9 WHERE id = ?", fries.getId());
+		// An item nobody reviewed must come back to zero as well
+		jdbcTemplate.update("UPDATE menu_item SET rating_count = 2, rating_sum = 6, rating_3 = 2 WHERE id = ?", salad.getId());
+
+		assertEquals(3, ratingAggregateService.repairInconsistencies());
+
+		assertEquals(1, restaurantRating().getCount());
+		assertEquals(4.0, restaurantRating().getAverage());
+		assertEquals(1, itemRating(fries).getCount());
+		assertEquals(0, itemRating(salad).getCount());
+		assertEquals(List.of(0L, 0L, 0L, 0L, 0L), itemRating(salad).getHistogram());
+		assertEquals(0, ratingAggregateService.repairInconsistencies());
+	}
+
+	@Test
+	void ratingsInARequestBodyAreIgnored() throws Exception {
+		String body = "{\"name\":\"Fake Five Stars\",\"cuisineType\":\"Thai\","
+			+ "\"ratings\":{\"ratingCount\":1000,\"ratingSum\":5000,\"fiveStars\":1000}}";
+		String token = jwtUtil.generateToken(owner.getEmail(), owner.getRole().toString(), owner.getId());
+
+		mockMvc.perform(post("/api/restaurants/" + owner.getId())
+				.header("Authorization", "Bearer " + token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(body))
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.ratings.ratingCount").value(0));
+
+		RatingSummaryDto stored = restaurantRepository.findAllDtos().stream()
+			.filter(dto -> "Fake Five Stars".equals(dto.getName()))
+			.map(RestaurantDto::getRating)
+			.findFirst().orElseThrow();
+		assertEquals(0, stored.getCount());
+		assertNull(stored.getAverage());
+		assertEquals(List.of(0L, 0L, 0L, 0L, 0L), stored.getHistogram());
+	}
+
+	private RatingSummaryDto restaurantRating() {
+		return restaurantRepository.findAllDtos().stream()
+			.filter(dto -> dto.getId().equals(restaurant.getId()))
+			.map(RestaurantDto::getRating)
+			.findFirst().orElseThrow();
+	}
+
+	private RatingSummaryDto itemRating(MenuItem item) {
+		return menuItemRepository.findDtosByRestaurantId(restaurant.getId()).stream()
+			.filter(dto -> dto.getId().equals(item.getId()))
+			.map(MenuItemDto::getRating)
+			.findFirst().orElseThrow();
+	}
+
+	private Order order(MenuItem... items) {
+		Order order = new Order();
+		order.setUser(customer);
+		order.setRestaurant(restaurant);
+		order.setTotalAmount(10.0);
+		for (MenuItem menuItem : items) {
+			OrderItem line = new OrderItem();
+			line.setMenuItem(menuItem);
+			line.setQuantity(1);
+			line.setPriceAtOrder(5.0);
+			order.addItem(line);
+		}
+		return orderRepository.save(order);
+	}
+
+	private JwtPrincipal customerPrincipal() {
+		return new JwtPrincipal(customer.getId(), customer.getEmail(), Role.USER, null);
+	}
+
+	private User user(String email, Role role) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName(email.substring(0, email.indexOf('@')));
+		user.setPassword("secret");
+		user.setRole(role);
+		return user;
+	}
+
+	private MenuItem menuItem(String name) {
+		MenuItem item = new MenuItem();
+		item.setName(name);
+		item.setPrice(5.0);
+		item.setRestaurant(restaurant);
+		return item;
+	}
+}
@@ -0,0 +1,160 @@
+package com.foodapp.food_ordering_system;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import dto.ReviewDto;
+import dto.ReviewPageDto;
+import entity.MenuItem;
+import entity.Order;
+import entity.OrderItem;
+import entity.Restaurant;
+import entity.Role;
+import entity.User;
+import repository.MenuItemRepository;
+import repository.OrderRepository;
+import repository.RestaurantRepository;
+import repository.ReviewRepository;
+import repository.UserRepository;
+import security.JwtPrincipal;
+import service.MenuItemService;
+
+/**
+ * Walks the keyset-paginated review listings on an in-memory database.
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:reviewpages;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.show-sql=false",
+	"blobs.dir=target/test-blobs",
+	"ratings.consistency-check-minutes=0"
+})
+class ReviewPageTests {
+
+	@Autowired private MenuItemService menuItemService;
+	@Autowired private UserRepository userRepository;
+	@Autowired private RestaurantRepository restaurantRepository;
+	@Autowired private MenuItemRepository menuItemRepository;
+	@Autowired private OrderRepository orderRepository;
+	@Autowired private ReviewRepository reviewRepository;
+
+	private User customer;
+	private Restaurant restaurant;
+	private MenuItem burger;
+	private MenuItem fries;
+
+	@BeforeEach
+	void setUp() {
+		reviewRepository.deleteAll();
+		orderRepository.deleteAll();
+		menuItemRepository.deleteAll();
+		restaurantRepository.deleteAll();
+		userRepository.deleteAll();
+
+		User owner = userRepository.save(user("owner@example.com", Role.HOTEL));
+		customer = userRepository.save(user("customer@example.com", Role.USER));
+
+		restaurant = new Restaurant();
+		restaurant.setName("Diner");
+		restaurant.setHotelOwner(owner);
+		restaurant = restaurantRepository.save(restaurant);
+
+		burger = menuItemRepository.save(menuItem("Burger"));
+		fries = menuItemRepository.save(menuItem("Fries"));
+	}
+
+	@Test
+	void itemPagesListEachReviewOnceNewestFirst() {
+		List<Long> written = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			// The burger is on two lines of every order
+			Order placed = i % 2 == 0 ? order(burger, burger, fries) : order(burger, burger);
+			written.add(menuItemService.addReview(placed.getId(), customerPrincipal(), 4, "Review " + i).getId());
+		}
+
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			ReviewPageDto page = menuItemService.getItemReviewsDto(burger.getId(), cursor, 2);
+			page.getReviews().forEach(review -> seen.add(review.getId()));
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(3, pages);
+		Collections.reverse(written);
+		assertEquals(written, seen);
+		assertEquals(3, menuItemService.getItemReviewsDto(fries.getId(), null, 10).getReviews().size());
+		assertEquals(5, menuItemService.getItemReviewsDto(burger.getId()).size());
+	}
+
+	@Test
+	void restaurantPagesFollowTheCursor() {
+		for (int i = 0; i < 3; i++) {
+			menuItemService.addReview(order(fries).getId(), customerPrincipal(), 5, null);
+		}
+
+		ReviewPageDto first = menuItemService.getRestaurantReviewsDto(restaurant.getId(), null, 2);
+		ReviewPageDto second = menuItemService.getRestaurantReviewsDto(restaurant.getId(), first.getNextCursor(), 2);
+
+		assertEquals(2, first.getReviews().size());
+		List<ReviewDto> rest = second.getReviews();
+		assertEquals(1, rest.size());
+		assertNull(second.getNextCursor());
+		assertTrue(rest.get(0).getId() < first.getReviews().get(1).getId());
+		assertThrows(IllegalArgumentException.class,
+			() -> menuItemService.getRestaurantReviewsDto(restaurant.getId(), "not-a-cursor", 2));
+	}
+
+	private Order order(MenuItem... items) {
+		Order order = new Order();
+		order.setUser(customer);
+		order.setRestaurant(restaurant);
+		order.setTotalAmount(10.0);
+		for (MenuItem menuItem : items) {
+			OrderItem line = new OrderItem();
+			line.setMenuItem(menuItem);
+			line.setQuantity(1);
+			line.setPriceAtOrder(5.0);
+			order.addItem(line);
+		}
+		return orderRepository.save(order);
+	}
+
+	private JwtPrincipal customerPrincipal() {
+		return new JwtPrincipal(customer.getId(), customer.getEmail(), Role.USER, null);
+	}
+
+	private User user(String email, Role role) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName(email.substring(0, email.indexOf('@')));
+		user.setPassword("secret");
+		user.setRole(role);
+		return user;
+	}
+
+	private MenuItem menuItem(String name) {
+		MenuItem item = new MenuItem();
+		item.setName(name);
+		item.setPrice(5.0);
+		item.setRestaurant(restaurant);
+		return item;
+	}
+}
@@ -0,0 +1,235 @@
+package com.foodapp.food_ordering_system;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import entity.MenuItem;
+import entity.Order;
+import entity.OrderItem;
+import entity.Restaurant;
+import entity.Review;
+import entity.Role;
+import entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import repository.MenuItemRepository;
+import repository.OrderRepository;
+import repository.RestaurantRepository;
+import repository.ReviewRepository;
+import repository.UserRepository;
+import security.JwtUtil;
+import service.RestaurantService;
+import service.UserService;
+
+/**
+ * Pins the number of SQL statements each endpoint issues, so a mapping or query
+ * change that reintroduces eager graph loading or N+1 selects fails the build.
+ * Runs against an in-memory database instead of the MySQL used by the application.
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:statements;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.show-sql=false",
+	"spring.jpa.properties.hibernate.generate_statistics=true",
+	"blobs.dir=target/test-blobs",
+	"ratings.consistency-check-minutes=0"
+})
+@AutoConfigureMockMvc
+class StatementCountRegressionTests {
+
+	@Autowired private MockMvc mockMvc;
+	@Autowired private EntityManagerFactory entityManagerFactory;
+	@Autowired private JwtUtil jwtUtil;
+	@Autowired private UserRepository userRepository;
+	@Autowired private RestaurantRepository restaurantRepository;
+	@Autowired private MenuItemRepository menuItemRepository;
+	@Autowired private OrderRepository orderRepository;
+	@Autowired private ReviewRepository reviewRepository;
+	@Autowired private RestaurantService restaurantService;
+	@Autowired private UserService userService;
+
+	private User customer;
+	private User owner;
+	private Restaurant restaurant;
+	private MenuItem burger;
+	private MenuItem fries;
+	private Order order;
+
+	@BeforeEach
+	void setUp() {
+		reviewRepository.deleteAll();
+		orderRepository.deleteAll();
+		menuItemRepository.deleteAll();
+		restaurantRepository.deleteAll();
+		userRepository.deleteAll();
+
+		owner = userRepository.save(user("owner@example.com", Role.HOTEL));
+		customer = userRepository.save(user("customer@example.com", Role.USER));
+
+		restaurant = new Restaurant();
+		restaurant.setName("Diner");
+		restaurant.setCuisineType("American");
+		restaurant.setHotelOwner(owner);
+		restaurant = restaurantRepository.save(restaurant);
+
+		burger = menuItemRepository.save(menuItem("Burger", 8.0));
+		fries = menuItemRepository.save(menuItem("Fries", 3.0));
+
+		Order reviewed = null;
+		for (int i = 0; i < 5; i++) {
+			Order placed = new Order();
+			placed.setUser(customer);
+			placed.setRestaurant(restaurant);
+			placed.setTotalAmount(11.0);
+			placed.addItem(orderItem(burger));
+			placed.addItem(orderItem(fries));
+			order = orderRepository.save(placed);
+			if (reviewed == null) {
+				reviewed = order;
+			}
+		}
+
+		// An earlier order is reviewed so the tests below can still review the latest one
+		Review review = new Review();
+		review.setOrder(reviewed);
+		review.setUser(customer);
+		review.setRestaurant(restaurant);
+		review.setRating(5);
+		reviewRepository.linkMenuItems(reviewRepository.save(review).getId());
+	}
+
+	@Test
+	void restaurantListingIsOneStatementThenServedFromSnapshot() throws Exception {
+		restaurantService.invalidateCatalog();
+		assertStatements(1, get("/api/restaurants"));
+		assertStatements(0, get("/api/restaurants"));
+	}
+
+	@Test
+	void menuListingIsOneStatementThenServedFromCache() throws Exception {
+		assertStatements(1, get("/api/menu-items/restaurant/" + restaurant.getId()));
+		assertStatements(0, get("/api/menu-items/restaurant/" + restaurant.getId()));
+	}
+
+	@Test
+	void reviewListingsAreOneStatement() throws Exception {
+		assertStatements(1, as(customer, get("/api/menu-items/reviews/restaurant/" + restaurant.getId())));
+		assertStatements(1, as(customer, get("/api/menu-items/reviews/item/" + burger.getId())));
+		assertStatements(1, as(customer, get("/api/menu-items/reviews/restaurant/" + restaurant.getId() + "/page?size=10")));
+		assertStatements(1, as(customer, get("/api/menu-items/reviews/item/" + burger.getId() + "/page?size=10")));
+	}
+
+	@Test
+	void orderListingsAreTwoStatementsWhateverTheirSize() throws Exception {
+		assertStatements(2, as(owner, get("/api/orders/restaurant/" + restaurant.getId())));
+		assertStatements(2, as(customer, get("/api/orders/user/" + customer.getId())));
+		assertStatements(2, as(customer, get("/api/orders/user/" + customer.getId() + "/page?size=3")));
+	}
+
+	@Test
+	void statusUpdateDoesNotLoadTheOrderGraph() throws Exception {
+		// status projection, conditional update; the updater comes from the token
+		assertStatements(2, as(owner, put("/api/orders/" + order.getId() + "/status")
+			.param("status", "PREPARING")
+			.param("updaterId", owner.getId().toString())));
+	}
+
+	@Test
+	void orderPlacementLoadsEachTableOnce() throws Exception {
+		String cart = "{\"deliveryAddress\":\"1 Main St\",\"items\":["
+			+ "{\"menuItemId\":" + burger.getId() + ",\"quantity\":2},"
+			+ "{\"menuItemId\":" + fries.getId() + ",\"quantity\":1}]}";
+		userService.evictIdentity(customer.getId());
+		// customer identity, restaurant, menu items; then order + 2 item inserts
+		assertStatements(6, as(customer, post("/api/orders/" + customer.getId() + "/" + restaurant.getId())
+			.contentType(MediaType.APPLICATION_JSON)
+			.content(cart)));
+	}
+
+	@Test
+	void orderPlacementNeverScansUsers() throws Exception {
+		String cart = "{\"deliveryAddress\":\"1 Main St\",\"items\":["
+			+ "{\"menuItemId\":" + burger.getId() + ",\"quantity\":1}]}";
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		userService.evictIdentity(customer.getId());
+		statistics.clear();
+		for (int i = 0; i < 3; i++) {
+			mockMvc.perform(as(customer, post("/api/orders/" + customer.getId() + "/" + restaurant.getId())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(cart))).andExpect(status().is2xxSuccessful());
+		}
+		// The first order reads the customer's identity by primary key; later ones use the cache.
+		// Each order also reads the restaurant and menu items and inserts the order and one line.
+		assertEquals(1 + 3 * 4, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+
+		// restaurant, menu items; then order + item insert
+		assertStatements(4, as(customer, post("/api/orders/" + customer.getId() + "/" + restaurant.getId())
+			.contentType(MediaType.APPLICATION_JSON)
+			.content(cart)));
+	}
+
+	@Test
+	void addingReviewUpdatesAggregatesWithoutReadingReviews() throws Exception {
+		// order, duplicate review check, review insert, menu item link insert, restaurant aggregate update,
+		// menu item aggregate update
+		assertStatements(6, as(customer, post("/api/menu-items/review/" + order.getId() + "/user/" + customer.getId())
+			.param("rating", "4")
+			.param("comment", "Good")));
+	}
+
+	private void assertStatements(long expected, RequestBuilder request) throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+		assertEquals(expected, statistics.getPrepareStatementCount());
+	}
+
+	private MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+		String token = jwtUtil.generateToken(user.getEmail(), user.getRole().toString(), user.getId());
+		return request.header("Authorization", "Bearer " + token);
+	}
+
+	private User user(String email, Role role) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName(email.substring(0, email.indexOf('@')));
+		user.setPassword("secret");
+		user.setRole(role);
+		return user;
+	}
+
+	private MenuItem menuItem(String name, double price) {
+		MenuItem item = new MenuItem();
+		item.setName(name);
+		item.setPrice(price);
+		item.setRestaurant(restaurant);
+		return item;
+	}
+
+	private OrderItem orderItem(MenuItem menuItem) {
+		OrderItem item = new OrderItem();
+		item.setMenuItem(menuItem);
+		item.setQuantity(1);
+		item.setPriceAtOrder(menuItem.getPrice());
+		return item;
+	}
+}
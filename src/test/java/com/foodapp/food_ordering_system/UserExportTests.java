@@ -0,0 +1,124 @@
+package com.foodapp.food_ordering_system;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dto.UserPageDto;
+import entity.Role;
+import entity.User;
+import repository.UserRepository;
+import security.JwtUtil;
+
+/**
+ * Walks the administrator user listing and reads the NDJSON export on an in-memory database.
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:userexport;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+	"spring.datasource.driver-class-name=org.h2.Driver",
+	"spring.datasource.username=sa",
+	"spring.datasource.password=",
+	"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"spring.jpa.show-sql=false",
+	"blobs.dir=target/test-blobs",
+	"ratings.consistency-check-minutes=0",
+	"users.export.fetch-size=2"
+})
+@AutoConfigureMockMvc
+class UserExportTests {
+
+	@Autowired private MockMvc mockMvc;
+	@Autowired private ObjectMapper objectMapper;
+	@Autowired private JwtUtil jwtUtil;
+	@Autowired private UserRepository userRepository;
+
+	private User admin;
+	private User customer;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		admin = userRepository.save(user("admin@example.com", Role.ADMIN));
+		customer = userRepository.save(user("customer@example.com", Role.USER));
+		for (int i = 0; i < 5; i++) {
+			userRepository.save(user("user" + i + "@example.com", Role.USER));
+		}
+	}
+
+	@Test
+	void listingWalksAllUsersInIdOrder() throws Exception {
+		List<Long> seen = new ArrayList<>();
+		Long afterId = null;
+		do {
+			MockHttpServletRequestBuilder request = get("/api/users").param("size", "3");
+			if (afterId != null) {
+				request.param("afterId", afterId.toString());
+			}
+			String body = mockMvc.perform(as(admin, request))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+			assertFalse(body.contains("password"));
+			UserPageDto page = objectMapper.readValue(body, UserPageDto.class);
+			page.getUsers().forEach(summary -> seen.add(summary.getId()));
+			afterId = page.getNextAfterId();
+		} while (afterId != null);
+
+		List<Long> expected = userRepository.findAll().stream().map(User::getId).sorted().toList();
+		assertEquals(expected, seen);
+	}
+
+	@Test
+	void exportWritesOneJsonObjectPerUser() throws Exception {
+		String body = mockMvc.perform(as(admin, get("/api/users/export")))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+
+		String[] lines = body.split("\n");
+		assertEquals(7, lines.length);
+		long previousId = 0;
+		for (String line : lines) {
+			JsonNode node = objectMapper.readTree(line);
+			assertNull(node.get("password"));
+			assertTrue(node.get("id").asLong() > previousId);
+			previousId = node.get("id").asLong();
+		}
+	}
+
+	@Test
+	void onlyAdministratorsCanListOrExport() throws Exception {
+		mockMvc.perform(as(customer, get("/api/users"))).andExpect(status().isForbidden());
+		mockMvc.perform(as(customer, get("/api/users/export"))).andExpect(status().isForbidden());
+	}
+
+	private MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+		String token = jwtUtil.generateToken(user.getEmail(), user.getRole().toString(), user.getId());
+		return request.header("Authorization", "Bearer " + token);
+	}
+
+	private User user(String email, Role role) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName(email.substring(0, email.indexOf('@')));
+		user.setPassword("secret");
+		user.setRole(role);
+		return user;
+	}
+}
@@ -0,0 +1,86 @@
+package config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+class RequestTracingFilterTest {
+
+	private RequestTracingFilter filter;
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		filter = new RequestTracingFilter(meterRegistry, 0.5, 1000);
+	}
+
+	@Test
+	void eachRequestGetsANewTraceIdVisibleToTheChainAndTheCaller() throws Exception {
+		List<String> seenInChain = new ArrayList<>();
+		List<String> returned = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			filter.doFilter(new MockHttpServletRequest("GET", "/api/restaurants"), response,
+				(req, res) -> seenInChain.add(MDC.get(RequestTracingFilter.TRACE_MDC_KEY)));
+			returned.add(response.getHeader(RequestTracingFilter.TRACE_HEADER));
+			assertNull(MDC.get(RequestTracingFilter.TRACE_MDC_KEY));
+		}
+
+		assertEquals(returned, seenInChain);
+		assertEquals(3, returned.stream().distinct().count());
+		// Same process prefix, increasing counter
+		String prefix = returned.get(0).substring(0, returned.get(0).indexOf('-'));
+		for (int i = 0; i < returned.size(); i++) {
+			assertTrue(returned.get(i).startsWith(prefix + "-"));
+			assertEquals(i + 1, Long.parseLong(returned.get(i).substring(prefix.length() + 1), 16));
+		}
+	}
+
+	@Test
+	void wellFormedIncomingTraceIdsAreKept() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/restaurants");
+		request.addHeader(RequestTracingFilter.TRACE_HEADER, "upstream-42");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, (req, res) -> {});
+		assertEquals("upstream-42", response.getHeader(RequestTracingFilter.TRACE_HEADER));
+
+		MockHttpServletRequest forged = new MockHttpServletRequest("GET", "/api/restaurants");
+		forged.addHeader(RequestTracingFilter.TRACE_HEADER, "bad id\nINFO injected");
+		response = new MockHttpServletResponse();
+		filter.doFilter(forged, response, (req, res) -> {});
+		assertNotEquals("bad id\nINFO injected", response.getHeader(RequestTracingFilter.TRACE_HEADER));
+	}
+
+	@Test
+	void traceIdIsClearedWhenTheChainThrows() {
+		FilterChain failing = (req, res) -> {
+			throw new ServletException("boom");
+		};
+		assertThrows(ServletException.class, () -> filter.doFilter(
+			new MockHttpServletRequest("GET", "/api/orders"), new MockHttpServletResponse(), failing));
+		assertNull(MDC.get(RequestTracingFilter.TRACE_MDC_KEY));
+	}
+
+	@Test
+	void slowRequestsAreCounted() throws Exception {
+		RequestTracingFilter strict = new RequestTracingFilter(meterRegistry, 0, 0);
+		strict.doFilter(new MockHttpServletRequest("GET", "/api/restaurants"), new MockHttpServletResponse(), (req, res) -> {});
+		assertEquals(1.0, meterRegistry.counter("http.server.requests.slow").count());
+	}
+}
@@ -0,0 +1,190 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import repository.MenuItemRepository;
+import service.BlobStore;
+import service.ImageUploadService;
+import service.MenuImageService;
+import service.MenuItemService;
+
+class MenuItemImageTest {
+
+	@TempDir
+	Path dir;
+
+	private MockMvc mockMvc;
+	private MenuItemRepository menuItemRepository;
+	private byte[] photo;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		Path legacyDir = Files.createDirectories(dir.resolve("menu-images"));
+		photo = new byte[4096];
+		new Random(42).nextBytes(photo);
+		Files.write(legacyDir.resolve("1.png"), photo);
+		// Same bytes under another item, as with a chain-wide menu photo
+		Files.write(legacyDir.resolve("2.jpg"), photo);
+		ImageIO.write(new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB), "png", legacyDir.resolve("3.png").toFile());
+
+		menuItemRepository = mock(MenuItemRepository.class);
+		when(menuItemRepository.findImageViews()).thenReturn(List.of());
+		when(menuItemRepository.findIdsWithoutImage()).thenReturn(List.of(1L, 2L, 3L, 4L));
+
+		// A 1 KiB hot limit keeps these files out of memory, so the file channel path is exercised
+		MenuImageService images = new MenuImageService(new BlobStore(dir.resolve("blobs").toString()), menuItemRepository,
+			new SimpleMeterRegistry(), legacyDir.toString(), 1 << 20, 1024, 1, 10, 600);
+		images.loadIndex();
+		mockMvc = MockMvcBuilders
+			.standaloneSetup(new MenuItemController(mock(MenuItemService.class), images, mock(ImageUploadService.class)))
+			.build();
+
+		// Item 1 is not a decodable image, so once its variant attempt fails the original is final
+		for (int attempt = 0; attempt < 100; attempt++) {
+			if (mockMvc.perform(get("/api/menu-items/image/1")).andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED) != null) {
+				break;
+			}
+			Thread.sleep(20);
+		}
+	}
+
+	@AfterEach
+	void awaitVariants() throws Exception {
+		// Item 3's variants are written in the background, the full one last; let them finish before the temp dir is removed
+		String fullType = null;
+		for (int attempt = 0; attempt < 100 && !"image/jpeg".equals(fullType); attempt++) {
+			fullType = mockMvc.perform(get("/api/menu-items/image/3").param("size", "full"))
+				.andReturn().getResponse().getContentType();
+			Thread.sleep(50);
+		}
+		assertEquals("image/jpeg", fullType);
+	}
+
+	@Test
+	void servesStoredTypeWithValidatorsAndRevalidation() throws Exception {
+		// The URL outlives a re-upload, so caches keep the bytes but must check the validator
+		byte[] body = mockMvc.perform(get("/api/menu-items/image/1"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+			.andExpect(header().exists(HttpHeaders.ETAG))
+			.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+			.andReturn().getResponse().getContentAsByteArray();
+		assertArrayEquals(photo, body);
+
+		mockMvc.perform(get("/api/menu-items/image/2"))
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"));
+	}
+
+	@Test
+	void identicalPhotosAreStoredOnce() throws Exception {
+		verify(menuItemRepository, times(3)).updateImage(anyLong(), anyString(), anyString());
+
+		String first = mockMvc.perform(get("/api/menu-items/image/1")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String second = mockMvc.perform(get("/api/menu-items/image/2")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertEquals(first, second);
+
+		try (Stream<Path> blobs = Files.walk(dir.resolve("blobs"))) {
+			assertEquals(2, blobs.filter(Files::isRegularFile)
+				.filter(path -> path.getFileName().toString().matches("[0-9a-f]{64}"))
+				.count());
+		}
+	}
+
+	@Test
+	void revalidationWithCurrentEtagReturnsNotModified() throws Exception {
+		String etag = mockMvc.perform(get("/api/menu-items/image/1"))
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/menu-items/image/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void servesSingleByteRange() throws Exception {
+		byte[] body = mockMvc.perform(get("/api/menu-items/image/1").header(HttpHeaders.RANGE, "bytes=100-199"))
+			.andExpect(status().isPartialContent())
+			.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/4096"))
+			.andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 100))
+			.andReturn().getResponse().getContentAsByteArray();
+		assertArrayEquals(Arrays.copyOfRange(photo, 100, 200), body);
+
+		mockMvc.perform(get("/api/menu-items/image/1").header(HttpHeaders.RANGE, "bytes=5000-"))
+			.andExpect(status().isRequestedRangeNotSatisfiable())
+			.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */4096"));
+	}
+
+	@Test
+	void thumbnailIsProducedInTheBackgroundAndServedOnceReady() throws Exception {
+		String contentType = null;
+		byte[] body = null;
+		String etag = null;
+		Set<String> standInEtags = new HashSet<>();
+		for (int attempt = 0; attempt < 100 && !"image/jpeg".equals(contentType); attempt++) {
+			// Until the variant exists the original is served in its place, uncached and under its own validator
+			MockHttpServletResponse response = mockMvc.perform(get("/api/menu-items/image/3").param("size", "thumbnail"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse();
+			contentType = response.getContentType();
+			body = response.getContentAsByteArray();
+			etag = response.getHeader(HttpHeaders.ETAG);
+			if (!"image/jpeg".equals(contentType)) {
+				assertNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+				standInEtags.add(etag);
+			}
+			Thread.sleep(50);
+		}
+
+		assertEquals("image/jpeg", contentType);
+		assertFalse(standInEtags.contains(etag));
+		for (String standIn : standInEtags) {
+			mockMvc.perform(get("/api/menu-items/image/3").param("size", "thumbnail").header(HttpHeaders.IF_NONE_MATCH, standIn))
+				.andExpect(status().isOk());
+		}
+		BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(body));
+		assertEquals(200, thumbnail.getWidth());
+		assertEquals(150, thumbnail.getHeight());
+	}
+
+	@Test
+	void missingImageIsNotFound() throws Exception {
+		mockMvc.perform(get("/api/menu-items/image/4"))
+			.andExpect(status().isNotFound());
+	}
+}
@@ -0,0 +1,99 @@
+package controller;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import service.CatalogSearchService;
+import service.NearbyRestaurantService;
+import service.RestaurantCatalogSnapshot;
+import service.RestaurantService;
+
+class RestaurantCatalogEndpointTest {
+
+	private static final byte[] JSON = "[]".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] GZIPPED = {31, -117, 8, 0};
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		RestaurantCatalogSnapshot snapshot = mock(RestaurantCatalogSnapshot.class);
+		when(snapshot.getJson()).thenReturn(JSON);
+		when(snapshot.getGzippedJson()).thenReturn(GZIPPED);
+		when(snapshot.getEtag()).thenReturn("\"abc\"");
+		when(snapshot.getGzipEtag()).thenReturn("\"abc-gzip\"");
+		RestaurantService restaurantService = mock(RestaurantService.class);
+		when(restaurantService.getCatalogSnapshot()).thenReturn(snapshot);
+
+		mockMvc = MockMvcBuilders
+			.standaloneSetup(new RestaurantController(restaurantService, mock(CatalogSearchService.class),
+				mock(NearbyRestaurantService.class)))
+			.build();
+	}
+
+	@Test
+	void eachEncodingHasItsOwnEtag() throws Exception {
+		mockMvc.perform(get("/api/restaurants"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+			.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+			.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+			.andExpect(content().bytes(JSON));
+
+		mockMvc.perform(get("/api/restaurants").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, "\"abc-gzip\""))
+			.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+			.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+			.andExpect(content().bytes(GZIPPED));
+	}
+
+	@Test
+	void revalidatesAgainstTheEtagOfTheSelectedEncoding() throws Exception {
+		mockMvc.perform(get("/api/restaurants")
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+				.header(HttpHeaders.IF_NONE_MATCH, "\"old\", W/\"abc-gzip\""))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string(HttpHeaders.ETAG, "\"abc-gzip\""));
+
+		// The identity validator does not revalidate the gzip body, nor does a tag that merely contains it
+		mockMvc.perform(get("/api/restaurants")
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+				.header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+			.andExpect(status().isOk());
+		mockMvc.perform(get("/api/restaurants").header(HttpHeaders.IF_NONE_MATCH, "\"xabc\""))
+			.andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/restaurants").header(HttpHeaders.IF_NONE_MATCH, "*"))
+			.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void acceptEncodingQualityValuesAreHonoured() {
+		assertTrue(RestaurantController.acceptsGzip("gzip"));
+		assertTrue(RestaurantController.acceptsGzip("deflate, GZIP;q=0.5"));
+		assertTrue(RestaurantController.acceptsGzip("br, *"));
+		assertFalse(RestaurantController.acceptsGzip(null));
+		assertFalse(RestaurantController.acceptsGzip("gzip;q=0"));
+		assertFalse(RestaurantController.acceptsGzip("gzip; q=0.000, *"));
+		assertFalse(RestaurantController.acceptsGzip("*;q=1, gzip;q=0"));
+		assertFalse(RestaurantController.acceptsGzip("identity, *;q=0"));
+		assertFalse(RestaurantController.acceptsGzip("br, deflate"));
+		assertFalse(RestaurantController.acceptsGzip("xgzip"));
+	}
+}
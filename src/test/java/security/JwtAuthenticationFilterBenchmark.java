@@ -0,0 +1,129 @@
+package security;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of authenticating one request. {@code before} replays the filter as it was: a token
+ * check plus three claim reads, each rebuilding the key and parser and verifying the HMAC.
+ * {@code firstSight} is the current filter on tokens it has not seen (one verification each),
+ * {@code repeatToken} the current filter on a token served from the verified-token cache.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="JwtAuthenticationFilterBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+	private static final String SECRET = "benchSecretKey123456789012345678901234567890";
+
+	// Distinct tokens for the uncached case; each comes round again long after it was evicted
+	private static final int UNSEEN_TOKENS = 8192;
+
+	private JwtAuthenticationFilter cachingFilter;
+	private JwtAuthenticationFilter uncachedFilter;
+	private MockHttpServletRequest request;
+	private MockHttpServletRequest[] unseenRequests;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		JwtUtil jwtUtil = new JwtUtil(SECRET, 3_600_000L, 10_000, new SimpleMeterRegistry());
+		cachingFilter = new JwtAuthenticationFilter(jwtUtil);
+		uncachedFilter = new JwtAuthenticationFilter(new JwtUtil(SECRET, 3_600_000L, 16, new SimpleMeterRegistry()));
+		request = requestWith(jwtUtil.generateToken("customer@example.com", "USER", 7L));
+		unseenRequests = new MockHttpServletRequest[UNSEEN_TOKENS];
+		for (int i = 0; i < UNSEEN_TOKENS; i++) {
+			unseenRequests[i] = requestWith(jwtUtil.generateToken("customer" + i + "@example.com", "USER", (long) i));
+		}
+	}
+
+	@Benchmark
+	public Authentication before() {
+		MockHttpServletRequest request = this.request;
+		String authHeader = request.getHeader("Authorization");
+		String bearer = authHeader.substring(7);
+		if (isTokenValid(bearer)) {
+			String email = claims(bearer).getSubject();
+			String role = claims(bearer).get("role", String.class);
+			Long userId = claims(bearer).get("userId", Long.class);
+			UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+				email, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
+			authentication.setDetails(userId);
+			SecurityContextHolder.getContext().setAuthentication(authentication);
+		}
+		return takeAuthentication(request);
+	}
+
+	@Benchmark
+	public Authentication firstSight() throws Exception {
+		MockHttpServletRequest unseen = unseenRequests[next++ & (UNSEEN_TOKENS - 1)];
+		uncachedFilter.doFilter(unseen, new MockHttpServletResponse(), new MockFilterChain());
+		return takeAuthentication(unseen);
+	}
+
+	@Benchmark
+	public Authentication repeatToken() throws Exception {
+		cachingFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		return takeAuthentication(request);
+	}
+
+	private static MockHttpServletRequest requestWith(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/user/7");
+		request.addHeader("Authorization", "Bearer " + token);
+		return request;
+	}
+
+	private static Authentication takeAuthentication(MockHttpServletRequest request) {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		SecurityContextHolder.clearContext();
+		// OncePerRequestFilter marks the request as filtered; clear it so the next call filters again
+		request.clearAttributes();
+		return authentication;
+	}
+
+	private boolean isTokenValid(String bearer) {
+		try {
+			claims(bearer);
+			return true;
+		} catch (JwtException | IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	// The pre-change JwtUtil built a fresh key and parser on every call
+	private Claims claims(String bearer) {
+		SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+		return Jwts.parser().verifyWith(key).build().parseSignedClaims(bearer).getPayload();
+	}
+}
@@ -0,0 +1,55 @@
+package security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import entity.Role;
+import exception.UnauthorizedActionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtUtilTest {
+
+	private static final String SECRET = "testSecretKey123456789012345678901234567890";
+
+	private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000L, 100, new SimpleMeterRegistry());
+
+	@Test
+	void verifiesOnceAndServesRepeatsFromCache() {
+		String token = jwtUtil.generateToken("customer@example.com", "USER", 7L);
+
+		JwtPrincipal principal = jwtUtil.verify(token).orElseThrow();
+
+		assertEquals(7L, principal.userId());
+		assertEquals("customer@example.com", principal.getName());
+		assertEquals(Role.USER, principal.role());
+		assertSame(principal, jwtUtil.verify(token).orElseThrow());
+	}
+
+	@Test
+	void rejectsTamperedForeignAndExpiredTokens() {
+		String token = jwtUtil.generateToken("customer@example.com", "USER", 7L);
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+		String foreign = new JwtUtil("otherSecretKey12345678901234567890123456789", 60_000L, 100, new SimpleMeterRegistry())
+			.generateToken("customer@example.com", "HOTEL", 7L);
+		String expired = new JwtUtil(SECRET, -1_000L, 100, new SimpleMeterRegistry())
+			.generateToken("customer@example.com", "USER", 7L);
+
+		assertTrue(jwtUtil.verify(tampered).isEmpty());
+		assertTrue(jwtUtil.verify(foreign).isEmpty());
+		assertTrue(jwtUtil.verify(expired).isEmpty());
+		assertTrue(jwtUtil.verify("not.a.token").isEmpty());
+	}
+
+	@Test
+	void callerCannotActAsAnotherUser() {
+		JwtPrincipal principal = jwtUtil.verify(jwtUtil.generateToken("customer@example.com", "USER", 7L)).orElseThrow();
+
+		assertSame(principal, principal.actingAs(7L));
+		assertSame(principal, principal.actingAs(null));
+		assertThrows(UnauthorizedActionException.class, () -> principal.actingAs(8L));
+	}
+}
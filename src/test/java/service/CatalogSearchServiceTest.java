@@ -0,0 +1,83 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dto.MenuItemDto;
+import dto.RestaurantDto;
+import dto.SearchResultDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import repository.MenuItemRepository;
+import repository.RestaurantRepository;
+
+class CatalogSearchServiceTest {
+
+	private CatalogSearchService searchService;
+
+	@BeforeEach
+	void setUp() {
+		MenuItemRepository menuItemRepository = mock(MenuItemRepository.class);
+		RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+		when(restaurantRepository.findAllDtos()).thenReturn(List.of(
+			new RestaurantDto(1L, "Spice Route", "12 Main Street", "Indian", 5L, "Owner"),
+			new RestaurantDto(2L, "Pasta Palace", "3 Hill Road", "Italian", 5L, "Owner")));
+		when(menuItemRepository.findAllDtos()).thenReturn(List.of(
+			new MenuItemDto(10L, "Chicken Biryani", "Fragrant rice with chicken", 9.0, "Main", true, 1L, "Spice Route"),
+			new MenuItemDto(11L, "Butter Chicken", "Creamy tomato curry", 11.0, "Main", true, 1L, "Spice Route"),
+			new MenuItemDto(12L, "Chicken Alfredo", "Pasta with cream sauce", 12.0, "Main", false, 2L, "Pasta Palace"),
+			new MenuItemDto(13L, "Penne Arrabbiata", "Spicy tomato pasta", 10.0, "Main", true, 2L, "Pasta Palace")));
+
+		searchService = new CatalogSearchService(menuItemRepository, restaurantRepository, new SimpleMeterRegistry(), 50);
+		searchService.buildIndexes();
+	}
+
+	@Test
+	void prefixMatchesRankNameHitsFirstAndSkipUnavailableItems() {
+		SearchResultDto result = searchService.search("chick", 10);
+
+		assertEquals(List.of(10L, 11L), result.getMenuItems().stream().map(MenuItemDto::getId).toList());
+		assertTrue(result.getRestaurants().isEmpty());
+	}
+
+	@Test
+	void everyWordMustMatch() {
+		SearchResultDto result = searchService.search("tomato pasta", 10);
+
+		assertEquals(List.of(13L), result.getMenuItems().stream().map(MenuItemDto::getId).toList());
+	}
+
+	@Test
+	void updatesAreVisibleToTheNextSearch() {
+		searchService.indexMenuItem(new MenuItemDto(12L, "Chicken Alfredo", "Pasta with cream sauce", 12.0, "Main", true, 2L, "Pasta Palace"));
+		searchService.indexRestaurant(new RestaurantDto(3L, "Chicken Shack", "9 Park Lane", "American", 6L, "Owner"));
+
+		SearchResultDto result = searchService.search("chicken", 10);
+
+		assertEquals(3, result.getMenuItems().size());
+		assertEquals(List.of(3L), result.getRestaurants().stream().map(RestaurantDto::getId).toList());
+	}
+
+	@Test
+	void renamingARestaurantReindexesItsMenuItems() {
+		searchService.indexRestaurant(new RestaurantDto(2L, "Noodle Bar", "3 Hill Road", "Italian", 5L, "Owner"));
+
+		assertEquals(List.of(13L), searchService.search("noodle penne", 10).getMenuItems().stream().map(MenuItemDto::getId).toList());
+		assertTrue(searchService.search("palace", 10).getMenuItems().isEmpty());
+		assertEquals("Noodle Bar", searchService.search("penne", 10).getMenuItems().get(0).getRestaurantName());
+		// Other restaurants' items keep their name
+		assertEquals(2, searchService.search("spice route", 10).getMenuItems().size());
+	}
+
+	@Test
+	void blankQueryIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> searchService.search("  ", 10));
+	}
+}
@@ -0,0 +1,117 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Nearby-restaurant lookups over 500k restaurants: the grid index against a scan that measures
+ * the distance to every restaurant. Restaurants are clustered around 50 cities, with a tenth
+ * spread across the globe, and queries start near a random city. Cell size, radius and result
+ * limits are the application defaults.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="GeoGridIndexBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GeoGridIndexBenchmark {
+
+	private static final int RESTAURANTS = 500_000;
+	private static final int CITIES = 50;
+	private static final int QUERIES = 1024;
+	private static final double RADIUS_KM = 5;
+	private static final int LIMIT = 50;
+	private static final double MAX_RADIUS_KM = 50;
+
+	private GeoGridIndex<Long> index;
+	private double[] latitudes;
+	private double[] longitudes;
+	private double[][] origins;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		double[][] cities = new double[CITIES][];
+		for (int i = 0; i < CITIES; i++) {
+			cities[i] = new double[] {random.nextDouble() * 120 - 60, random.nextDouble() * 360 - 180};
+		}
+
+		index = new GeoGridIndex<>(0.05);
+		latitudes = new double[RESTAURANTS];
+		longitudes = new double[RESTAURANTS];
+		for (int i = 0; i < RESTAURANTS; i++) {
+			double[] city = cities[i % CITIES];
+			boolean spread = i % 10 == 0;
+			latitudes[i] = spread ? random.nextDouble() * 180 - 90 : clamp(city[0] + random.nextGaussian() * 0.2, 90);
+			longitudes[i] = spread ? random.nextDouble() * 360 - 180 : clamp(city[1] + random.nextGaussian() * 0.2, 180);
+			index.put(i, latitudes[i], longitudes[i], (long) i);
+		}
+
+		origins = new double[QUERIES][];
+		for (int q = 0; q < QUERIES; q++) {
+			double[] city = cities[random.nextInt(CITIES)];
+			origins[q] = new double[] {clamp(city[0] + random.nextGaussian() * 0.1, 90), clamp(city[1] + random.nextGaussian() * 0.1, 180)};
+		}
+	}
+
+	@Benchmark
+	public List<GeoGridIndex.Hit<Long>> gridWithinRadius() {
+		double[] origin = nextOrigin();
+		return index.withinRadius(origin[0], origin[1], RADIUS_KM, LIMIT);
+	}
+
+	@Benchmark
+	public List<GeoGridIndex.Hit<Long>> gridNearest() {
+		double[] origin = nextOrigin();
+		return index.nearest(origin[0], origin[1], LIMIT, MAX_RADIUS_KM);
+	}
+
+	@Benchmark
+	public List<GeoGridIndex.Hit<Long>> scanWithinRadius() {
+		double[] origin = nextOrigin();
+		PriorityQueue<GeoGridIndex.Hit<Long>> nearest = new PriorityQueue<>(LIMIT + 1,
+			Comparator.comparingDouble((GeoGridIndex.Hit<Long> hit) -> hit.distanceKm()).reversed());
+		for (int i = 0; i < RESTAURANTS; i++) {
+			double distance = GeoGridIndex.distanceKm(origin[0], origin[1], latitudes[i], longitudes[i]);
+			if (distance > RADIUS_KM) {
+				continue;
+			}
+			if (nearest.size() < LIMIT) {
+				nearest.add(new GeoGridIndex.Hit<>(i, (long) i, distance));
+			} else if (distance < nearest.peek().distanceKm()) {
+				nearest.poll();
+				nearest.add(new GeoGridIndex.Hit<>(i, (long) i, distance));
+			}
+		}
+		List<GeoGridIndex.Hit<Long>> results = new ArrayList<>(nearest);
+		results.sort(Comparator.comparingDouble(GeoGridIndex.Hit::distanceKm));
+		return results;
+	}
+
+	private double[] nextOrigin() {
+		return origins[next++ & (QUERIES - 1)];
+	}
+
+	private static double clamp(double value, double bound) {
+		return Math.max(-bound, Math.min(bound, value));
+	}
+}
@@ -0,0 +1,82 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class GeoGridIndexTest {
+
+	private static final int POINTS = 20_000;
+
+	@Test
+	void radiusAndNearestMatchANaiveScan() {
+		Random random = new Random(42);
+		GeoGridIndex<String> index = new GeoGridIndex<>(0.05);
+		List<double[]> points = new ArrayList<>();
+		for (int i = 0; i < POINTS; i++) {
+			// Clustered around a city, plus a sprinkling across the globe
+			double lat = i % 10 == 0 ? random.nextDouble() * 180 - 90 : 18.5 + random.nextGaussian() * 0.3;
+			double lon = i % 10 == 0 ? random.nextDouble() * 360 - 180 : 73.8 + random.nextGaussian() * 0.3;
+			points.add(new double[] {i, lat, lon});
+			index.put(i, lat, lon, "r" + i);
+		}
+
+		for (int q = 0; q < 200; q++) {
+			double lat = q % 4 == 0 ? random.nextDouble() * 180 - 90 : 18.5 + random.nextGaussian() * 0.3;
+			double lon = q % 4 == 0 ? random.nextDouble() * 360 - 180 : 73.8 + random.nextGaussian() * 0.3;
+
+			double radius = 0.5 + random.nextDouble() * 20;
+			assertEquals(ids(naive(points, lat, lon, radius, 25)), ids(index.withinRadius(lat, lon, radius, 25)));
+			assertEquals(ids(naive(points, lat, lon, 50, 10)), ids(index.nearest(lat, lon, 10, 50)));
+		}
+	}
+
+	@Test
+	void searchesWrapAroundTheAntimeridianAndPoles() {
+		GeoGridIndex<String> index = new GeoGridIndex<>(0.05);
+		index.put(1, 0, 179.99, "east");
+		index.put(2, 0, -179.99, "west");
+		index.put(3, 89.99, 0, "north");
+		index.put(4, 89.99, 180, "north, other side");
+
+		assertEquals(List.of(1L, 2L), ids(index.withinRadius(0, 179.995, 5, 10)));
+		assertEquals(List.of(3L, 4L), ids(index.withinRadius(89.995, 10, 5, 10)));
+		assertEquals(List.of(2L), ids(index.nearest(0, -179.98, 1, 100)));
+	}
+
+	@Test
+	void movedAndRemovedPointsAreNotFoundAtTheirOldPlace() {
+		GeoGridIndex<String> index = new GeoGridIndex<>(0.05);
+		index.put(1, 18.5, 73.8, "a");
+		index.put(1, 28.6, 77.2, "a");
+		index.put(2, 18.5, 73.8, "b");
+		index.remove(2);
+
+		assertEquals(List.of(), ids(index.withinRadius(18.5, 73.8, 10, 10)));
+		assertEquals(List.of(1L), ids(index.withinRadius(28.6, 77.2, 10, 10)));
+		assertEquals(1, index.size());
+		assertThrows(IllegalArgumentException.class, () -> index.put(3, 91, 0, "c"));
+	}
+
+	private List<GeoGridIndex.Hit<String>> naive(List<double[]> points, double lat, double lon, double radiusKm, int limit) {
+		List<GeoGridIndex.Hit<String>> hits = new ArrayList<>();
+		for (double[] point : points) {
+			double distance = GeoGridIndex.distanceKm(lat, lon, point[1], point[2]);
+			if (distance <= radiusKm) {
+				hits.add(new GeoGridIndex.Hit<>((long) point[0], "r" + (long) point[0], distance));
+			}
+		}
+		hits.sort(Comparator.comparingDouble(GeoGridIndex.Hit::distanceKm));
+		return hits.subList(0, Math.min(limit, hits.size()));
+	}
+
+	private List<Long> ids(List<GeoGridIndex.Hit<String>> hits) {
+		return hits.stream().map(GeoGridIndex.Hit::id).toList();
+	}
+}
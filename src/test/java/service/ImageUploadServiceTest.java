@@ -0,0 +1,183 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dto.ImageUploadDto;
+import entity.MenuItem;
+import entity.Restaurant;
+import entity.Role;
+import exception.UnauthorizedActionException;
+import exception.UploadOffsetConflictException;
+import exception.UploadSizeExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import repository.MenuItemRepository;
+import repository.RestaurantRepository;
+import security.JwtPrincipal;
+
+class ImageUploadServiceTest {
+
+	private static final JwtPrincipal OWNER = new JwtPrincipal(2L, "owner@example.com", Role.HOTEL, null);
+	private static final JwtPrincipal OTHER_OWNER = new JwtPrincipal(3L, "other@example.com", Role.HOTEL, null);
+
+	@TempDir
+	Path dir;
+
+	private MenuItemRepository menuItemRepository;
+	private MenuImageService menuImageService;
+	private BlobStore blobStore;
+	private ImageUploadService uploadService;
+	private byte[] image;
+	private String sha256;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		Restaurant restaurant = new Restaurant();
+		restaurant.setId(5L);
+		MenuItem item = new MenuItem();
+		item.setId(7L);
+		item.setRestaurant(restaurant);
+
+		menuItemRepository = mock(MenuItemRepository.class);
+		when(menuItemRepository.findById(7L)).thenReturn(Optional.of(item));
+		when(menuItemRepository.findImageViews()).thenReturn(List.of());
+		when(menuItemRepository.findIdsWithoutImage()).thenReturn(List.of());
+		RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+		when(restaurantRepository.findOwnerIdById(5L)).thenReturn(Optional.of(2L));
+
+		blobStore = new BlobStore(dir.resolve("blobs").toString());
+		menuImageService = new MenuImageService(blobStore, menuItemRepository, new SimpleMeterRegistry(),
+			dir.resolve("legacy").toString(), 1 << 20, 1024, 1, 10, 600);
+		uploadService = new ImageUploadService(menuItemRepository, menuImageService, blobStore,
+			new RestaurantAccessService(restaurantRepository, new SimpleMeterRegistry(), 100, 60),
+			new SimpleMeterRegistry(), 1 << 20, 10, 60);
+
+		image = new byte[200_000];
+		new Random(7).nextBytes(image);
+		sha256 = HexFormat.of().formatHex(BlobStore.sha256().digest(image));
+	}
+
+	@Test
+	void interruptedChunkResumesFromTheBytesThatArrived() throws Exception {
+		ImageUploadDto upload = uploadService.startUpload(7L, OWNER, image.length, sha256, "image/png");
+
+		uploadService.appendChunk(upload.getUploadId(), OWNER, 0, -1, chunk(0, 80_000));
+		// The connection drops after 30,000 more bytes
+		assertThrows(RuntimeException.class,
+			() -> uploadService.appendChunk(upload.getUploadId(), OWNER, 80_000, -1, failingAfter(chunk(80_000, 110_000), 30_000)));
+		long resumeAt = uploadService.getUpload(upload.getUploadId(), OWNER).getOffset();
+		assertEquals(110_000, resumeAt);
+
+		// Re-sending an old chunk is rejected with the offset to resume from
+		UploadOffsetConflictException conflict = assertThrows(UploadOffsetConflictException.class,
+			() -> uploadService.appendChunk(upload.getUploadId(), OWNER, 80_000, -1, chunk(80_000, 110_000)));
+		assertEquals(110_000, conflict.getCurrentOffset());
+
+		ImageUploadDto done = uploadService.appendChunk(upload.getUploadId(), OWNER, resumeAt, -1, chunk((int) resumeAt, image.length));
+
+		assertEquals("COMPLETED", done.getStatus());
+		assertArrayEquals(image, Files.readAllBytes(blobStore.path(sha256)));
+		verify(menuItemRepository).updateImage(7L, sha256, "image/png");
+		assertEquals(sha256, menuImageService.findImage(7L).orElseThrow().getEtag().replace("\"", ""));
+	}
+
+	@Test
+	void checksumMismatchDiscardsTheUpload() {
+		ImageUploadDto upload = uploadService.startUpload(7L, OWNER, image.length, "0".repeat(64), "image/png");
+
+		assertThrows(IllegalArgumentException.class,
+			() -> uploadService.appendChunk(upload.getUploadId(), OWNER, 0, -1, chunk(0, image.length)));
+
+		verify(menuItemRepository, never()).updateImage(anyLong(), anyString(), anyString());
+		assertTrue(menuImageService.findImage(7L).isEmpty());
+	}
+
+	@Test
+	void chunkPastDeclaredSizeIsRejectedWithTheAcceptedOffset() throws IOException {
+		ImageUploadDto upload = uploadService.startUpload(7L, OWNER, 100_000, sha256, "image/png");
+		uploadService.appendChunk(upload.getUploadId(), OWNER, 0, 10_000, chunk(0, 10_000));
+
+		// A declared length that overruns is refused before the body is read
+		InputStream unread = chunk(10_000, 200_000);
+		UploadSizeExceededException declared = assertThrows(UploadSizeExceededException.class,
+			() -> uploadService.appendChunk(upload.getUploadId(), OWNER, 10_000, 190_000, unread));
+		assertEquals(10_000, declared.getCurrentOffset());
+		assertEquals(10_000, uploadService.getUpload(upload.getUploadId(), OWNER).getOffset());
+		assertEquals(190_000, unread.available());
+
+		// Without a length the overrun is found while streaming; whole buffers before it are kept
+		UploadSizeExceededException streamed = assertThrows(UploadSizeExceededException.class,
+			() -> uploadService.appendChunk(upload.getUploadId(), OWNER, 10_000, -1, chunk(10_000, 200_000)));
+		assertEquals(uploadService.getUpload(upload.getUploadId(), OWNER).getOffset(), streamed.getCurrentOffset());
+		assertTrue(streamed.getCurrentOffset() <= 100_000);
+	}
+
+	@Test
+	void onlyTheUserWhoStartedAnUploadCanReadOrExtendIt() {
+		ImageUploadDto upload = uploadService.startUpload(7L, OWNER, image.length, sha256, "image/png");
+
+		assertThrows(UnauthorizedActionException.class,
+			() -> uploadService.getUpload(upload.getUploadId(), OTHER_OWNER));
+		assertThrows(UnauthorizedActionException.class,
+			() -> uploadService.appendChunk(upload.getUploadId(), OTHER_OWNER, 0, 1000, chunk(0, 1000)));
+		assertEquals(0, uploadService.getUpload(upload.getUploadId(), OWNER).getOffset());
+	}
+
+	@Test
+	void onlyTheRestaurantOwnerCanUpload() {
+		assertThrows(UnauthorizedActionException.class,
+			() -> uploadService.startUpload(7L, OTHER_OWNER, image.length, sha256, "image/png"));
+	}
+
+	private InputStream chunk(int from, int to) {
+		return new ByteArrayInputStream(Arrays.copyOfRange(image, from, to));
+	}
+
+	private InputStream failingAfter(InputStream in, int limit) {
+		return new InputStream() {
+			private int read;
+
+			@Override
+			public int read() throws IOException {
+				if (read >= limit) {
+					throw new IOException("Connection reset");
+				}
+				read++;
+				return in.read();
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (read >= limit) {
+					throw new IOException("Connection reset");
+				}
+				int n = in.read(b, off, Math.min(len, limit - read));
+				read += n;
+				return n;
+			}
+		};
+	}
+}
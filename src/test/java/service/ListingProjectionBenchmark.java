@@ -0,0 +1,204 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Hibernate;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.foodapp.food_ordering_system.BenchmarkContext;
+
+import dto.MenuItemDto;
+import dto.OrderDto;
+import entity.Address;
+import entity.AddressType;
+import entity.MenuItem;
+import entity.Order;
+import entity.OrderItem;
+import entity.Restaurant;
+import entity.Role;
+import entity.User;
+import repository.AddressRepository;
+import repository.MenuItemRepository;
+import repository.OrderRepository;
+import repository.RestaurantRepository;
+import repository.UserRepository;
+
+/**
+ * A customer's order listing and a restaurant's menu listing, built from entities and from
+ * DTO projections. The {@code *Entities} methods replay the old read path: load the entities,
+ * including the customer and owner addresses that were fetched eagerly at the time, then map
+ * them by hand. The {@code *Projection} methods are the current service calls.
+ * <p>
+ * Allocation per call comes from {@code -prof gc}; statements and entities loaded per call are
+ * printed at the end of each run.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ListingProjectionBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// A whole application context takes a while to settle under the JIT
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ListingProjectionBenchmark {
+
+	// Size of the customer's order history; the menu listings do not depend on it
+	@Param({"10", "50"})
+	public int orders;
+
+	private ConfigurableApplicationContext context;
+	private OrderService orderService;
+	private MenuItemService menuItemService;
+	private OrderRepository orderRepository;
+	private MenuItemRepository menuItemRepository;
+	private TransactionTemplate readOnly;
+	private Statistics statistics;
+	private Long customerId;
+	private Long restaurantId;
+	private long calls;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start("listings");
+		orderService = context.getBean(OrderService.class);
+		menuItemService = context.getBean(MenuItemService.class);
+		orderRepository = context.getBean(OrderRepository.class);
+		menuItemRepository = context.getBean(MenuItemRepository.class);
+		readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		readOnly.setReadOnly(true);
+
+		UserRepository userRepository = context.getBean(UserRepository.class);
+		AddressRepository addressRepository = context.getBean(AddressRepository.class);
+		User owner = userRepository.save(user("owner@example.com", Role.HOTEL));
+		User customer = userRepository.save(user("customer@example.com", Role.USER));
+		customerId = customer.getId();
+		for (User user : List.of(owner, customer)) {
+			for (int i = 0; i < 3; i++) {
+				addressRepository.save(address(user, i + " Main St"));
+			}
+		}
+
+		Restaurant restaurant = new Restaurant();
+		restaurant.setName("Diner");
+		restaurant.setHotelOwner(owner);
+		restaurant = context.getBean(RestaurantRepository.class).save(restaurant);
+		restaurantId = restaurant.getId();
+
+		List<MenuItem> menu = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			MenuItem item = new MenuItem();
+			item.setName("Item " + i);
+			item.setPrice(5.0 + i);
+			item.setRestaurant(restaurant);
+			menu.add(menuItemRepository.save(item));
+		}
+		for (int i = 0; i < orders; i++) {
+			Order order = new Order();
+			order.setUser(customer);
+			order.setRestaurant(restaurant);
+			order.setDeliveryAddress("1 Main St");
+			double total = 0;
+			for (int line = 0; line < 3; line++) {
+				MenuItem menuItem = menu.get((i + line) % menu.size());
+				OrderItem item = new OrderItem();
+				item.setMenuItem(menuItem);
+				item.setQuantity(1);
+				item.setPriceAtOrder(menuItem.getPrice());
+				order.addItem(item);
+				total += menuItem.getPrice();
+			}
+			order.setTotalAmount(total);
+			orderRepository.save(order);
+		}
+
+		statistics = BenchmarkContext.statistics(context);
+		statistics.clear();
+	}
+
+	@TearDown
+	public void tearDown(BenchmarkParams params) {
+		// JMH prints a forked run's output alongside its results
+		System.out.printf("%n%s (orders=%d): %.1f statements, %.1f entities loaded per call%n",
+			params.getBenchmark(), orders,
+			(double) statistics.getPrepareStatementCount() / calls,
+			(double) statistics.getEntityLoadCount() / calls);
+		context.close();
+	}
+
+	@Benchmark
+	public List<OrderDto> orderListingEntities() {
+		calls++;
+		return readOnly.execute(status -> {
+			List<OrderDto> dtos = new ArrayList<>();
+			for (Order order : orderRepository.findByUserId(customerId)) {
+				Hibernate.initialize(order.getUser().getAddresses());
+				Hibernate.initialize(order.getRestaurant().getHotelOwner().getAddresses());
+				dtos.add(orderService.convertToDto(order));
+			}
+			return dtos;
+		});
+	}
+
+	@Benchmark
+	public List<OrderDto> orderListingProjection() {
+		calls++;
+		return orderService.getOrdersByUser(customerId);
+	}
+
+	@Benchmark
+	public List<MenuItemDto> menuListingEntities() {
+		calls++;
+		return readOnly.execute(status -> {
+			List<MenuItemDto> dtos = new ArrayList<>();
+			for (MenuItem item : menuItemRepository.findByRestaurantId(restaurantId)) {
+				Hibernate.initialize(item.getRestaurant().getHotelOwner().getAddresses());
+				dtos.add(menuItemService.toDto(item));
+			}
+			return dtos;
+		});
+	}
+
+	@Benchmark
+	public List<MenuItemDto> menuListingProjection() {
+		calls++;
+		return menuItemService.getAllMenuItems(restaurantId);
+	}
+
+	private static User user(String email, Role role) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName(email.substring(0, email.indexOf('@')));
+		user.setPassword("secret");
+		user.setRole(role);
+		return user;
+	}
+
+	private static Address address(User user, String fullAddress) {
+		Address address = new Address();
+		address.setUser(user);
+		address.setType(AddressType.HOME);
+		address.setFullAddress(fullAddress);
+		address.setCity("Pune");
+		address.setPincode("411001");
+		return address;
+	}
+}
@@ -0,0 +1,209 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import dto.OrderStatusDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderEventHubTest {
+
+	private static final Pattern ID = Pattern.compile("^id:(\\S+)$", Pattern.MULTILINE);
+	private static final Pattern NAME = Pattern.compile("^event:(\\S+)$", Pattern.MULTILINE);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private TestHub hub;
+
+	@AfterEach
+	void tearDown() {
+		if (hub != null) {
+			hub.shutdown();
+		}
+	}
+
+	@Test
+	void eventsOnlyReachTheirRestaurantAndCustomer() throws Exception {
+		hub = new TestHub(100, 16);
+		RecordingEmitter restaurant = hub.next(new RecordingEmitter());
+		hub.subscribeRestaurant(10L, null);
+		RecordingEmitter customer = hub.next(new RecordingEmitter());
+		hub.subscribeCustomer(1L, null);
+		RecordingEmitter otherRestaurant = hub.next(new RecordingEmitter());
+		hub.subscribeRestaurant(11L, null);
+
+		hub.onOrderStatus(status(100L, 1L, 10L));
+
+		awaitUntil(() -> restaurant.sent().size() == 1 && customer.sent().size() == 1);
+		assertEquals(OrderEventHub.EVENT_NAME, restaurant.sent().get(0).name);
+		assertEquals(restaurant.sent().get(0).id, customer.sent().get(0).id);
+		assertEquals(List.of(), otherRestaurant.sent());
+	}
+
+	@Test
+	void reconnectingClientsGetOnlyWhatTheyMissed() throws Exception {
+		hub = new TestHub(100, 16);
+		RecordingEmitter first = hub.next(new RecordingEmitter());
+		hub.subscribeRestaurant(10L, null);
+		for (long order = 1; order <= 3; order++) {
+			hub.onOrderStatus(status(order, 1L, 10L));
+		}
+		hub.onOrderStatus(status(4L, 1L, 11L));
+		awaitUntil(() -> first.sent().size() == 3);
+
+		RecordingEmitter resumed = hub.next(new RecordingEmitter());
+		hub.subscribeRestaurant(10L, first.sent().get(0).id);
+
+		awaitUntil(() -> resumed.sent().size() == 2);
+		assertEquals(List.of(first.sent().get(1).id, first.sent().get(2).id),
+			resumed.sent().stream().map(sent -> sent.id).toList());
+	}
+
+	@Test
+	void unresumableIdsGetAResync() throws Exception {
+		hub = new TestHub(2, 16);
+		RecordingEmitter live = hub.next(new RecordingEmitter());
+		hub.subscribeRestaurant(10L, null);
+		for (long order = 1; order <= 4; order++) {
+			hub.onOrderStatus(status(order, 1L, 10L));
+		}
+		awaitUntil(() -> live.sent().size() == 4);
+		String firstId = live.sent().get(0).id;
+		String epoch = firstId.substring(0, firstId.lastIndexOf('-'));
+
+		// From a previous process, from the future, and fallen out of the two-event buffer
+		for (String lastEventId : List.of("abc123-2", epoch + "-99", firstId)) {
+			RecordingEmitter resumed = hub.next(new RecordingEmitter());
+			hub.subscribeRestaurant(10L, lastEventId);
+			awaitUntil(() -> resumed.sent().size() == 1);
+			assertEquals(OrderEventHub.RESYNC_EVENT_NAME, resumed.sent().get(0).name);
+		}
+	}
+
+	@Test
+	void deadEmittersAreUnregistered() throws Exception {
+		hub = new TestHub(100, 16);
+		RecordingEmitter dead = hub.next(new RecordingEmitter());
+		dead.fail = true;
+		hub.subscribeRestaurant(10L, null);
+		assertEquals(1.0, subscribers());
+
+		hub.onOrderStatus(status(1L, 1L, 10L));
+
+		awaitUntil(() -> subscribers() == 0.0);
+	}
+
+	@Test
+	void aStalledClientHoldsUpNeitherThePublisherNorOtherClients() throws Exception {
+		hub = new TestHub(100, 4);
+		RecordingEmitter stalled = hub.next(new RecordingEmitter());
+		stalled.block = new CountDownLatch(1);
+		hub.subscribeRestaurant(10L, null);
+		RecordingEmitter healthy = hub.next(new RecordingEmitter());
+		hub.subscribeRestaurant(10L, null);
+
+		for (int order = 1; order <= 10; order++) {
+			long start = System.nanoTime();
+			hub.onOrderStatus(status((long) order, 1L, 10L));
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+			int delivered = order;
+			awaitUntil(() -> healthy.sent().size() == delivered);
+		}
+
+		// One event is stuck in the write, four wait in its queue, and the next one overflows it
+		awaitUntil(() -> subscribers() == 1.0);
+		assertEquals(1.0, meterRegistry.counter("orders.events.overflow.disconnects").count());
+		stalled.block.countDown();
+	}
+
+	private double subscribers() {
+		return meterRegistry.get("orders.events.subscribers").gauge().value();
+	}
+
+	private static OrderStatusDto status(Long orderId, Long userId, Long restaurantId) {
+		return new OrderStatusDto(orderId, userId, restaurantId, null, "PLACED");
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("Condition not met within 5 seconds");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private final class TestHub extends OrderEventHub {
+		private SseEmitter next;
+
+		TestHub(int replaySize, int subscriberQueueSize) {
+			super(meterRegistry, replaySize, 30, 3600, 2, subscriberQueueSize);
+		}
+
+		RecordingEmitter next(RecordingEmitter emitter) {
+			next = emitter;
+			return emitter;
+		}
+
+		@Override
+		SseEmitter createEmitter(long timeoutMillis) {
+			return next;
+		}
+	}
+
+	private record Sent(String id, String name) {}
+
+	/**
+	 * Records what the hub writes instead of writing to a response.
+	 */
+	private static final class RecordingEmitter extends SseEmitter {
+		private final List<Sent> sent = Collections.synchronizedList(new ArrayList<>());
+		volatile boolean fail;
+		volatile CountDownLatch block;
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if (fail) {
+				throw new IOException("Broken pipe");
+			}
+			if (block != null) {
+				try {
+					block.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			StringBuilder text = new StringBuilder();
+			builder.build().forEach(part -> {
+				if (part.getData() instanceof String chunk) {
+					text.append(chunk);
+				}
+			});
+			Matcher id = ID.matcher(text);
+			Matcher name = NAME.matcher(text);
+			if (name.find()) {
+				sent.add(new Sent(id.find() ? id.group(1) : null, name.group(1)));
+			}
+		}
+
+		List<Sent> sent() {
+			synchronized (sent) {
+				return List.copyOf(sent);
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import dto.OrderDto;
+import dto.OrderRequestDto;
+import entity.Order;
+import entity.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import security.JwtPrincipal;
+
+class OrderIdempotencyServiceTest {
+
+	private static final JwtPrincipal CUSTOMER = new JwtPrincipal(1L, "customer@example.com", Role.USER, null);
+
+	@Test
+	void concurrentRequestsWithSameKeyPlaceOneOrder() throws Exception {
+		OrderService orderService = mock(OrderService.class);
+		Order order = new Order();
+		order.setId(42L);
+		OrderDto dto = new OrderDto();
+		dto.setId(42L);
+		when(orderService.findOrderByIdempotencyKey(anyLong(), anyString())).thenReturn(Optional.empty());
+		when(orderService.placeOrder(any(OrderRequestDto.class), eq(CUSTOMER), eq(10L), eq("key-1"))).thenAnswer(invocation -> {
+			Thread.sleep(50);
+			return order;
+		});
+		when(orderService.convertToDto(order)).thenReturn(dto);
+
+		OrderIdempotencyService service = new OrderIdempotencyService(orderService, new SimpleMeterRegistry(), 100, 60);
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<OrderDto>> results = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return service.placeOrder("key-1", new OrderRequestDto(), CUSTOMER, 10L);
+			}));
+		}
+		start.countDown();
+		for (Future<OrderDto> result : results) {
+			assertSame(dto, result.get());
+		}
+		pool.shutdown();
+
+		verify(orderService, times(1)).placeOrder(any(OrderRequestDto.class), eq(CUSTOMER), eq(10L), eq("key-1"));
+		assertEquals(42L, service.placeOrder("key-1", new OrderRequestDto(), CUSTOMER, 10L).getId());
+		verify(orderService, times(1)).findOrderByIdempotencyKey(1L, "key-1");
+	}
+
+	@Test
+	void rememberedKeysExpireAfterTheTtl() {
+		OrderService orderService = mock(OrderService.class);
+		OrderDto dto = new OrderDto();
+		dto.setId(42L);
+		when(orderService.findOrderByIdempotencyKey(1L, "key-1")).thenReturn(Optional.of(dto));
+		AtomicLong nanos = new AtomicLong();
+		OrderIdempotencyService service = new OrderIdempotencyService(orderService, new SimpleMeterRegistry(), 100, 60, nanos::get);
+
+		service.placeOrder("key-1", new OrderRequestDto(), CUSTOMER, 10L);
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(59));
+		service.placeOrder("key-1", new OrderRequestDto(), CUSTOMER, 10L);
+		verify(orderService, times(1)).findOrderByIdempotencyKey(1L, "key-1");
+
+		// Past the TTL the key is looked up in the database again
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+		assertEquals(42L, service.placeOrder("key-1", new OrderRequestDto(), CUSTOMER, 10L).getId());
+		verify(orderService, times(2)).findOrderByIdempotencyKey(1L, "key-1");
+		assertEquals(1, service.cachedKeys());
+	}
+
+	@Test
+	void rememberedKeysAreCappedAtMaxEntries() {
+		OrderService orderService = mock(OrderService.class);
+		when(orderService.findOrderByIdempotencyKey(anyLong(), anyString())).thenAnswer(invocation -> {
+			OrderDto dto = new OrderDto();
+			dto.setId((long) invocation.getArgument(1, String.class).hashCode());
+			return Optional.of(dto);
+		});
+		OrderIdempotencyService service = new OrderIdempotencyService(orderService, new SimpleMeterRegistry(), 3, 60);
+
+		for (int i = 0; i < 50; i++) {
+			service.placeOrder("key-" + i, new OrderRequestDto(), CUSTOMER, 10L);
+		}
+		assertEquals(3, service.cachedKeys());
+
+		// Evicted keys still resolve to their order, through the database
+		for (int i = 0; i < 50; i++) {
+			assertEquals(("key-" + i).hashCode(), service.placeOrder("key-" + i, new OrderRequestDto(), CUSTOMER, 10L).getId());
+		}
+		verify(orderService, atLeast(50 + 47)).findOrderByIdempotencyKey(anyLong(), anyString());
+		assertEquals(3, service.cachedKeys());
+	}
+}
@@ -0,0 +1,137 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dto.OrderRequestDto;
+import entity.Order;
+import entity.Role;
+import entity.User;
+import exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import repository.OrderBatchRepository;
+import repository.OrderRepository;
+import security.JwtPrincipal;
+
+class OrderIntakeServiceTest {
+
+	private static final JwtPrincipal CUSTOMER = new JwtPrincipal(1L, "customer@example.com", Role.USER, null);
+
+	private final User customer = new User();
+	private OrderBatchRepository orderBatchRepository;
+	private OrderIntakeService intake;
+	private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeEach
+	void setUp() {
+		customer.setId(CUSTOMER.userId());
+		OrderService orderService = mock(OrderService.class);
+		when(orderService.buildOrder(any(OrderRequestDto.class), eq(CUSTOMER), eq(10L))).thenAnswer(invocation -> {
+			Order order = new Order();
+			order.setUser(customer);
+			return order;
+		});
+		orderBatchRepository = mock(OrderBatchRepository.class);
+		intake = new OrderIntakeService(orderService, mock(OrderRepository.class), orderBatchRepository,
+			new SimpleMeterRegistry(), 100, 10, 10);
+	}
+
+	@Test
+	void shutdownWritesEveryAcceptedOrderBeforeTheWriterExits() throws Exception {
+		CountDownLatch held = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			held.countDown();
+			release.await();
+			record(invocation.getArgument(0));
+			return null;
+		}).when(orderBatchRepository).insertAll(anyList());
+		intake.startWriter();
+
+		List<String> accepted = new ArrayList<>();
+		accepted.add(submit());
+		assertTrue(held.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 25; i++) {
+			accepted.add(submit());
+		}
+
+		ExecutorService stopper = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> stopped = stopper.submit(() -> {
+				intake.stopWriter();
+				return null;
+			});
+			// Intake closes as soon as shutdown starts, while the queue is still draining
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (true) {
+				try {
+					submit();
+				} catch (ServiceOverloadedException expected) {
+					break;
+				}
+				assertTrue(System.nanoTime() < deadline, "Intake never stopped accepting");
+				Thread.sleep(5);
+			}
+			release.countDown();
+			stopped.get(5, TimeUnit.SECONDS);
+		} finally {
+			stopper.shutdownNow();
+		}
+
+		assertTrue(written.containsAll(accepted), "Accepted orders were dropped at shutdown");
+		for (String handle : accepted) {
+			assertEquals(1, Collections.frequency(written, handle));
+		}
+	}
+
+	@Test
+	void anErrorInOneBatchDoesNotStopTheWriter() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		doAnswer(invocation -> {
+			if (calls.getAndIncrement() == 0) {
+				throw new StackOverflowError("simulated");
+			}
+			record(invocation.getArgument(0));
+			return null;
+		}).when(orderBatchRepository).insertAll(anyList());
+		intake.startWriter();
+
+		String lost = submit();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!"FAILED".equals(intake.getStatus(lost, CUSTOMER).getStatus())) {
+			assertTrue(System.nanoTime() < deadline, "The failed batch was never reported");
+			Thread.sleep(5);
+		}
+
+		String next = submit();
+		intake.stopWriter();
+		assertEquals(List.of(next), written);
+	}
+
+	private String submit() {
+		return intake.submit(new OrderRequestDto(), CUSTOMER, 10L).getHandle();
+	}
+
+	private void record(List<Order> batch) {
+		batch.forEach(order -> written.add(order.getIntakeHandle()));
+	}
+}
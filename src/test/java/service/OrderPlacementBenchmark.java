@@ -0,0 +1,155 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Hibernate;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.foodapp.food_ordering_system.BenchmarkContext;
+
+import dto.OrderRequestDto;
+import entity.MenuItem;
+import entity.Order;
+import entity.Restaurant;
+import entity.Role;
+import entity.User;
+import repository.MenuItemRepository;
+import repository.RestaurantRepository;
+import repository.UserRepository;
+import security.JwtPrincipal;
+
+/**
+ * Order placement latency as the cart grows, on an in-memory database.
+ * {@code lookupPerLine} replays the old line-item resolution: one findById per line, with the
+ * restaurant, owner and owner addresses that used to be fetched eagerly with every item.
+ * {@code lookupBatched} is the current restaurant-scoped IN lookup, and {@code placeOrder}
+ * the whole current placement, lookup, pricing and inserts included. Statements per call
+ * are printed at the end of each run; allocation per call comes from {@code -prof gc}.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="OrderPlacementBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// A whole application context takes a while to settle under the JIT
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class OrderPlacementBenchmark {
+
+	@Param({"1", "5", "15"})
+	public int cartSize;
+
+	private ConfigurableApplicationContext context;
+	private OrderService orderService;
+	private MenuItemRepository menuItemRepository;
+	private TransactionTemplate readOnly;
+	private Long restaurantId;
+	private JwtPrincipal customer;
+	private OrderRequestDto cart;
+	private List<Long> itemIds;
+	private Statistics statistics;
+	private long calls;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start("placement");
+		orderService = context.getBean(OrderService.class);
+		menuItemRepository = context.getBean(MenuItemRepository.class);
+		readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		readOnly.setReadOnly(true);
+
+		UserRepository userRepository = context.getBean(UserRepository.class);
+		User owner = userRepository.save(user("owner@example.com", Role.HOTEL));
+		User buyer = userRepository.save(user("customer@example.com", Role.USER));
+		customer = new JwtPrincipal(buyer.getId(), buyer.getEmail(), Role.USER, null);
+
+		Restaurant restaurant = new Restaurant();
+		restaurant.setName("Diner");
+		restaurant.setHotelOwner(owner);
+		restaurant = context.getBean(RestaurantRepository.class).save(restaurant);
+		restaurantId = restaurant.getId();
+
+		cart = new OrderRequestDto();
+		cart.setDeliveryAddress("1 Main St");
+		cart.setItems(new ArrayList<>());
+		itemIds = new ArrayList<>();
+		for (int i = 0; i < cartSize; i++) {
+			MenuItem item = new MenuItem();
+			item.setName("Item " + i);
+			item.setPrice(5.0 + i);
+			item.setRestaurant(restaurant);
+			item = menuItemRepository.save(item);
+			itemIds.add(item.getId());
+
+			OrderRequestDto.OrderItemDto line = new OrderRequestDto.OrderItemDto();
+			line.setMenuItemId(item.getId());
+			line.setQuantity(1);
+			cart.getItems().add(line);
+		}
+
+		statistics = BenchmarkContext.statistics(context);
+		statistics.clear();
+	}
+
+	@TearDown
+	public void tearDown(BenchmarkParams params) {
+		// JMH prints a forked run's output alongside its results
+		System.out.printf("%n%s (cartSize=%d): %.1f statements per call%n",
+			params.getBenchmark(), cartSize, (double) statistics.getPrepareStatementCount() / calls);
+		context.close();
+	}
+
+	@Benchmark
+	public List<MenuItem> lookupPerLine() {
+		calls++;
+		return readOnly.execute(status -> {
+			List<MenuItem> items = new ArrayList<>();
+			for (Long id : itemIds) {
+				MenuItem item = menuItemRepository.findById(id).orElseThrow();
+				Hibernate.initialize(item.getRestaurant().getHotelOwner().getAddresses());
+				items.add(item);
+			}
+			return items;
+		});
+	}
+
+	@Benchmark
+	public List<MenuItem> lookupBatched() {
+		calls++;
+		return readOnly.execute(status -> menuItemRepository.findByRestaurantIdAndIdIn(restaurantId, itemIds));
+	}
+
+	@Benchmark
+	public Order placeOrder() {
+		calls++;
+		return orderService.placeOrder(cart, customer, restaurantId);
+	}
+
+	private static User user(String email, Role role) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName(email.substring(0, email.indexOf('@')));
+		user.setPassword("secret");
+		user.setRole(role);
+		return user;
+	}
+}
@@ -0,0 +1,222 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import dto.OrderRequestDto;
+import entity.MenuItem;
+import entity.Order;
+import entity.OrderStatus;
+import entity.Restaurant;
+import entity.Role;
+import exception.OrderStatusConflictException;
+import exception.ResourceNotFoundException;
+import exception.UnauthorizedActionException;
+import repository.MenuItemRepository;
+import repository.OrderIdempotencyKeyRepository;
+import repository.OrderItemRepository;
+import repository.OrderRepository;
+import repository.OrderStatusView;
+import repository.RestaurantRepository;
+import security.JwtPrincipal;
+
+class OrderServiceTest {
+
+	private static final JwtPrincipal CUSTOMER = new JwtPrincipal(1L, "customer@example.com", Role.USER, null);
+	private static final JwtPrincipal OWNER = new JwtPrincipal(2L, "owner@example.com", Role.HOTEL, null);
+
+	private OrderRepository orderRepository;
+	private UserService userService;
+	private AddressService addressService;
+	private RestaurantRepository restaurantRepository;
+	private MenuItemRepository menuItemRepository;
+	private OrderService orderService;
+
+	private Restaurant restaurant;
+
+	@BeforeEach
+	void setUp() {
+		orderRepository = mock(OrderRepository.class);
+		userService = mock(UserService.class);
+		addressService = mock(AddressService.class);
+		restaurantRepository = mock(RestaurantRepository.class);
+		menuItemRepository = mock(MenuItemRepository.class);
+		orderService = new OrderService(orderRepository, userService, addressService, restaurantRepository, menuItemRepository,
+				mock(OrderItemRepository.class), mock(OrderIdempotencyKeyRepository.class), mock(ApplicationEventPublisher.class));
+
+		when(userService.getUserIdentity(1L)).thenReturn(new UserIdentity(1L, Role.USER, "customer", "customer@example.com"));
+
+		restaurant = new Restaurant();
+		restaurant.setId(10L);
+		when(restaurantRepository.findById(10L)).thenReturn(Optional.of(restaurant));
+		when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@Test
+	void placeOrderResolvesWholeCartWithOneLookup() {
+		List<MenuItem> menu = new ArrayList<>();
+		OrderRequestDto request = new OrderRequestDto();
+		request.setItems(new ArrayList<>());
+		for (long id = 1; id <= 15; id++) {
+			menu.add(menuItem(id, 2.0, true));
+			request.getItems().add(line(id, 2));
+		}
+		when(menuItemRepository.findByRestaurantIdAndIdIn(eq(10L), anyCollection())).thenReturn(menu);
+
+		Order order = orderService.placeOrder(request, CUSTOMER, 10L);
+
+		assertEquals(15, order.getItems().size());
+		assertEquals(60.0, order.getTotalAmount());
+		verify(menuItemRepository, times(1)).findByRestaurantIdAndIdIn(eq(10L), anyCollection());
+		verify(menuItemRepository, never()).findById(anyLong());
+	}
+
+	@Test
+	void placeOrderRejectsItemFromAnotherRestaurant() {
+		OrderRequestDto request = new OrderRequestDto();
+		request.setItems(List.of(line(1L, 1), line(2L, 1)));
+		when(menuItemRepository.findByRestaurantIdAndIdIn(eq(10L), anyCollection()))
+			.thenReturn(List.of(menuItem(1L, 5.0, true)));
+
+		assertThrows(ResourceNotFoundException.class, () -> orderService.placeOrder(request, CUSTOMER, 10L));
+		verify(orderRepository, never()).save(any(Order.class));
+	}
+
+	@Test
+	void placeOrderRejectsUnavailableItem() {
+		OrderRequestDto request = new OrderRequestDto();
+		request.setItems(List.of(line(1L, 1)));
+		when(menuItemRepository.findByRestaurantIdAndIdIn(eq(10L), anyCollection()))
+			.thenReturn(List.of(menuItem(1L, 5.0, false)));
+
+		assertThrows(IllegalArgumentException.class, () -> orderService.placeOrder(request, CUSTOMER, 10L));
+		verify(orderRepository, never()).save(any(Order.class));
+	}
+
+	@Test
+	void placeOrderFallsBackToDefaultAddress() {
+		OrderRequestDto request = new OrderRequestDto();
+		request.setItems(List.of(line(1L, 1)));
+		when(menuItemRepository.findByRestaurantIdAndIdIn(eq(10L), anyCollection()))
+			.thenReturn(List.of(menuItem(1L, 5.0, true)));
+		when(addressService.getDefaultDeliveryAddress(1L)).thenReturn(Optional.of("1 Main St"));
+
+		assertEquals("1 Main St", orderService.placeOrder(request, CUSTOMER, 10L).getDeliveryAddress());
+
+		request.setDeliveryAddress("2 High St");
+		assertEquals("2 High St", orderService.placeOrder(request, CUSTOMER, 10L).getDeliveryAddress());
+		verify(addressService, times(1)).getDefaultDeliveryAddress(1L);
+	}
+
+	@Test
+	void concurrentStatusUpdatesOnlyPersistLegalTransitions() throws Exception {
+
+		AtomicReference<OrderStatus> stored = new AtomicReference<>(OrderStatus.PLACED);
+		List<OrderStatus[]> applied = Collections.synchronizedList(new ArrayList<>());
+		when(orderRepository.findStatusViewById(7L)).thenAnswer(invocation -> Optional.of(statusView(stored.get())));
+		when(orderRepository.compareAndSetStatus(eq(7L), any(OrderStatus.class), any(OrderStatus.class))).thenAnswer(invocation -> {
+			OrderStatus expected = invocation.getArgument(1);
+			OrderStatus next = invocation.getArgument(2);
+			synchronized (stored) {
+				if (!stored.compareAndSet(expected, next)) {
+					return 0;
+				}
+				applied.add(new OrderStatus[] {expected, next});
+				return 1;
+			}
+		});
+
+		Map<OrderStatus, Set<OrderStatus>> legal = Map.of(
+			OrderStatus.PLACED, EnumSet.of(OrderStatus.PREPARING, OrderStatus.CANCELLED),
+			OrderStatus.PREPARING, EnumSet.of(OrderStatus.OUT_FOR_DELIVERY, OrderStatus.CANCELLED),
+			OrderStatus.OUT_FOR_DELIVERY, EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED),
+			OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class),
+			OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+		ExecutorService pool = Executors.newFixedThreadPool(32);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int t = 0; t < 32; t++) {
+			JwtPrincipal actor = t % 2 == 0 ? CUSTOMER : OWNER;
+			workers.add(pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < 200; i++) {
+					OrderStatus target = OrderStatus.values()[ThreadLocalRandom.current().nextInt(OrderStatus.values().length)];
+					try {
+						orderService.updateOrderStatus(7L, target, actor);
+					} catch (UnauthorizedActionException | OrderStatusConflictException expected) {
+						// Rejected transitions and lost races are the point of the test
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> worker : workers) {
+			worker.get();
+		}
+		pool.shutdown();
+
+		OrderStatus current = OrderStatus.PLACED;
+		for (OrderStatus[] transition : applied) {
+			assertEquals(current, transition[0]);
+			assertTrue(legal.get(transition[0]).contains(transition[1]));
+			current = transition[1];
+		}
+		assertEquals(stored.get(), current);
+	}
+
+	private OrderStatusView statusView(OrderStatus status) {
+		return new OrderStatusView() {
+			@Override public OrderStatus getStatus() { return status; }
+			@Override public Long getUserId() { return 1L; }
+			@Override public Long getRestaurantId() { return 10L; }
+			@Override public Long getOwnerId() { return 2L; }
+		};
+	}
+
+	private MenuItem menuItem(Long id, double price, boolean available) {
+		MenuItem item = new MenuItem();
+		item.setId(id);
+		item.setName("Item " + id);
+		item.setPrice(price);
+		item.setAvailable(available);
+		item.setRestaurant(restaurant);
+		return item;
+	}
+
+	private OrderRequestDto.OrderItemDto line(Long menuItemId, int quantity) {
+		OrderRequestDto.OrderItemDto line = new OrderRequestDto.OrderItemDto();
+		line.setMenuItemId(menuItemId);
+		line.setQuantity(quantity);
+		return line;
+	}
+}
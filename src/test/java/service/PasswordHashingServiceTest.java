@@ -0,0 +1,85 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHashingServiceTest {
+
+	@Test
+	void hashesAndVerifiesOffTheCallingThread() {
+		PasswordHashingService hashing = new PasswordHashingService(new BCryptPasswordEncoder(4),
+			new SimpleMeterRegistry(), 4, 1, 4, 5_000);
+
+		String hash = hashing.encode("secret");
+
+		assertTrue(hashing.matches("secret", hash));
+		assertFalse(hashing.matches("wrong", hash));
+		assertFalse(hashing.matches("secret", null));
+	}
+
+	@Test
+	void detectsHashesMadeWithAnotherWorkFactor() {
+		PasswordHashingService hashing = new PasswordHashingService(new BCryptPasswordEncoder(5),
+			new SimpleMeterRegistry(), 5, 1, 4, 5_000);
+
+		assertFalse(hashing.needsRehash(new BCryptPasswordEncoder(5).encode("secret")));
+		assertTrue(hashing.needsRehash(new BCryptPasswordEncoder(4).encode("secret")));
+		assertTrue(hashing.needsRehash(new BCryptPasswordEncoder(6).encode("secret")));
+		assertTrue(hashing.needsRehash("plain-text"));
+	}
+
+	@Test
+	void shedsLoadWhenThePoolAndBacklogAreFull() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		PasswordEncoder slow = new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				started.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "hash";
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				return true;
+			}
+		};
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		PasswordHashingService hashing = new PasswordHashingService(slow, registry, 10, 1, 1, 5_000);
+
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		callers.submit(() -> hashing.encode("running"));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		callers.submit(() -> hashing.encode("queued"));
+		while (registry.get("auth.hashing.queue.depth").gauge().value() < 1) {
+			Thread.sleep(5);
+		}
+
+		// One running, one queued: the next caller is turned away instead of waiting
+		assertThrows(ServiceOverloadedException.class, () -> hashing.encode("rejected"));
+		assertEquals(1.0, registry.get("auth.hashing.rejected").counter().count());
+
+		release.countDown();
+		callers.shutdown();
+		assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+	}
+}
@@ -0,0 +1,93 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dto.RestaurantDto;
+import repository.RestaurantRepository;
+
+class RestaurantCatalogSnapshotTest {
+
+	private static final RestaurantDto DINER = new RestaurantDto(1L, "Diner", null, "American", 7L, "owner");
+	private static final RestaurantDto CAFE = new RestaurantDto(2L, "Cafe", null, "Coffee", 7L, "owner");
+
+	private RestaurantRepository restaurantRepository;
+	private RestaurantService restaurantService;
+
+	@BeforeEach
+	void setUp() {
+		restaurantRepository = mock(RestaurantRepository.class);
+		restaurantService = new RestaurantService(restaurantRepository, mock(UserService.class), new ObjectMapper(),
+			mock(CatalogSearchService.class), mock(RestaurantAccessService.class), mock(NearbyRestaurantService.class), 600);
+	}
+
+	@Test
+	void readersKeepTheOldCatalogWhileOneThreadRebuilds() throws Exception {
+		CountDownLatch building = new CountDownLatch(1);
+		CountDownLatch finish = new CountDownLatch(1);
+		when(restaurantRepository.findAllDtos())
+			.thenReturn(List.of(DINER))
+			.thenAnswer(invocation -> {
+				building.countDown();
+				finish.await();
+				return List.of(DINER, CAFE);
+			});
+		RestaurantCatalogSnapshot old = restaurantService.getCatalogSnapshot();
+		restaurantService.invalidateCatalog();
+
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<RestaurantCatalogSnapshot> rebuilt = pool.submit(restaurantService::getCatalogSnapshot);
+			assertTrue(building.await(5, TimeUnit.SECONDS));
+
+			for (int i = 0; i < 3; i++) {
+				assertSame(old, restaurantService.getCatalogSnapshot());
+			}
+
+			finish.countDown();
+			RestaurantCatalogSnapshot fresh = rebuilt.get(5, TimeUnit.SECONDS);
+			assertNotEquals(old.getEtag(), fresh.getEtag());
+			assertSame(fresh, restaurantService.getCatalogSnapshot());
+		} finally {
+			pool.shutdownNow();
+		}
+		verify(restaurantRepository, times(2)).findAllDtos();
+	}
+
+	@Test
+	void aBuildOverlappingAnInvalidationIsNotKept() {
+		when(restaurantRepository.findAllDtos())
+			.thenAnswer(invocation -> {
+				// A restaurant is added after the query read the table
+				restaurantService.invalidateCatalog();
+				return List.of(DINER);
+			})
+			.thenReturn(List.of(DINER, CAFE));
+
+		RestaurantCatalogSnapshot raced = restaurantService.getCatalogSnapshot();
+		RestaurantCatalogSnapshot next = restaurantService.getCatalogSnapshot();
+
+		assertNotEquals(raced.getEtag(), next.getEtag());
+		assertSame(next, restaurantService.getCatalogSnapshot());
+		verify(restaurantRepository, times(2)).findAllDtos();
+		assertEquals(1L, next.getGeneration());
+	}
+}
@@ -0,0 +1,101 @@
+package service;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dto.MenuItemDto;
+
+/**
+ * Menu item search over a 1M-item catalogue, indexed the way CatalogSearchService indexes it.
+ * Items are named from a small dish vocabulary across 20k restaurants, so common words have
+ * long postings. Queries rotate through whole words, three-letter prefixes and two-word
+ * queries with the default result limit. Sample mode, so the output includes p99.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="TextSearchIndexBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TextSearchIndexBenchmark {
+
+	private static final int ITEMS = 1_000_000;
+	private static final int RESTAURANTS = 20_000;
+	private static final int LIMIT = 50;
+	private static final int QUERIES = 1024;
+
+	private static final String[] STYLES = {"spicy", "crispy", "butter", "tandoori", "smoked", "garlic", "masala",
+		"grilled", "creamy", "sweet", "sour", "honey", "lemon", "pepper", "chilli", "herb", "roasted", "steamed",
+		"fried", "stuffed"};
+	private static final String[] DISHES = {"paneer", "chicken", "mutton", "prawn", "fish", "dal", "biryani", "naan",
+		"roti", "pizza", "pasta", "burger", "noodles", "momos", "dosa", "idli", "samosa", "kebab", "tikka", "curry",
+		"salad", "soup", "sandwich", "wrap", "rice", "paratha", "kulfi", "lassi", "brownie", "cheesecake"};
+	private static final String[] TYPES = {"veg", "non-veg", "vegan", "dessert", "beverage", "starter"};
+	private static final String[] NAME_WORDS = {"golden", "royal", "spice", "dragon", "garden", "palace", "corner",
+		"kitchen", "house", "express", "grand", "urban", "little", "blue", "green", "lotus", "saffron", "coastal",
+		"street", "village"};
+	private static final String[] DESCRIPTION_WORDS = {"served", "with", "fresh", "house", "sauce", "chutney",
+		"slow", "cooked", "tossed", "in", "aromatic", "spices", "topped", "cheese", "onions", "mint", "yoghurt",
+		"served", "hot", "side"};
+
+	private TextSearchIndex<MenuItemDto> index;
+	private String[] queries;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		String[] restaurantNames = new String[RESTAURANTS];
+		for (int i = 0; i < RESTAURANTS; i++) {
+			restaurantNames[i] = pick(random, NAME_WORDS) + " " + pick(random, NAME_WORDS) + " " + i;
+		}
+
+		// The same documents CatalogSearchService builds its menu item index from
+		index = new TextSearchIndex<>(
+			MenuItemDto::getId,
+			item -> String.join(" ", item.getName(), item.getType(), item.getRestaurantName()),
+			MenuItemDto::getDescription);
+		for (long id = 0; id < ITEMS; id++) {
+			int restaurant = random.nextInt(RESTAURANTS);
+			String name = pick(random, STYLES) + " " + pick(random, DISHES)
+				+ (random.nextBoolean() ? " " + pick(random, DISHES) : "");
+			String description = pick(random, DESCRIPTION_WORDS) + " " + pick(random, DESCRIPTION_WORDS) + " "
+				+ pick(random, DESCRIPTION_WORDS) + " " + pick(random, DESCRIPTION_WORDS);
+			index.put(new MenuItemDto(id, name, description, 100.0, pick(random, TYPES), random.nextInt(10) > 0,
+				(long) restaurant, restaurantNames[restaurant]));
+		}
+
+		queries = new String[QUERIES];
+		for (int q = 0; q < QUERIES; q++) {
+			queries[q] = switch (q % 4) {
+				case 0 -> pick(random, DISHES);
+				case 1 -> pick(random, DISHES).substring(0, 3);
+				case 2 -> pick(random, STYLES) + " " + pick(random, DISHES);
+				default -> pick(random, NAME_WORDS) + " " + pick(random, DISHES).substring(0, 3);
+			};
+		}
+	}
+
+	@Benchmark
+	public List<MenuItemDto> search() {
+		return index.search(queries[next++ & (QUERIES - 1)], LIMIT, item -> Boolean.TRUE.equals(item.getAvailable()));
+	}
+
+	private static String pick(Random random, String[] words) {
+		return words[random.nextInt(words.length)];
+	}
+}
@@ -0,0 +1,36 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TextSearchIndexTest {
+
+	private record Doc(Long id, String name) {}
+
+	@Test
+	void tombstonesAreCompactedAwayAndSearchStillMatches() {
+		TextSearchIndex<Doc> index = new TextSearchIndex<>(Doc::id, Doc::name, doc -> null);
+		for (long id = 0; id < 100; id++) {
+			index.put(new Doc(id, "Dish " + id));
+		}
+
+		int maxDead = 0;
+		for (int round = 0; round < 50; round++) {
+			for (long id = 0; id < 100; id++) {
+				index.put(new Doc(id, (round % 2 == 0 ? "Curry " : "Soup ") + id));
+			}
+			maxDead = Math.max(maxDead, index.deadEntries());
+		}
+
+		// Never more tombstones than the threshold plus one pass of replacements
+		assertTrue(maxDead < 256 + 100, "dead entries reached " + maxDead);
+		assertEquals(100, index.size());
+		assertEquals(List.of(new Doc(7L, "Soup 7")), index.search("soup 7", 10, doc -> true));
+		assertTrue(index.search("curry", 10, doc -> true).isEmpty());
+		assertEquals(100, index.search("sou", 200, doc -> true).size());
+	}
+}